@@ -0,0 +1,54 @@
+package io.github.eschoe.llmragapi.bench;
+
+import java.util.Random;
+
+/**
+ * 벤치마크 입력 데이터 (시드 고정이라 실행마다 같음)
+ */
+final class BenchData {
+
+    private static final String[] SENTENCES = {
+            "검색 증강 생성은 질문과 가까운 문서 조각을 먼저 찾아 프롬프트에 넣고 답을 만듭니다.",
+            "조각은 text-embedding-3-small 임베딩으로 저장되며 pgvector 의 코사인 거리로 정렬합니다.",
+            "같은 내용의 조각은 SHA-256 해시로 찾아 임베딩을 다시 만들지 않습니다!",
+            "대화가 길어지면 오래된 메시지를 요약하고, 최근 메시지는 토큰 예산 안에서 그대로 둡니다.",
+            "임계값을 너무 높게 잡으면 관련 문서도 빠지지 않을까요?",
+            "Rate limit 은 로컬 토큰 버킷으로 먼저 판정하고 200ms 마다 Redis 에 묶어서 반영합니다.",
+            "표와 목록은 구조 단위로 묶어서 자르므로 항목 중간에서 끊기지 않습니다.",
+            "\"따옴표\"와 C:\\data\\docs 같은 경로, 탭\t문자도 그대로 들어갈 수 있습니다."
+    };
+
+    private BenchData() {
+    }
+
+    /**
+     * 문장 목록을 섞어 만든 한글 위주 텍스트. 4~6 문장마다 문단을 바꿉니다.
+     */
+    static String koreanText(int chars, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(chars + 128);
+        int inParagraph = 0;
+        while (text.length() < chars) {
+            text.append(SENTENCES[random.nextInt(SENTENCES.length)]);
+            if (++inParagraph >= 4 + random.nextInt(3)) {
+                text.append("\n\n");
+                inParagraph = 0;
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 임베딩 API 응답과 비슷한 크기의 값 (절댓값 0.05 안쪽)
+     */
+    static float[] vector(int dimensions, long seed) {
+        Random random = new Random(seed);
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (random.nextFloat() - 0.5f) * 0.1f;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.eschoe.llmragapi.bench;
+
+import io.github.eschoe.llmragapi.domain.document.chunk.Chunk;
+import io.github.eschoe.llmragapi.domain.document.chunk.ChunkingHandler;
+import io.github.eschoe.llmragapi.domain.document.chunk.ChunkingOptions;
+import io.github.eschoe.llmragapi.domain.document.chunk.ChunkingStrategy;
+import io.github.eschoe.llmragapi.domain.document.chunk.SentenceChunkingStrategy;
+import io.github.eschoe.llmragapi.domain.document.chunk.StructureChunkingStrategy;
+import io.github.eschoe.llmragapi.service.DocumentParsingService;
+import io.github.eschoe.llmragapi.util.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 한글 문서를 청크로 나누는 비용 (Tika 파싱 제외, 추출된 텍스트부터)
+ *
+ * - legacySplit: DocumentParsingService.splitIntoChunks (문자 수 기준, [.!?] 정규식 분할)
+ * - sentence / structure: 업로드 경로의 청킹 전략 (토큰 수 기준 512 / 겹침 64, chunkText 와 같은 설정)
+ *
+ * 토큰 기준 전략은 jtokkit 토큰 계산이 대부분이라 legacySplit 과 직접 비교하기보다 각자의 변화를 봅니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChunkingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int documentChars;
+
+    private DocumentParsingService parsingService;
+    private ChunkingStrategy sentence;
+    private ChunkingStrategy structure;
+    private ChunkingOptions options;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        TokenCounter tokenCounter = new TokenCounter();
+        sentence = new SentenceChunkingStrategy();
+        structure = new StructureChunkingStrategy();
+        parsingService = new DocumentParsingService(tokenCounter, List.of(sentence, structure));
+        options = new ChunkingOptions(tokenCounter::count, 512, 64);
+        text = BenchData.koreanText(documentChars, 7);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public List<String> legacySplit() {
+        return parsingService.splitIntoChunks(text, 1000, 200).block();
+    }
+
+    @Benchmark
+    public List<Chunk> sentence() {
+        return chunk(sentence);
+    }
+
+    @Benchmark
+    public List<Chunk> structure() {
+        return chunk(structure);
+    }
+
+    private List<Chunk> chunk(ChunkingStrategy strategy) {
+        List<Chunk> chunks = new ArrayList<>();
+        ChunkingHandler handler = strategy.open(options, chunks::add);
+        handler.appendText(text);
+        handler.finish();
+        return chunks;
+    }
+}
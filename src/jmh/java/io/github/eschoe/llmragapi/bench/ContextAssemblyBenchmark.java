@@ -0,0 +1,88 @@
+package io.github.eschoe.llmragapi.bench;
+
+import io.github.eschoe.llmragapi.config.LlmPromptProperties;
+import io.github.eschoe.llmragapi.domain.chat.ChatPrompt;
+import io.github.eschoe.llmragapi.domain.llm.LlmConstants;
+import io.github.eschoe.llmragapi.domain.llm.PromptBudget;
+import io.github.eschoe.llmragapi.domain.llm.PromptBudgeter;
+import io.github.eschoe.llmragapi.domain.search.SearchResult;
+import io.github.eschoe.llmragapi.util.LlmRagUtil;
+import io.github.eschoe.llmragapi.util.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatImplService 의 프롬프트 조립 (LLM 호출 직전, 검색 결과와 대화 맥락이 준비된 뒤)
+ *
+ * - safeSnippet: 검색 결과 본문을 한 줄로 자르는 부분만
+ * - assemble: 토큰 예산 시작 -> {@link ChatPrompt#assemble} (대화 맥락 자르기 -> 컨텍스트 줄 만들기(safeSnippet + 점수)
+ *   -> 예산 안에서 고르기 -> 프롬프트 합치기). 서비스와 같은 메서드를 부르므로 서비스 쪽 변경이 그대로 측정됩니다.
+ *
+ * 대화 맥락은 100 메시지 스레드를 ConversationMemory 형식("사용자: ..." / "AI: ...")으로 펼친 것입니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContextAssemblyBenchmark {
+
+    private static final int HISTORY_MESSAGES = 100;
+
+    @Param({"10", "50"})
+    public int resultCount;
+
+    private PromptBudgeter budgeter;
+    private List<String> models;
+    private String questionPrompt;
+    private String history;
+    private List<SearchResult> searchResults;
+
+    @Setup
+    public void setUp() {
+        LlmPromptProperties properties = new LlmPromptProperties();
+        properties.getContextWindows().put("gpt-4o", 128_000);
+        budgeter = new PromptBudgeter(properties, new TokenCounter());
+        models = List.of("gpt-4o-mini");
+        questionPrompt = ChatPrompt.question("벡터 검색에서 코사인 유사도 임계값은 어떻게 정하나요?");
+
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < HISTORY_MESSAGES; i++) {
+            lines.append(i % 2 == 0 ? "사용자: " : "AI: ")
+                    .append(BenchData.koreanText(120 + (i % 5) * 60, 100 + i).replace('\n', ' ').strip())
+                    .append('\n');
+        }
+        history = lines.toString();
+
+        searchResults = new ArrayList<>(resultCount);
+        for (int i = 0; i < resultCount; i++) {
+            searchResults.add(new SearchResult(String.valueOf(i), BenchData.koreanText(1500, 200 + i),
+                    0.9 - i * 0.005, Map.of("title", "문서 " + i), "database"));
+        }
+    }
+
+    @Benchmark
+    public void safeSnippet(Blackhole bh) {
+        for (SearchResult result : searchResults) {
+            bh.consume(LlmRagUtil.safeSnippet(result.getContent()));
+        }
+    }
+
+    @Benchmark
+    public String assemble() {
+        PromptBudget budget = budgeter.begin(models, 1024, 0.7,
+                LlmConstants.SYSTEM_PROMPT, questionPrompt, ChatPrompt.HISTORY_HEADER);
+
+        return ChatPrompt.assemble(budget, questionPrompt, history, budget.historyAllowance(), searchResults);
+    }
+}
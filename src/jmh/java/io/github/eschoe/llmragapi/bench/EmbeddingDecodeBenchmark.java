@@ -0,0 +1,93 @@
+package io.github.eschoe.llmragapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.client.EmbeddingResponseDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 임베딩 응답 한 건을 float[] 로 만드는 비용
+ *
+ * - mapDecode: 예전 방식 (Map 으로 파싱 후 List<Number> 를 복사)
+ * - streamingFloatDecode / streamingBase64Decode: EmbeddingResponseDecoder
+ *
+ * 할당량 비교는 gc 프로파일러로 봅니다. (build.gradle 의 jmh 설정에서 기본으로 켜 둠)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmbeddingDecodeBenchmark {
+
+    @Param({"1536", "3072"})
+    public int dimensions;
+
+    private ObjectMapper objectMapper;
+    private EmbeddingResponseDecoder decoder;
+    private byte[] floatResponse;
+    private byte[] base64Response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        decoder = new EmbeddingResponseDecoder();
+
+        Random random = new Random(42);
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (random.nextFloat() - 0.5f) * 0.1f;
+        }
+
+        StringBuilder numbers = new StringBuilder(dimensions * 14);
+        for (int i = 0; i < dimensions; i++) {
+            if (i > 0) numbers.append(',');
+            numbers.append(vector[i]);
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(vector);
+
+        floatResponse = response("[" + numbers + "]");
+        base64Response = response("\"" + Base64.getEncoder().encodeToString(bytes.array()) + "\"");
+    }
+
+    private static byte[] response(String embedding) {
+        return ("{\"object\":\"list\",\"data\":[{\"object\":\"embedding\",\"index\":0,\"embedding\":" + embedding + "}],"
+                + "\"model\":\"text-embedding-3-small\",\"usage\":{\"prompt_tokens\":8,\"total_tokens\":8}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public float[] mapDecode() throws Exception {
+        Map<String, Object> m = objectMapper.readValue(floatResponse, Map.class);
+        var data = (List<Map<String, Object>>) m.get("data");
+        var vec = (List<Number>) data.getFirst().get("embedding");
+        float[] arr = new float[vec.size()];
+        for (int i = 0; i < vec.size(); i++) arr[i] = vec.get(i).floatValue();
+        return arr;
+    }
+
+    @Benchmark
+    public float[] streamingFloatDecode() throws Exception {
+        return decoder.decodeFirst(floatResponse);
+    }
+
+    @Benchmark
+    public float[] streamingBase64Decode() throws Exception {
+        return decoder.decodeFirst(base64Response);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.eschoe.llmragapi.bench;
+
+import io.github.eschoe.llmragapi.domain.llm.LlmConstants;
+import io.github.eschoe.llmragapi.util.HashUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HashUtil.sha256 (호출마다 MessageDigest.getInstance + UTF-8 인코딩 + hex)
+ *
+ * - cacheKey: 채팅/질문 캐시 키 (라우팅 그룹, 컨텍스트 버전, 생성 옵션, 시스템 프롬프트, 사용자 프롬프트)
+ * - chunkHash: 업로드 시 청크 내용 해시 (임베딩 모델, 청크 본문 약 500 토큰)
+ *
+ * promptChars 는 사용자 프롬프트(질문 + 검색 컨텍스트) 길이입니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashBenchmark {
+
+    @Param({"500", "8000"})
+    public int promptChars;
+
+    private HashUtil hash;
+    private String userPrompt;
+    private String chunk;
+
+    @Setup
+    public void setUp() {
+        hash = new HashUtil();
+        userPrompt = "QUESTION:\n임베딩 캐시는 언제 무효화되나요?\n\nCONTEXT:\n" + BenchData.koreanText(promptChars, 1);
+        chunk = BenchData.koreanText(1200, 2);
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        return hash.sha256("chat", "v3", "1024/0.7", LlmConstants.SYSTEM_PROMPT, userPrompt);
+    }
+
+    @Benchmark
+    public String chunkHash() {
+        return hash.sha256("text-embedding-3-small", chunk);
+    }
+}
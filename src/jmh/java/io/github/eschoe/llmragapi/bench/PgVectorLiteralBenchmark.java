@@ -0,0 +1,41 @@
+package io.github.eschoe.llmragapi.bench;
+
+import io.github.eschoe.llmragapi.util.PgVectorUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PgVectorUtil.toPgvectorLiteral: 검색 쿼리와 청크 저장마다 float[] 를 '[0.1,...]' 문자열로 바꾸는 비용
+ *
+ * float 하나당 Float.toString 이 돌기 때문에 차원에 비례합니다. 할당량은 gc 프로파일러로 봅니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PgVectorLiteralBenchmark {
+
+    @Param({"1536", "3072"})
+    public int dimensions;
+
+    private PgVectorUtil pgVectorUtil;
+    private float[] vector;
+
+    @Setup
+    public void setUp() {
+        pgVectorUtil = new PgVectorUtil();
+        vector = BenchData.vector(dimensions, 42);
+    }
+
+    @Benchmark
+    public String toPgvectorLiteral() {
+        return pgVectorUtil.toPgvectorLiteral(vector);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.eschoe.llmragapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.client.GenerationOptions;
+import io.github.eschoe.llmragapi.client.LlmRequestEncoder;
+import io.github.eschoe.llmragapi.domain.llm.LlmConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 요청 본문 한 건을 인코딩하는 비용
+ *
+ * - mapEncode: 예전 방식 (요청마다 Map/List 를 만들고 ObjectMapper 로 직렬화, 시스템 프롬프트도 매번 이스케이프)
+ * - preEncoded: LlmRequestEncoder (모델 + 시스템 프롬프트 조각 재사용, 사용자 입력만 풀 버퍼에 씀)
+ *
+ * contextLines 는 검색 컨텍스트 줄 수 (한 줄에 한글 약 200자). 할당량 비교는 gc 프로파일러로 봅니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestEncodeBenchmark {
+
+    @Param({"0", "5", "20"})
+    public int contextLines;
+
+    private static final String MODEL = "gpt-4o-mini";
+
+    private ObjectMapper objectMapper;
+    private LlmRequestEncoder encoder;
+    private GenerationOptions options;
+    private String userPrompt;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        encoder = new LlmRequestEncoder();
+        options = new GenerationOptions(1024, 0.7);
+
+        StringBuilder prompt = new StringBuilder("QUESTION:\n벡터 검색에서 코사인 유사도 임계값은 어떻게 정하나요?\n\nCONTEXT:\n");
+        for (int i = 0; i < contextLines; i++) {
+            prompt.append("- ")
+                    .append("문서 조각 ").append(i).append(": 임베딩 벡터는 \"정규화\" 후 내적으로 비교하며, ".repeat(4))
+                    .append(String.format("(점수: %.3f)", 0.9 - i * 0.01))
+                    .append('\n');
+        }
+        userPrompt = prompt.toString();
+    }
+
+    @Benchmark
+    public byte[] mapEncode() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", MODEL);
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", LlmConstants.SYSTEM_PROMPT),
+                Map.of("role", "user", "content", userPrompt)
+        ));
+        body.put("max_tokens", options.maxTokens());
+        body.put("temperature", options.temperature());
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public int preEncoded() {
+        DataBuffer buffer = encoder.openAiChat(MODEL, LlmConstants.SYSTEM_PROMPT, userPrompt, options);
+        try {
+            return buffer.readableByteCount();
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
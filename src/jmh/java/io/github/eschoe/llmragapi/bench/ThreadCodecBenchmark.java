@@ -0,0 +1,89 @@
+package io.github.eschoe.llmragapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.domain.conversation.ConversationThread;
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대화 스레드 직렬화/파싱 처리량
+ *
+ * - thread*: 스레드 전체를 한 번에 (예전 thread:{id} 형식을 옮길 때의 경로)
+ * - messages*: 메시지 단위 (thread:{id}:messages 리스트를 읽고 쓰는 실제 경로)
+ *
+ * 본문에는 따옴표, 줄바꿈, 역슬래시, 한글이 섞여 있습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreadCodecBenchmark {
+
+    @Param({"100", "500"})
+    public int messageCount;
+
+    private RedisJsonCodec codec;
+    private ConversationThread thread;
+    private String threadJson;
+    private List<String> messageJsons;
+
+    @Setup
+    public void setUp() {
+        codec = new RedisJsonCodec(new ObjectMapper());
+
+        thread = new ConversationThread(UUID.randomUUID().toString(), "벤치마크 \"스레드\"", "bench-session");
+        List<ConversationThread.Message> messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            ConversationThread.Message message = new ConversationThread.Message(
+                    "메시지 " + i + ": 사용자가 \"따옴표\"와 C:\\path\\to\\file 경로를 보냈습니다.\n"
+                            + "두 번째 줄에는 코드 `print(\"hi\")` 와 탭\t문자가 있습니다.",
+                    i % 2 == 0 ? ConversationThread.Message.MessageRole.USER : ConversationThread.Message.MessageRole.ASSISTANT);
+            message.setId(UUID.randomUUID().toString());
+            messages.add(message);
+        }
+        thread.setMessages(messages);
+        thread.setMessageCount(messageCount);
+
+        threadJson = codec.encode(thread);
+        messageJsons = new ArrayList<>(messageCount);
+        for (ConversationThread.Message message : messages) {
+            messageJsons.add(codec.encode(message));
+        }
+    }
+
+    @Benchmark
+    public String threadEncode() {
+        return codec.encode(thread);
+    }
+
+    @Benchmark
+    public ConversationThread threadDecode() {
+        return codec.decode(threadJson, ConversationThread.class);
+    }
+
+    @Benchmark
+    public void messagesEncode(Blackhole bh) {
+        for (ConversationThread.Message message : thread.getMessages()) {
+            bh.consume(codec.encode(message));
+        }
+    }
+
+    @Benchmark
+    public void messagesDecode(Blackhole bh) {
+        for (String json : messageJsons) {
+            bh.consume(codec.decode(json, ConversationThread.Message.class));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.eschoe.llmragapi.loadtest;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 부하 테스트 대상 엔드포인트와 요청 본문
+ *
+ * 질문은 고정 목록 x 변형 번호로 만들어 캐시 적중과 미스가 섞이게 합니다.
+ * 응답 본문은 끝까지 읽고 버립니다 (스트리밍 응답도 마지막 바이트까지가 지연 시간).
+ */
+public enum Endpoint {
+
+    CHAT("chat", "/api/chat") {
+        @Override
+        Mono<Integer> call(WebClient client, String sessionId, long seq) {
+            return send(client.post().uri(path())
+                    .header("X-Session-ID", sessionId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("query", question(seq), "sessionId", sessionId)));
+        }
+    },
+    ASK("ask", "/api/ask") {
+        @Override
+        Mono<Integer> call(WebClient client, String sessionId, long seq) {
+            return send(client.post().uri(path())
+                    .header("X-Session-ID", sessionId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of(
+                            "query", question(seq),
+                            "sessionId", sessionId,
+                            "config", Map.of("topK", 5, "threshold", SEARCH_THRESHOLD, "maxTokens", 256))));
+        }
+    },
+    SEARCH("search", "/api/embeddings/search") {
+        @Override
+        Mono<Integer> call(WebClient client, String sessionId, long seq) {
+            return send(client.post().uri(path())
+                    .header("X-Session-ID", sessionId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("query", question(seq), "topK", 10, "threshold", SEARCH_THRESHOLD)));
+        }
+    },
+    THREADS("threads", "/api/threads") {
+        @Override
+        Mono<Integer> call(WebClient client, String sessionId, long seq) {
+            return send(client.post().uri(path())
+                    .header("X-Session-ID", sessionId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("title", "부하 테스트 스레드 " + seq)));
+        }
+    },
+    UPLOAD("upload", "/api/documents/upload") {
+        @Override
+        Mono<Integer> call(WebClient client, String sessionId, long seq) {
+            MultipartBodyBuilder body = new MultipartBodyBuilder();
+            body.part("file", new ByteArrayResource(document(seq)) {
+                @Override
+                public String getFilename() {
+                    return "loadtest-" + seq + ".txt";
+                }
+            }).contentType(MediaType.TEXT_PLAIN);
+            body.part("metadata", "{\"title\":\"부하 테스트 문서 " + seq + "\",\"category\":\"loadtest\"}")
+                    .contentType(MediaType.APPLICATION_JSON);
+            return send(client.post().uri(path())
+                    .header("X-Session-ID", sessionId)
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(BodyInserters.fromMultipartData(body.build())));
+        }
+    };
+
+    // 목 임베딩은 입력마다 다른 단위 벡터라 유사도가 0 근처에 몰림. 결과가 비지 않도록 낮게 둠
+    private static final double SEARCH_THRESHOLD = 0.01;
+    private static final int QUESTION_VARIANTS = 50;
+
+    private static final List<String> QUESTIONS = List.of(
+            "벡터 검색에서 코사인 유사도 임계값은 어떻게 정하나요?",
+            "문서를 청크로 나눌 때 적절한 크기는 얼마인가요?",
+            "임베딩 캐시는 언제 무효화되나요?",
+            "대화 기록이 길어지면 어떻게 요약하나요?",
+            "하이브리드 rate limit 은 노드 간에 어떻게 동기화되나요?",
+            "업로드한 문서를 다시 색인하면 바뀐 청크만 처리하나요?",
+            "pgvector 인덱스는 어떤 종류를 쓰나요?",
+            "LLM 호출이 실패하면 재시도는 몇 번 하나요?"
+    );
+
+    private static final String PARAGRAPH =
+            "검색 증강 생성은 질문과 가까운 문서 조각을 먼저 찾아 프롬프트에 넣고 답을 만듭니다. "
+            + "조각은 임베딩 벡터로 저장되며 pgvector 의 코사인 거리로 정렬합니다. "
+            + "같은 내용의 조각은 해시로 찾아 임베딩을 다시 만들지 않습니다.\n";
+
+    private final String name;
+    private final String path;
+
+    Endpoint(String name, String path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * 요청 한 건을 보내고 상태 코드를 돌려줍니다. 본문은 끝까지 읽어서 버립니다.
+     */
+    abstract Mono<Integer> call(WebClient client, String sessionId, long seq);
+
+    public String displayName() {
+        return name;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public static Endpoint byName(String name) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.name.equalsIgnoreCase(name)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("unknown endpoint: " + name);
+    }
+
+    static String question(long seq) {
+        return QUESTIONS.get((int) (seq % QUESTIONS.size())) + " (" + (seq % QUESTION_VARIANTS) + ")";
+    }
+
+    // 약 4KB 텍스트. 번호가 들어간 줄이 있어 문서마다 일부 청크는 새로 임베딩됨
+    static byte[] document(long seq) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            text.append("문서 ").append(seq).append(" - ").append(i).append(": ").append(PARAGRAPH);
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Mono<Integer> send(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody()
+                .thenReturn(response.statusCode().value()));
+    }
+}
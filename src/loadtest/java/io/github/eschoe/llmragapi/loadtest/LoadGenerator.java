@@ -0,0 +1,157 @@
+package io.github.eschoe.llmragapi.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트 혼합 부하를 만들고 지연 시간을 HdrHistogram 에 기록합니다.
+ *
+ * - 닫힌 모델 (rate = 0): concurrency 명이 응답을 받자마자 다음 요청을 보냄. 지연은 실제 전송 시각부터
+ * - 열린 모델 (rate > 0): 요청을 일정 간격으로 예약. 지연은 예약 시각부터 재므로 서버가 밀려
+ *   전송이 늦어진 시간도 포함됩니다 (coordinated omission 보정). 동시 요청은 concurrency 까지
+ *
+ * 엔드포인트는 가중치대로 펼친 배열을 순번으로 돌며 고르므로 실행마다 비율이 같습니다.
+ */
+public class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final WebClient client;
+    private final LoadTestOptions options;
+    private final Endpoint[] wheel;
+    private final String sessionPrefix;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LoadGenerator(WebClient client, LoadTestOptions options, String sessionPrefix) {
+        this.client = client;
+        this.options = options;
+        this.sessionPrefix = sessionPrefix;
+
+        List<Endpoint> slots = new ArrayList<>();
+        options.mix().forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        });
+        this.wheel = slots.toArray(new Endpoint[0]);
+    }
+
+    /**
+     * 주어진 시간 동안 부하를 걸고 엔드포인트별 기록을 돌려줍니다.
+     */
+    public Map<Endpoint, Stats> run(Duration duration) {
+        Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : wheel) {
+            stats.computeIfAbsent(endpoint, e -> new Stats());
+        }
+
+        Flux<Void> load = options.openModel() ? openModel(duration, stats) : closedModel(duration, stats);
+        load.blockLast();
+        return stats;
+    }
+
+    /**
+     * 문서를 순서대로 올립니다. 검색/질문이 찾을 청크를 미리 만들어 두는 용도라 지연은 기록하지 않습니다.
+     */
+    public long seedDocuments(int count) {
+        return Flux.range(0, count)
+                .concatMap(i -> Endpoint.UPLOAD.call(client, session(0), -1 - i)
+                        .timeout(REQUEST_TIMEOUT)
+                        .onErrorReturn(-1))
+                .filter(status -> status >= 200 && status < 300)
+                .count()
+                .block();
+    }
+
+    private Flux<Void> closedModel(Duration duration, Map<Endpoint, Stats> stats) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        return Flux.range(0, options.concurrency())
+                .flatMap(worker -> Mono.defer(() -> request(session(worker), System.nanoTime(), stats))
+                                .repeat(() -> System.nanoTime() < deadline),
+                        options.concurrency());
+    }
+
+    private Flux<Void> openModel(Duration duration, Map<Endpoint, Stats> stats) {
+        long periodNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / options.rate()));
+        long total = Math.max(1L, duration.toNanos() / periodNanos);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.interval(Duration.ofNanos(periodNanos))
+                    .take(total)
+                    // 동시 요청이 concurrency 에 닿으면 틱이 쌓임. 쌓인 시간도 예약 시각 기준으로 지연에 들어감
+                    .onBackpressureBuffer()
+                    .flatMap(tick -> request(session((int) (tick % options.concurrency())),
+                                    start + (tick + 1) * periodNanos, stats),
+                            options.concurrency());
+        });
+    }
+
+    private Mono<Void> request(String sessionId, long intendedStart, Map<Endpoint, Stats> stats) {
+        long seq = sequence.getAndIncrement();
+        Endpoint endpoint = wheel[(int) (seq % wheel.length)];
+        Stats endpointStats = stats.get(endpoint);
+        return endpoint.call(client, sessionId, seq)
+                .timeout(REQUEST_TIMEOUT)
+                .doOnNext(status -> endpointStats.record(status, System.nanoTime() - intendedStart))
+                .doOnError(e -> endpointStats.failure(e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private String session(int worker) {
+        return sessionPrefix + "-" + worker;
+    }
+
+    /**
+     * 엔드포인트 하나의 기록. 지연은 2xx 응답만 마이크로초 단위로 남기고 나머지는 오류로 셉니다.
+     */
+    public static final class Stats {
+
+        private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        void record(int status, long elapsedNanos) {
+            outcomes.computeIfAbsent(String.valueOf(status), k -> new LongAdder()).increment();
+            if (status >= 200 && status < 300) {
+                latency.recordValue(Math.max(1L, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+            } else {
+                errors.increment();
+            }
+        }
+
+        void failure(Throwable e) {
+            outcomes.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+            errors.increment();
+        }
+
+        public Histogram histogram() {
+            return latency.getIntervalHistogram();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public Map<String, Long> outcomes() {
+            Map<String, Long> counts = new TreeMap<>();
+            outcomes.forEach((key, count) -> counts.put(key, count.sum()));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.eschoe.llmragapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 부하 테스트 결과 (빌드 사이에 diff 할 JSON 기준선)
+ *
+ * 지연은 밀리초, 처리량은 측정 구간 동안 성공한 요청의 초당 수입니다.
+ */
+public record LoadReport(
+        String startedAt,
+        String target,
+        String mode,
+        int concurrency,
+        double rate,
+        double durationSec,
+        Map<String, EndpointResult> endpoints,
+        EndpointResult total
+) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public record EndpointResult(
+            long requests,
+            long errors,
+            double throughput,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            double meanMs,
+            Map<String, Long> outcomes
+    ) {
+
+        static EndpointResult of(Histogram histogram, long errors, Map<String, Long> outcomes, double seconds) {
+            long ok = histogram.getTotalCount();
+            return new EndpointResult(
+                    ok + errors,
+                    errors,
+                    round(ok / seconds),
+                    millis(histogram.getValueAtPercentile(50.0)),
+                    millis(histogram.getValueAtPercentile(90.0)),
+                    millis(histogram.getValueAtPercentile(99.0)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    round(ok > 0 ? histogram.getMean() / 1000.0 : 0),
+                    outcomes
+            );
+        }
+    }
+
+    /**
+     * 기준선 대비 악화: p99 가 늘었거나 처리량이 줄어든 비율이 한도를 넘은 항목
+     */
+    public record Regression(String endpoint, String metric, double baseline, double current, double change) {
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %.2f -> %.2f (%+.1f%%)", endpoint, metric, baseline, current, change * 100);
+        }
+    }
+
+    public static LoadReport of(Instant startedAt, String target, LoadTestOptions options, Duration measured,
+                                Map<Endpoint, LoadGenerator.Stats> stats) {
+        double seconds = Math.max(measured.toMillis() / 1000.0, 0.001);
+        Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        Map<String, Long> allOutcomes = new TreeMap<>();
+
+        for (Map.Entry<Endpoint, LoadGenerator.Stats> entry : stats.entrySet()) {
+            LoadGenerator.Stats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.histogram();
+            Map<String, Long> outcomes = endpointStats.outcomes();
+            endpoints.put(entry.getKey().displayName(),
+                    EndpointResult.of(histogram, endpointStats.errors(), outcomes, seconds));
+
+            all.add(histogram);
+            allErrors += endpointStats.errors();
+            outcomes.forEach((key, count) -> allOutcomes.merge(key, count, Long::sum));
+        }
+
+        return new LoadReport(
+                startedAt.toString(),
+                target,
+                options.openModel() ? "open" : "closed",
+                options.concurrency(),
+                options.rate(),
+                round(seconds),
+                endpoints,
+                EndpointResult.of(all, allErrors, allOutcomes, seconds)
+        );
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    public static LoadReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), LoadReport.class);
+    }
+
+    /**
+     * 엔드포인트별 기준선 비교표를 출력하고, 한도를 넘은 악화 목록을 돌려줍니다.
+     * 기준선에 없는 엔드포인트는 비교하지 않습니다.
+     */
+    public List<Regression> compare(LoadReport baseline, double maxRegression) {
+        List<Regression> regressions = new ArrayList<>();
+        System.out.printf("%-10s %12s %12s %12s %12s %14s%n", "endpoint", "p50(ms)", "p99(ms)", "p999(ms)", "errors", "throughput/s");
+
+        Map<String, EndpointResult> current = new LinkedHashMap<>(endpoints);
+        current.put("total", total);
+        Map<String, EndpointResult> previous = new LinkedHashMap<>(baseline.endpoints());
+        previous.put("total", baseline.total());
+
+        current.forEach((name, now) -> {
+            EndpointResult before = previous.get(name);
+            if (before == null) {
+                return;
+            }
+            System.out.printf("%-10s %12s %12s %12s %12s %14s%n", name,
+                    change(before.p50Ms(), now.p50Ms()),
+                    change(before.p99Ms(), now.p99Ms()),
+                    change(before.p999Ms(), now.p999Ms()),
+                    before.errors() + " -> " + now.errors(),
+                    change(before.throughput(), now.throughput()));
+
+            double p99Change = ratio(before.p99Ms(), now.p99Ms());
+            if (p99Change > maxRegression) {
+                regressions.add(new Regression(name, "p99Ms", before.p99Ms(), now.p99Ms(), p99Change));
+            }
+            double throughputChange = ratio(before.throughput(), now.throughput());
+            if (-throughputChange > maxRegression) {
+                regressions.add(new Regression(name, "throughput", before.throughput(), now.throughput(), throughputChange));
+            }
+        });
+        return regressions;
+    }
+
+    private static double ratio(double before, double now) {
+        return before > 0 ? (now - before) / before : 0;
+    }
+
+    private static String change(double before, double now) {
+        return String.format("%.1f(%+.0f%%)", now, ratio(before, now) * 100);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
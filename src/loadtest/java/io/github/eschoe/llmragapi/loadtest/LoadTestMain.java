@@ -0,0 +1,93 @@
+package io.github.eschoe.llmragapi.loadtest;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 부하 테스트 진입점 (./gradlew loadtest -Pargs="...")
+ *
+ * 1. --target 이 없으면 로컬 대역을 띄움 (LocalStandIns)
+ * 2. 문서를 미리 올리고 warmup 동안 부하를 건 뒤 기록을 버림
+ * 3. duration 동안 측정하고 결과 JSON 을 씀
+ * 4. --baseline 이 있으면 비교하고, 악화가 max-regression 을 넘으면 종료 코드 1
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        int exitCode;
+
+        LocalStandIns standIns = options.target() == null ? LocalStandIns.start(options) : null;
+        try {
+            String target = standIns != null ? standIns.baseUrl() : options.target();
+            exitCode = run(options, target);
+        } finally {
+            if (standIns != null) {
+                standIns.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestOptions options, String target) throws Exception {
+        // 풀 크기를 concurrency 에 맞춰 클라이언트 쪽 커넥션 대기가 지연에 섞이지 않게 함
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.concurrency())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl(target)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        try {
+            LoadGenerator generator = new LoadGenerator(client, options, "loadtest-" + UUID.randomUUID());
+
+            if (options.seedDocuments() > 0) {
+                long seeded = generator.seedDocuments(options.seedDocuments());
+                System.out.println("[LoadTest] Seeded " + seeded + "/" + options.seedDocuments() + " documents");
+            }
+
+            if (!options.warmup().isZero()) {
+                System.out.println("[LoadTest] Warming up for " + options.warmup());
+                generator.run(options.warmup());
+            }
+
+            System.out.println("[LoadTest] Measuring " + target + " for " + options.duration()
+                    + " (" + (options.openModel() ? options.rate() + " req/s" : "closed loop")
+                    + ", concurrency " + options.concurrency() + ", mix " + options.mix() + ")");
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            var stats = generator.run(options.duration());
+            Duration measured = Duration.ofNanos(System.nanoTime() - start);
+
+            LoadReport report = LoadReport.of(startedAt, target, options, measured, stats);
+            report.write(options.output());
+            report.endpoints().forEach((name, result) -> System.out.printf(
+                    "[LoadTest] %-8s n=%d err=%d %.1f/s p50=%.1fms p99=%.1fms p999=%.1fms%n",
+                    name, result.requests(), result.errors(), result.throughput(),
+                    result.p50Ms(), result.p99Ms(), result.p999Ms()));
+            System.out.println("[LoadTest] Report written to " + options.output());
+
+            if (options.baseline() == null) {
+                return 0;
+            }
+            List<LoadReport.Regression> regressions = report.compare(LoadReport.read(options.baseline()), options.maxRegression());
+            if (regressions.isEmpty()) {
+                System.out.println("[LoadTest] No regression beyond " + Math.round(options.maxRegression() * 100) + "% against " + options.baseline());
+                return 0;
+            }
+            regressions.forEach(regression -> System.err.println("[LoadTest] Regression: " + regression));
+            return 1;
+        } finally {
+            connections.dispose();
+        }
+    }
+}
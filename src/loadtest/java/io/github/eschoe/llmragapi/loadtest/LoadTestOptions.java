@@ -0,0 +1,118 @@
+package io.github.eschoe.llmragapi.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 옵션 (--key=value)
+ *
+ * 점(.)이 들어간 키(--app.rate-limit.limit=... 등)는 하네스 옵션이 아니라 내장 앱 설정으로 넘깁니다.
+ * DB 는 LOADTEST_DB_URL / LOADTEST_DB_USERNAME / LOADTEST_DB_PASSWORD 환경 변수로도 줄 수 있습니다.
+ *
+ * @param target         이미 떠 있는 서버 주소. 없으면 로컬 대역(내장 Redis + 목 LLM + 앱)을 띄움
+ * @param concurrency    닫힌 모델: 동시 사용자 수 / 열린 모델: 최대 동시 요청 수
+ * @param rate           초당 요청 수. 0 이면 닫힌 모델 (응답을 받으면 바로 다음 요청)
+ * @param duration       측정 시간
+ * @param warmup         측정 전에 버리는 구간 (JIT, 커넥션 풀, 캐시)
+ * @param mix            엔드포인트별 가중치
+ * @param seedDocuments  시작 전에 올려 둘 문서 수 (검색/질문이 찾을 청크)
+ * @param output         결과 JSON 경로
+ * @param baseline       비교할 이전 결과 JSON (없으면 비교 안 함)
+ * @param maxRegression  기준선 대비 p99 / 처리량 허용 악화 비율. 넘으면 종료 코드 1
+ */
+public record LoadTestOptions(
+        String target,
+        int concurrency,
+        double rate,
+        Duration duration,
+        Duration warmup,
+        Map<Endpoint, Integer> mix,
+        int seedDocuments,
+        Path output,
+        Path baseline,
+        double maxRegression,
+        String dbUrl,
+        String dbUsername,
+        String dbPassword,
+        Map<String, String> appProperties
+) {
+
+    private static final String DEFAULT_MIX = "chat=3,ask=3,search=3,threads=1,upload=1";
+
+    public LoadTestOptions {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        if (rate < 0) {
+            throw new IllegalArgumentException("rate must not be negative: " + rate);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix has no positive weight");
+        }
+    }
+
+    public boolean openModel() {
+        return rate > 0;
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("expected --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String key = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            if (key.contains(".")) {
+                appProperties.put(key, value);
+            } else {
+                values.put(key, value);
+            }
+        }
+
+        String baseline = values.get("baseline");
+        return new LoadTestOptions(
+                values.get("target"),
+                Integer.parseInt(values.getOrDefault("concurrency", "16")),
+                Double.parseDouble(values.getOrDefault("rate", "0")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(values.getOrDefault("seed-documents", "5")),
+                Path.of(values.getOrDefault("output", "build/loadtest/report.json")),
+                baseline != null ? Path.of(baseline) : null,
+                Double.parseDouble(values.getOrDefault("max-regression", "0.10")),
+                values.getOrDefault("db-url", System.getenv("LOADTEST_DB_URL")),
+                values.getOrDefault("db-username", System.getenv("LOADTEST_DB_USERNAME")),
+                values.getOrDefault("db-password", System.getenv("LOADTEST_DB_PASSWORD")),
+                appProperties
+        );
+    }
+
+    // "chat=3,ask=1" -> {CHAT=3, ASK=1}. 빠진 엔드포인트는 0 (호출 안 함)
+    static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String entry : spec.split(",")) {
+            String[] kv = entry.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("mix entry must be name=weight: " + entry);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("mix weight must not be negative: " + entry);
+            }
+            mix.put(Endpoint.byName(kv[0].trim()), weight);
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.eschoe.llmragapi.loadtest;
+
+import io.github.eschoe.llmragapi.LlmRagApiApplication;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 로컬 대역: 내장 Redis + 목 LLM(mock-llm 프로필) + 같은 JVM 에서 띄운 앱
+ *
+ * Postgres 는 pgvector 확장이 필요해서 내장 서버를 쓰지 않고 주어진 주소(--db-url / LOADTEST_DB_URL)를 씁니다.
+ * (예: docker run -p 5432:5432 -e POSTGRES_PASSWORD=postgres pgvector/pgvector:pg16)
+ * 시작할 때 loadtest/schema.sql 과 db/*.sql 을 순서대로 적용하므로 빈 DB 여도 됩니다.
+ */
+public class LocalStandIns implements AutoCloseable {
+
+    // application.yaml 의 DEBUG 로그는 요청마다 수십 줄을 찍어 측정을 왜곡하므로 내림
+    private static final List<String> NOISY_LOGGERS = List.of(
+            "org.springframework.r2dbc",
+            "io.r2dbc.postgresql",
+            "org.springframework.web.reactive",
+            "org.springframework.web.reactive.function.client",
+            "org.springframework.web.reactive.function.server",
+            "org.springframework.web.cors",
+            "reactor.netty.http",
+            "reactor.netty.http.client",
+            "io.github.eschoe.llmragapi.domain.chat",
+            "io.github.eschoe.llmragapi.domain.ask",
+            "io.github.eschoe.llmragapi.config"
+    );
+
+    private final RedisServer redis;
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+
+    private LocalStandIns(RedisServer redis, ConfigurableApplicationContext context, String baseUrl) {
+        this.redis = redis;
+        this.context = context;
+        this.baseUrl = baseUrl;
+    }
+
+    public static LocalStandIns start(LoadTestOptions options) throws IOException {
+        if (options.dbUrl() == null || options.dbUrl().isBlank()) {
+            throw new IllegalStateException("pgvector Postgres 주소가 필요합니다: --db-url=r2dbc:postgresql://localhost:5432/postgres"
+                    + " (또는 LOADTEST_DB_URL). 이미 떠 있는 서버를 재려면 --target=http://host:port");
+        }
+
+        bootstrapSchema(options);
+
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        System.out.println("[LocalStandIns] Embedded Redis on port " + redisPort);
+
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(LlmRagApiApplication.class)
+                    .run(appArguments(options, redisPort));
+            String port = context.getEnvironment().getProperty("local.server.port");
+            System.out.println("[LocalStandIns] Application started on port " + port);
+            return new LocalStandIns(redis, context, "http://localhost:" + port);
+        } catch (RuntimeException e) {
+            redis.stop();
+            throw e;
+        }
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            redis.stop();
+        }
+    }
+
+    private static String[] appArguments(LoadTestOptions options, int redisPort) throws IOException {
+        // 명령줄 인자는 application*.yaml 보다 우선하므로 프로필 파일의 값도 덮어씀
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "mock-llm");
+        properties.put("server.port", "0");
+        properties.put("app.mock-llm.port", String.valueOf(freePort()));
+        properties.put("spring.r2dbc.url", options.dbUrl());
+        properties.put("spring.r2dbc.username", nullToEmpty(options.dbUsername()));
+        properties.put("spring.r2dbc.password", nullToEmpty(options.dbPassword()));
+        properties.put("spring.data.redis.url", "");
+        properties.put("spring.data.redis.writer.host", "localhost");
+        properties.put("spring.data.redis.writer.port", String.valueOf(redisPort));
+        properties.put("spring.data.redis.writer.password", "");
+        // 세션 수가 concurrency 로 고정이라 기본 한도(60/분)면 대부분 429 가 됨
+        properties.put("app.rate-limit.limit", "1000000000");
+        NOISY_LOGGERS.forEach(logger -> properties.put("logging.level." + logger, "WARN"));
+        properties.putAll(options.appProperties());
+
+        return properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static void bootstrapSchema(LoadTestOptions options) throws IOException {
+        ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(options.dbUrl()).mutate();
+        if (options.dbUsername() != null) {
+            builder.option(ConnectionFactoryOptions.USER, options.dbUsername());
+        }
+        if (options.dbPassword() != null) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, options.dbPassword());
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(builder.build());
+
+        Resource[] migrations = new PathMatchingResourcePatternResolver().getResources("classpath*:db/*.sql");
+        Arrays.sort(migrations, Comparator.comparing(Resource::getFilename));
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("loadtest/schema.sql"));
+        populator.addScripts(migrations);
+        populator.populate(connectionFactory).block();
+        System.out.println("[LocalStandIns] Schema ready (" + migrations.length + " migrations)");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,12 @@
+-- 부하 테스트용 기본 스키마 (pgvector Postgres)
+-- 운영 DB 에서 먼저 만들어진 테이블 모양 그대로. 이후 변경은 db/*.sql 이 이어서 적용합니다.
+CREATE EXTENSION IF NOT EXISTS vector;
+CREATE SCHEMA IF NOT EXISTS chatbot;
+
+CREATE TABLE IF NOT EXISTS chatbot.embeddings (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255),
+    content TEXT,
+    embedding VECTOR(1536),
+    created_at TIMESTAMPTZ
+);
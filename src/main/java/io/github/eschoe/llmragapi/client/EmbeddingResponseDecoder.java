@@ -0,0 +1,144 @@
+package io.github.eschoe.llmragapi.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OpenAI 임베딩 응답을 토큰 단위로 읽어 바로 float[] 로 만듭니다.
+ *
+ * Map 으로 파싱하면 벡터 하나에 Double 객체 수천 개와 List 가 생기지만, 여기서는 data[].embedding 만
+ * 찾아 숫자를 primitive 배열에 직접 씁니다. encoding_format=base64 응답이면 base64 를 풀어
+ * little-endian float32 로 읽습니다. 나머지 필드(usage 등)는 건너뜁니다.
+ *
+ * 숫자 배열은 값마다 숫자 텍스트를 한 번 거치므로, 할당을 가장 줄이려면 base64 형식을 쓰세요.
+ */
+@Component
+public class EmbeddingResponseDecoder {
+
+    // 숫자 변환에 FastDoubleParser 사용 (JDK 파서보다 빠르고 할당이 적음)
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+            .build();
+
+    // 직전 응답의 차원 수. 같은 모델이면 배열을 한 번에 맞는 크기로 잡을 수 있음
+    private volatile int dimensionHint = 1536;
+
+    /**
+     * 응답의 모든 임베딩을 index 순서대로 돌려줍니다.
+     */
+    public List<float[]> decodeAll(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return readResponse(parser);
+        }
+    }
+
+    public List<float[]> decodeAll(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * 첫 번째 임베딩만 돌려줍니다. (입력이 하나인 요청)
+     */
+    public float[] decodeFirst(InputStream body) throws IOException {
+        return first(decodeAll(body));
+    }
+
+    public float[] decodeFirst(byte[] body) throws IOException {
+        return first(decodeAll(body));
+    }
+
+    private static float[] first(List<float[]> embeddings) {
+        if (embeddings.isEmpty()) {
+            throw new IllegalStateException("임베딩 응답에 data[].embedding 이 없습니다.");
+        }
+        return embeddings.getFirst();
+    }
+
+    private List<float[]> readResponse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("임베딩 응답이 JSON 객체가 아닙니다.");
+        }
+
+        List<float[]> embeddings = new ArrayList<>(1);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                readData(parser, embeddings);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return embeddings;
+    }
+
+    private void readData(JsonParser parser, List<float[]> embeddings) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int index = embeddings.size();
+            float[] embedding = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("embedding".equals(field) && value == JsonToken.START_ARRAY) {
+                    embedding = readFloatArray(parser);
+                } else if ("embedding".equals(field) && value == JsonToken.VALUE_STRING) {
+                    embedding = readBase64(parser);
+                } else if ("index".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    index = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (embedding != null) {
+                while (embeddings.size() <= index) embeddings.add(null);
+                embeddings.set(index, embedding);
+            }
+        }
+        embeddings.removeIf(e -> e == null);
+    }
+
+    private float[] readFloatArray(JsonParser parser) throws IOException {
+        float[] values = new float[dimensionHint];
+        int size = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_NUMBER_INT) {
+                throw new IllegalStateException("임베딩 값이 숫자가 아닙니다: " + token);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, values.length * 2));
+            }
+            // getFloatValue 는 Float.parseFloat 를 거쳐 숫자마다 할당이 크므로 double 로 읽고 좁힘 (예전 Map 경로와 같은 값)
+            values[size++] = (float) parser.getDoubleValue();
+        }
+        return complete(values, size);
+    }
+
+    private float[] readBase64(JsonParser parser) throws IOException {
+        byte[] bytes = parser.getBinaryValue();
+        float[] values = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values);
+        dimensionHint = values.length;
+        return values;
+    }
+
+    private float[] complete(float[] values, int size) {
+        dimensionHint = size;
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
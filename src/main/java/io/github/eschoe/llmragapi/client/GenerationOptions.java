@@ -0,0 +1,26 @@
+package io.github.eschoe.llmragapi.client;
+
+/**
+ * 채팅 호출의 생성 파라미터
+ *
+ * maxTokens 는 응답 토큰 상한으로 항상 보냅니다 (생성 시간과 비용의 상한). temperature 가 null 이면 제공자 기본값을 씁니다.
+ */
+public record GenerationOptions(int maxTokens, Double temperature) {
+
+    public GenerationOptions {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("maxTokens 는 1 이상이어야 합니다: " + maxTokens);
+        }
+        if (temperature != null) {
+            if (temperature.isNaN()) {
+                throw new IllegalArgumentException("temperature 가 숫자가 아닙니다.");
+            }
+            temperature = Math.min(2.0, Math.max(0.0, temperature));
+        }
+    }
+
+    // 캐시 키에 넣는 표현 (같은 프롬프트라도 파라미터가 다르면 다른 응답)
+    public String cacheKey() {
+        return maxTokens + "/" + (temperature != null ? temperature : "-");
+    }
+}
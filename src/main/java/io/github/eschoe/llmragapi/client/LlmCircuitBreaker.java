@@ -0,0 +1,143 @@
+package io.github.eschoe.llmragapi.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 제공자 하나에 대한 circuit breaker
+ *
+ * 최근 window-size 번의 호출 중 실패 비율이 failure-rate 이상이면 OPEN 으로 바뀌어 open-duration 동안
+ * 호출을 바로 거절합니다. 그 뒤 HALF_OPEN 에서 시험 호출 하나만 보내고, 성공하면 CLOSED, 실패하면 다시 OPEN.
+ * 장애 중인 제공자에 요청을 계속 보내 대기열과 커넥션을 묶어두지 않기 위한 것입니다.
+ */
+class LlmCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmCircuitBreaker.class);
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String provider;
+    private final boolean[] outcomes;   // true = 실패
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int position;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    LlmCircuitBreaker(String provider, int windowSize, int minimumCalls, double failureRate, Duration openDuration) {
+        this(provider, windowSize, minimumCalls, failureRate, openDuration, System::nanoTime);
+    }
+
+    LlmCircuitBreaker(String provider, int windowSize, int minimumCalls, double failureRate, Duration openDuration,
+                      LongSupplier nanoClock) {
+        this.provider = provider;
+        this.nanoClock = nanoClock;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.failureRate = failureRate;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * 호출해도 되는지 확인합니다. true 를 받았으면 결과를 onSuccess / onFailure / onIgnored 중 하나로 알려야 합니다.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+                // fall through
+            case HALF_OPEN:
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("[LlmCircuitBreaker] {} 회복, CLOSED", provider);
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && failures >= failureRate * recorded) {
+            log.warn("[LlmCircuitBreaker] {} 실패율 {}/{}, OPEN", provider, failures, recorded);
+            open();
+        }
+    }
+
+    /**
+     * 결과를 판단할 수 없는 경우 (취소, 마감 초과 등). 시험 호출 자리만 돌려놓습니다.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[position]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failure;
+        if (failure) failures++;
+        position = (position + 1) % outcomes.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void reset(State next) {
+        state = next;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * OPEN 상태라 호출을 보내지 않았을 때
+     */
+    static class OpenException extends RuntimeException {
+        OpenException(String provider) {
+            super("LLM provider circuit open (connection refused fast): " + provider);
+        }
+    }
+}
@@ -1,106 +1,166 @@
 package io.github.eschoe.llmragapi.client;
 
+import io.github.eschoe.llmragapi.util.TokenCounter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.BodyInserters;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 @Component
 public class LlmContextClient {
 
-    @Value("${spring.ai.openai.api-key}")
-    private String openaiKey;
-    @Value("${spring.ai.anthropic.api-key}")
-    private String anthropicKey;
+    private static final String ANTHROPIC_VERSION = "2023-06-01";
 
-    private final WebClient webClient;
+    private final String openaiKey;
+    private final String anthropicKey;
+    // 요청마다 이어 붙이지 않도록 한 번 만들어 둔 헤더 값
+    private final String openAiAuthorization;
+    // float: 숫자 배열, base64: float32 바이트를 base64 로 받음 (응답 크기가 약 1/4)
+    @Value("${app.llm.embedding-encoding:base64}")
+    private String embeddingEncoding;
 
-    LlmContextClient(WebClient.Builder builder) {
-        this.webClient = builder.build();
+    // 제공자별 커넥션 풀을 쓰는 WebClient (LlmHttpClientConfig)
+    private final WebClient openAiClient;
+    private final WebClient anthropicClient;
+    private final EmbeddingResponseDecoder embeddingDecoder;
+    // 마감 / 재시도 / 헤지 / circuit breaker
+    private final LlmResilience resilience;
+    // 제공자/모델별 RPM·TPM 안에서 우선순위대로 호출 (시도마다 할당량을 받음)
+    private final LlmQuotaScheduler quota;
+    private final TokenCounter tokenCounter;
+    // 요청 본문을 Map 대신 미리 인코딩한 조각 + 풀 버퍼로 씀
+    private final LlmRequestEncoder requestEncoder;
+
+    LlmContextClient(@Value("${spring.ai.openai.api-key}") String openaiKey,
+                     @Value("${spring.ai.anthropic.api-key}") String anthropicKey,
+                     @Qualifier("openAiWebClient") WebClient openAiClient,
+                     @Qualifier("anthropicWebClient") WebClient anthropicClient,
+                     EmbeddingResponseDecoder embeddingDecoder,
+                     LlmResilience resilience,
+                     LlmQuotaScheduler quota,
+                     TokenCounter tokenCounter,
+                     LlmRequestEncoder requestEncoder) {
+        this.openaiKey = openaiKey;
+        this.anthropicKey = anthropicKey;
+        this.openAiAuthorization = "Bearer " + openaiKey;
+        this.openAiClient = openAiClient;
+        this.anthropicClient = anthropicClient;
+        this.embeddingDecoder = embeddingDecoder;
+        this.resilience = resilience;
+        this.quota = quota;
+        this.tokenCounter = tokenCounter;
+        this.requestEncoder = requestEncoder;
+    }
+
+    // API 키가 설정된 제공자인지 (라우터가 후보에서 제외할 때 사용)
+    public boolean isConfigured(String provider) {
+        String key = "anthropic".equalsIgnoreCase(provider) ? anthropicKey : openaiKey;
+        return key != null && !key.isBlank();
     }
 
     // Chat with provider-specific call
-    public Mono<String> chat(String provider, String model, String system, String content) {
+    public Mono<String> chat(String provider, String model, String system, String content, GenerationOptions options) {
+        // 제공자도 max_tokens 전체를 TPM 에 미리 잡으므로 같은 방식으로 추정
+        int estimate = tokenCounter.count(system) + tokenCounter.count(content) + options.maxTokens();
         if ("anthropic".equalsIgnoreCase(provider)) {
-            return anthropicChat(model, system, content);
+            return resilience.execute("anthropic", "chat",
+                    () -> quota.submit("anthropic", model, estimate, permit -> anthropicChat(model, system, content, options, permit)));
         } else {
-            return openAiChat(model, system, content);
+            return resilience.execute("openai", "chat",
+                    () -> quota.submit("openai", model, estimate, permit -> openAiChat(model, system, content, options, permit)));
         }
     }
 
-    // Embeddings (OpenAI)
+    // Embeddings (OpenAI). 같은 요청을 두 번 보내도 되므로 느린 응답은 헤지
     public Mono<float[]> embed(String model, String text) {
-        Map<String, Object> body = Map.of("model", model, "input", text);
-        return webClient.post()
-                .uri("https://api.openai.com/v1/embeddings")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + openaiKey)
+        int estimate = tokenCounter.count(text);
+        return resilience.executeHedged("openai", "embedding",
+                () -> quota.submit("openai", model, estimate, permit -> openAiEmbed(model, text, permit)));
+    }
+
+    private Mono<float[]> openAiEmbed(String model, String text, LlmQuotaScheduler.Permit permit) {
+        return openAiClient.post()
+                .uri("/v1/embeddings")
+                .header(HttpHeaders.AUTHORIZATION, openAiAuthorization)
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(BodyInserters.fromValue(body))
+                .body(body(() -> requestEncoder.openAiEmbedding(model, text, embeddingEncoding)))
                 .retrieve()
-                .bodyToMono(Map.class)
-                .map(m -> {
-                    var data = (List<Map<String, Object>>) m.get("data");
-                    var vec = (List<Number>) data.getFirst().get("embedding");
-                    float[] arr = new float[vec.size()];
-                    for (int i = 0; i < vec.size(); i++) arr[i] = vec.get(i).floatValue();
-                    return arr;
-                });
+                // 응답을 Map 으로 만들지 않고 바이트에서 바로 float[] 로 읽음
+                .toEntity(DataBuffer.class)
+                .map(entity -> decodeEmbedding(observe(permit, entity)));
+    }
+
+    // 본문은 실제로 보낼 때 인코딩 (재시도마다 새 버퍼, 보내지 않고 취소되면 할당하지 않음).
+    // Mono 한 건이면 Reactor Netty 가 Content-Length 를 붙이고 보낸 뒤 버퍼를 반환
+    private static BodyInserter<Mono<DataBuffer>, ReactiveHttpOutputMessage> body(Supplier<DataBuffer> encoder) {
+        return BodyInserters.fromDataBuffers(Mono.fromSupplier(encoder));
+    }
+
+    // 응답의 rate limit 헤더를 할당량 스케줄러에 알림
+    private static <T> T observe(LlmQuotaScheduler.Permit permit, ResponseEntity<T> entity) {
+        permit.observe(entity.getHeaders());
+        if (entity.getBody() == null) {
+            throw new IllegalStateException("LLM 응답 본문이 비어 있습니다.");
+        }
+        return entity.getBody();
+    }
+
+    private float[] decodeEmbedding(DataBuffer buffer) {
+        try (InputStream in = buffer.asInputStream(true)) {
+            return embeddingDecoder.decodeFirst(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("임베딩 응답 파싱 실패", e);
+        }
     }
 
     // -------- OpenAI Chat --------
-    private Mono<String> openAiChat(String model, String system, String user) {
-        Map<String, Object> body = Map.of(
-                "model", model,
-                "messages", List.of(
-                        Map.of("role","system","content", system),
-                        Map.of("role","user","content", user)
-                )
-        );
-        return webClient.post()
-                .uri("https://api.openai.com/v1/chat/completions")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + openaiKey)
+    private Mono<String> openAiChat(String model, String system, String user, GenerationOptions options,
+                                    LlmQuotaScheduler.Permit permit) {
+        return openAiClient.post()
+                .uri("/v1/chat/completions")
+                .header(HttpHeaders.AUTHORIZATION, openAiAuthorization)
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(BodyInserters.fromValue(body))
-                .exchangeToMono(this::extractOpenAi);
+                .body(body(() -> requestEncoder.openAiChat(model, system, user, options)))
+                // 429/5xx 가 WebClientResponseException 으로 올라와야 재시도/circuit breaker 가 판단할 수 있음
+                .retrieve()
+                .toEntity(Map.class)
+                .map(entity -> extractOpenAi(observe(permit, entity)));
     }
 
-    private Mono<String> extractOpenAi(ClientResponse res) {
-        return res.bodyToMono(Map.class).map(m -> {
-            var choices = (List<Map<String, Object>>) m.getOrDefault("choices", List.of());
-            if (choices.isEmpty()) return "(no choices)";
-            var msg = (Map<String, Object>) choices.getFirst().get("message");
-            return Objects.toString(msg.get("content"), "");
-        });
+    private String extractOpenAi(Map<?, ?> m) {
+        var choices = (List<Map<String, Object>>) ((Map<String, Object>) m).getOrDefault("choices", List.of());
+        if (choices.isEmpty()) return "(no choices)";
+        var msg = (Map<String, Object>) choices.getFirst().get("message");
+        return Objects.toString(msg.get("content"), "");
     }
 
     // -------- Anthropic Chat --------
-    private Mono<String> anthropicChat(String model, String system, String user) {
-        Map<String, Object> body = Map.of(
-                "model", model,
-                "max_tokens", 1024,
-                "system", system,
-                "messages", List.of(
-                        Map.of(
-                                "role", "user",
-                                "content", List.of(Map.of("type","text","text", user))
-                        )
-                )
-        );
-        return webClient.post()
-                .uri("https://api.anthropic.com/v1/messages")
+    private Mono<String> anthropicChat(String model, String system, String user, GenerationOptions options,
+                                       LlmQuotaScheduler.Permit permit) {
+        return anthropicClient.post()
+                .uri("/v1/messages")
                 .header("x-api-key", anthropicKey)
-                .header("anthropic-version", "2023-06-01")
+                .header("anthropic-version", ANTHROPIC_VERSION)
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(BodyInserters.fromValue(body))
-                .retrieve().bodyToMono(Map.class)
+                .body(body(() -> requestEncoder.anthropicChat(model, system, user, options)))
+                .retrieve().toEntity(Map.class)
+                .map(entity -> observe(permit, entity))
                 .map(m -> {
                     var content = (List<Map<String,Object>>) m.getOrDefault("content", List.of());
                     if (content.isEmpty()) return "(no content)";
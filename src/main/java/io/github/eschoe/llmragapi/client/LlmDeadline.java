@@ -0,0 +1,55 @@
+package io.github.eschoe.llmragapi.client;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 요청 전체에 걸친 LLM 호출 마감 시각 (Reactor Context 로 전달)
+ *
+ * 핸들러에서 contextWrite(LlmDeadline.within(...)) 로 걸어두면 그 아래의 embed/chat 호출이
+ * 남은 시간만큼만 기다리고, 재시도/헤지도 마감을 넘기지 않습니다.
+ * 백그라운드 작업처럼 마감이 없는 호출은 커넥션 풀의 response-timeout 만 적용됩니다.
+ */
+public final class LlmDeadline {
+
+    private static final String CONTEXT_KEY = LlmDeadline.class.getName();
+
+    private LlmDeadline() {}
+
+    /**
+     * 지금부터 timeout 뒤를 마감으로 설정합니다. 바깥에서 이미 더 이른 마감을 걸었으면 그대로 둡니다.
+     */
+    public static Function<Context, Context> within(Duration timeout) {
+        return ctx -> {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            if (ctx.hasKey(CONTEXT_KEY) && ctx.<Long>get(CONTEXT_KEY) - deadline <= 0) {
+                return ctx;
+            }
+            return ctx.put(CONTEXT_KEY, deadline);
+        };
+    }
+
+    /**
+     * 남은 시간. 마감이 없으면 null, 이미 지났으면 Duration.ZERO
+     */
+    public static Duration remaining(ContextView ctx) {
+        if (!ctx.hasKey(CONTEXT_KEY)) {
+            return null;
+        }
+        long left = ctx.<Long>get(CONTEXT_KEY) - System.nanoTime();
+        return left > 0 ? Duration.ofNanos(left) : Duration.ZERO;
+    }
+
+    /**
+     * 마감을 넘겨 LLM 호출을 포기했을 때
+     */
+    public static class ExceededException extends RuntimeException {
+        public ExceededException(String provider, String operation) {
+            // 핸들러의 오류 분류가 메시지의 "timeout" 으로 판단하므로 포함
+            super("LLM request deadline exceeded (timeout): " + provider + " " + operation);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.eschoe.llmragapi.client;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Function;
+
+/**
+ * LLM 호출의 우선순위 (Reactor Context 로 전달)
+ *
+ * 표시가 없으면 INTERACTIVE 입니다. 문서 적재처럼 사용자가 기다리지 않는 대량 호출은
+ * contextWrite(LlmPriority.BULK.asContext()) 로 표시하면 {@link LlmQuotaScheduler} 가 남는 할당량만 쓰게 합니다.
+ */
+public enum LlmPriority {
+    INTERACTIVE,
+    BULK;
+
+    private static final String CONTEXT_KEY = LlmPriority.class.getName();
+
+    public Function<Context, Context> asContext() {
+        return ctx -> ctx.put(CONTEXT_KEY, this);
+    }
+
+    public static LlmPriority of(ContextView ctx) {
+        return ctx.getOrDefault(CONTEXT_KEY, INTERACTIVE);
+    }
+}
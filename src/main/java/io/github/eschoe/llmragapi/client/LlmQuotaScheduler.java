@@ -0,0 +1,453 @@
+package io.github.eschoe.llmragapi.client;
+
+import io.github.eschoe.llmragapi.config.LlmQuotaProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 제공자/모델별 RPM·TPM 할당량 안에서 LLM 호출 순서를 정하는 스케줄러
+ *
+ * - 모델마다 요청 수와 토큰 수 버킷을 두고 분당 한도만큼 연속으로 채웁니다. 응답의 rate limit 헤더
+ *   (OpenAI x-ratelimit-*, Anthropic anthropic-ratelimit-*) 로 실제 한도와 남은 양을 반영하고, 429 를 받으면 reset 까지 멈춥니다.
+ * - 자리가 없으면 우선순위({@link LlmPriority}) 별 대기열에 넣고 weighted fair queuing (start-time 기반) 으로 꺼냅니다.
+ *   비용은 추정 토큰 수, 가중치는 INTERACTIVE 8 : BULK 1 이 기본입니다.
+ * - BULK 는 한도의 bulk-reserve 만큼을 남겨두어야 들어갈 수 있으므로, 문서 적재가 몰려도 대화 요청이 쓸 여유가 남습니다.
+ *
+ * 대기는 요청 마감({@link LlmDeadline}) 또는 max-wait 까지이고, 취소되면 대기열에서 빠집니다.
+ * 할당량을 받은 직후에 취소되어 호출하지 못한 경우에는 받은 몫을 버킷에 돌려놓습니다.
+ *
+ * 지표: llm.quota.wait (tag: budget, priority), llm.quota.queue.size, llm.quota.requests.available,
+ *       llm.quota.tokens.available (tag: budget), llm.quota.rejected
+ */
+@Component
+public class LlmQuotaScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmQuotaScheduler.class);
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // "1s", "6m0s", "20ms", "1h2m3.5s"
+    private static final Pattern RESET_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final LlmQuotaProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public LlmQuotaScheduler(LlmQuotaProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    LlmQuotaScheduler(LlmQuotaProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 할당량이 생기면 call 을 실행합니다. 우선순위는 Context 의 {@link LlmPriority} 를 따릅니다.
+     *
+     * @param estimatedTokens 요청 + 응답 토큰 추정치
+     * @param call 응답 헤더를 permit 에 알려주면 실제 한도를 반영합니다.
+     */
+    public <T> Mono<T> submit(String provider, String model, int estimatedTokens, Function<Permit, Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(() -> call.apply(Permit.NONE));
+        }
+        return Mono.deferContextual(ctx -> {
+            Budget budget = budget(provider, model);
+            return budget.acquire(LlmPriority.of(ctx), Math.max(1, estimatedTokens))
+                    .timeout(properties.getMaxWait(), Mono.error(() -> new QuotaException(budget.name, "queue wait timeout")))
+                    .flatMap(permit -> call.apply(permit).doOnError(permit::observe));
+        });
+    }
+
+    private Budget budget(String provider, String model) {
+        String name = provider + ":" + model;
+        return budgets.computeIfAbsent(name, k -> {
+            LlmQuotaProperties.Limit limit = properties.getLimits().get(k);
+            int rpm = limit != null && limit.getRpm() > 0 ? limit.getRpm() : properties.getDefaultRpm();
+            int tpm = limit != null && limit.getTpm() > 0 ? limit.getTpm() : properties.getDefaultTpm();
+            Budget budget = new Budget(k, rpm, tpm);
+
+            Tags tags = Tags.of("budget", k);
+            meterRegistry.gauge("llm.quota.requests.available", tags, budget, Budget::requestsAvailable);
+            meterRegistry.gauge("llm.quota.tokens.available", tags, budget, Budget::tokensAvailable);
+            for (LlmPriority priority : LlmPriority.values()) {
+                meterRegistry.gauge("llm.quota.queue.size", tags.and("priority", priority.name()), budget,
+                        b -> b.queued(priority));
+            }
+            return budget;
+        });
+    }
+
+    private static Duration parseReset(String value) {
+        if (value == null || value.isBlank()) return null;
+        String v = value.trim();
+        // Anthropic: RFC 3339 시각
+        if (v.contains("T")) {
+            try {
+                Duration until = Duration.between(OffsetDateTime.now(), OffsetDateTime.parse(v));
+                return until.isNegative() ? Duration.ZERO : until;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        Matcher m = RESET_PART.matcher(v);
+        double millis = 0;
+        boolean found = false;
+        while (m.find()) {
+            found = true;
+            double n = Double.parseDouble(m.group(1));
+            millis += switch (m.group(2)) {
+                case "h" -> n * 3_600_000;
+                case "m" -> n * 60_000;
+                case "s" -> n * 1_000;
+                default -> n;
+            };
+        }
+        return found ? Duration.ofMillis((long) Math.ceil(millis)) : null;
+    }
+
+    private static Duration longer(Duration a, Duration b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static Integer intHeader(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value == null) continue;
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return null;
+    }
+
+    private static String header(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    /**
+     * 할당량을 받은 호출. 응답(또는 오류)의 헤더를 알려주면 버킷에 반영합니다.
+     */
+    public static final class Permit {
+        static final Permit NONE = new Permit(null);
+
+        private final Budget budget;
+
+        private Permit(Budget budget) {
+            this.budget = budget;
+        }
+
+        public void observe(HttpHeaders headers) {
+            if (budget != null && headers != null) budget.observe(headers, false);
+        }
+
+        void observe(Throwable e) {
+            if (budget != null && e instanceof WebClientResponseException r) {
+                budget.observe(r.getHeaders(), r.getStatusCode().value() == 429);
+            }
+        }
+    }
+
+    /**
+     * 할당량 대기열에서 기다리다 포기했을 때
+     */
+    public static class QuotaException extends RuntimeException {
+        QuotaException(String budget, String reason) {
+            super("LLM quota " + reason + ": " + budget);
+        }
+    }
+
+    private static final class Waiter {
+        final LlmPriority priority;
+        final int tokens;
+        final MonoSink<Permit> sink;
+        final long enqueuedAt;
+        double start;
+        double finish;
+        // Budget 락 안에서만 읽고 씀
+        boolean granted;
+
+        Waiter(LlmPriority priority, int tokens, MonoSink<Permit> sink, long enqueuedAt) {
+            this.priority = priority;
+            this.tokens = tokens;
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * 모델 하나의 요청/토큰 버킷과 우선순위별 대기열
+     */
+    private final class Budget {
+        final String name;
+        final Map<LlmPriority, ArrayDeque<Waiter>> queues = new EnumMap<>(LlmPriority.class);
+        final double[] lastFinish = new double[LlmPriority.values().length];
+
+        int rpm;
+        int tpm;
+        double requests;
+        double tokens;
+        long lastRefill = nanoClock.getAsLong();
+        long blockedUntil;
+        double virtualTime;
+        boolean wakeScheduled;
+
+        Budget(String name, int rpm, int tpm) {
+            this.name = name;
+            this.rpm = rpm;
+            this.tpm = tpm;
+            this.requests = rpm;
+            this.tokens = tpm;
+            for (LlmPriority priority : LlmPriority.values()) {
+                queues.put(priority, new ArrayDeque<>());
+            }
+        }
+
+        Mono<Permit> acquire(LlmPriority priority, int cost) {
+            return Mono.create(sink -> {
+                Waiter waiter = new Waiter(priority, cost, sink, nanoClock.getAsLong());
+                sink.onCancel(() -> cancel(waiter));
+
+                boolean granted = false;
+                boolean rejected = false;
+                synchronized (this) {
+                    long now = nanoClock.getAsLong();
+                    refill(now);
+                    // INTERACTIVE 는 reserve 에 막혀 기다리는 BULK 뒤에 줄 서지 않음. BULK 는 아무도 기다리지 않을 때만 바로 들어감
+                    boolean ahead = queues.get(priority).isEmpty()
+                            && (priority == LlmPriority.INTERACTIVE || allQueuesEmpty());
+                    if (ahead && canGrant(priority, cost, now)) {
+                        consume(cost);
+                        waiter.granted = true;
+                        granted = true;
+                    } else if (queues.get(priority).size() >= properties.getMaxQueue()) {
+                        rejected = true;
+                    } else {
+                        double weight = priority == LlmPriority.BULK ? properties.getBulkWeight() : properties.getInteractiveWeight();
+                        waiter.start = Math.max(virtualTime, lastFinish[priority.ordinal()]);
+                        waiter.finish = waiter.start + cost / Math.max(1.0, weight);
+                        lastFinish[priority.ordinal()] = waiter.finish;
+                        queues.get(priority).addLast(waiter);
+                        scheduleWake(now);
+                    }
+                }
+
+                if (granted) {
+                    recordWait(waiter);
+                    sink.success(new Permit(this));
+                } else if (rejected) {
+                    meterRegistry.counter("llm.quota.rejected", "budget", name, "priority", priority.name()).increment();
+                    sink.error(new QuotaException(name, "queue full"));
+                }
+            });
+        }
+
+        void dispatch() {
+            List<Waiter> granted = new ArrayList<>();
+            synchronized (this) {
+                wakeScheduled = false;
+                long now = nanoClock.getAsLong();
+                refill(now);
+                while (true) {
+                    Waiter next = head();
+                    if (next == null) break;
+                    if (!canGrant(next.priority, next.tokens, now)) {
+                        // BULK 가 reserve 때문에 못 들어가도 INTERACTIVE 는 들어갈 수 있음
+                        Waiter interactive = queues.get(LlmPriority.INTERACTIVE).peekFirst();
+                        if (next.priority == LlmPriority.BULK && interactive != null
+                                && canGrant(LlmPriority.INTERACTIVE, interactive.tokens, now)) {
+                            next = interactive;
+                        } else {
+                            break;
+                        }
+                    }
+                    queues.get(next.priority).pollFirst();
+                    virtualTime = Math.max(virtualTime, next.start);
+                    consume(next.tokens);
+                    next.granted = true;
+                    granted.add(next);
+                }
+                if (!allQueuesEmpty()) {
+                    scheduleWake(now);
+                }
+            }
+            for (Waiter waiter : granted) {
+                recordWait(waiter);
+                waiter.sink.success(new Permit(this));
+            }
+        }
+
+        void observe(HttpHeaders headers, boolean rateLimited) {
+            boolean wake;
+            synchronized (this) {
+                long now = nanoClock.getAsLong();
+                refill(now);
+
+                Integer limitRequests = intHeader(headers, "x-ratelimit-limit-requests", "anthropic-ratelimit-requests-limit");
+                Integer limitTokens = intHeader(headers, "x-ratelimit-limit-tokens", "anthropic-ratelimit-tokens-limit");
+                Integer remainingRequests = intHeader(headers, "x-ratelimit-remaining-requests", "anthropic-ratelimit-requests-remaining");
+                Integer remainingTokens = intHeader(headers, "x-ratelimit-remaining-tokens", "anthropic-ratelimit-tokens-remaining");
+
+                if (limitRequests != null && limitRequests > 0 && limitRequests != rpm) {
+                    log.info("[LlmQuotaScheduler] {} rpm {} -> {}", name, rpm, limitRequests);
+                    rpm = limitRequests;
+                }
+                if (limitTokens != null && limitTokens > 0 && limitTokens != tpm) {
+                    log.info("[LlmQuotaScheduler] {} tpm {} -> {}", name, tpm, limitTokens);
+                    tpm = limitTokens;
+                }
+                // 서버가 본 남은 양에는 다른 인스턴스의 사용량도 들어 있음. 로컬 추정보다 적을 때만 따라감
+                if (remainingRequests != null) requests = Math.min(requests, remainingRequests);
+                if (remainingTokens != null) tokens = Math.min(tokens, remainingTokens);
+
+                if (rateLimited) {
+                    // Retry-After 가 없으면 바닥난 쪽(요청/토큰)의 reset 시각까지
+                    Duration pause = LlmResilience.retryAfterHeader(headers);
+                    if (pause == null) {
+                        Duration requestReset = parseReset(header(headers, "x-ratelimit-reset-requests", "anthropic-ratelimit-requests-reset"));
+                        Duration tokenReset = parseReset(header(headers, "x-ratelimit-reset-tokens", "anthropic-ratelimit-tokens-reset"));
+                        boolean requestsOut = remainingRequests != null && remainingRequests == 0;
+                        boolean tokensOut = remainingTokens != null && remainingTokens == 0;
+                        if (requestsOut || tokensOut) {
+                            pause = longer(requestsOut ? requestReset : null, tokensOut ? tokenReset : null);
+                        } else {
+                            pause = longer(requestReset, tokenReset);
+                        }
+                    }
+                    if (pause == null || pause.isZero()) pause = Duration.ofSeconds(1);
+                    blockedUntil = Math.max(blockedUntil, now + pause.toNanos());
+                    log.warn("[LlmQuotaScheduler] {} rate limited, pausing {}ms", name, pause.toMillis());
+                }
+                wake = !allQueuesEmpty();
+            }
+            if (wake) dispatch();
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed <= 0) return;
+            lastRefill = now;
+            requests = Math.min(rpm, requests + (double) rpm * elapsed / MINUTE_NANOS);
+            tokens = Math.min(tpm, tokens + (double) tpm * elapsed / MINUTE_NANOS);
+        }
+
+        private boolean canGrant(LlmPriority priority, int cost, long now) {
+            if (now - blockedUntil < 0) return false;
+            double reserve = priority == LlmPriority.BULK ? properties.getBulkReserve() : 0;
+            // 한도보다 큰 요청도 버킷이 가득 차면 들어갈 수 있도록
+            double tokenNeed = Math.min(cost, tpm * (1 - reserve)) + tpm * reserve;
+            return requests >= 1 + rpm * reserve && tokens >= tokenNeed;
+        }
+
+        private void consume(int cost) {
+            requests -= 1;
+            tokens -= cost;
+        }
+
+        // 가장 작은 finish tag 를 가진 대기열 맨 앞 요청
+        private Waiter head() {
+            Waiter best = null;
+            for (ArrayDeque<Waiter> queue : queues.values()) {
+                Waiter w = queue.peekFirst();
+                if (w != null && (best == null || w.finish < best.finish)) best = w;
+            }
+            return best;
+        }
+
+        private boolean allQueuesEmpty() {
+            for (ArrayDeque<Waiter> queue : queues.values()) {
+                if (!queue.isEmpty()) return false;
+            }
+            return true;
+        }
+
+        // 맨 앞 요청이 들어갈 만큼 채워질 시각에 다시 시도 (헤더로 한도가 바뀔 수 있으므로 최대 1초)
+        private void scheduleWake(long now) {
+            if (wakeScheduled) return;
+            Waiter next = head();
+            if (next == null) return;
+
+            double reserve = next.priority == LlmPriority.BULK ? properties.getBulkReserve() : 0;
+            double requestDeficit = 1 + rpm * reserve - requests;
+            double tokenDeficit = Math.min(next.tokens, tpm * (1 - reserve)) + tpm * reserve - tokens;
+            long waitNanos = Math.max(
+                    requestDeficit > 0 ? (long) (requestDeficit * MINUTE_NANOS / Math.max(1, rpm)) : 0,
+                    tokenDeficit > 0 ? (long) (tokenDeficit * MINUTE_NANOS / Math.max(1, tpm)) : 0);
+            waitNanos = Math.max(waitNanos, blockedUntil - now);
+            long delayMillis = Math.clamp(TimeUnit.NANOSECONDS.toMillis(waitNanos), 5L, 1000L);
+
+            wakeScheduled = true;
+            Schedulers.parallel().schedule(this::dispatch, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 대기 중이면 대기열에서 빼고, 할당량을 받았는데 Permit 이 전달되기 전에 취소됐으면
+         * (max-wait 나 마감 초과와 겹친 경우) 호출하지 않으므로 받은 몫을 돌려놓습니다.
+         */
+        private void cancel(Waiter waiter) {
+            boolean wake;
+            synchronized (this) {
+                if (queues.get(waiter.priority).remove(waiter) || !waiter.granted) {
+                    return;
+                }
+                refill(nanoClock.getAsLong());
+                requests = Math.min(rpm, requests + 1);
+                tokens = Math.min(tpm, tokens + waiter.tokens);
+                wake = !allQueuesEmpty();
+            }
+            if (wake) dispatch();
+        }
+
+        private void recordWait(Waiter waiter) {
+            Timer.builder("llm.quota.wait")
+                    .tags("budget", name, "priority", waiter.priority.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(nanoClock.getAsLong() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized double requestsAvailable() {
+            return requests;
+        }
+
+        synchronized double tokensAvailable() {
+            return tokens;
+        }
+
+        synchronized int queued(LlmPriority priority) {
+            return queues.get(priority).size();
+        }
+    }
+}
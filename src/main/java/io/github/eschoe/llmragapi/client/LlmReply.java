@@ -0,0 +1,7 @@
+package io.github.eschoe.llmragapi.client;
+
+/**
+ * 라우터를 거친 채팅 응답과 실제로 응답한 대상
+ */
+public record LlmReply(LlmTarget target, String text) {
+}
@@ -0,0 +1,174 @@
+package io.github.eschoe.llmragapi.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.netty.buffer.ByteBufAllocator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 제공자 요청 본문을 JSON 바이트로 직접 씁니다.
+ *
+ * Map 을 만들어 Jackson 이 리플렉션으로 직렬화하는 대신, 모델과 시스템 프롬프트처럼 요청마다 같은 앞부분은
+ * 한 번 인코딩한 바이트 조각을 재사용하고, 사용자 입력과 생성 파라미터만 새로 씁니다.
+ * 결과는 Netty 풀에서 받은 DataBuffer 이므로 WebClient 가 복사 없이 보내고 다 쓰면 반환합니다.
+ *
+ * 필드 순서만 다를 뿐 Map 으로 만들던 본문과 같은 JSON 입니다.
+ */
+@Component
+public class LlmRequestEncoder {
+
+    // 조각 캐시 상한. 모델/프롬프트 조합은 몇 개뿐이지만 요청이 지정한 모델처럼 달라지는 값이 들어와도 무한히 늘지 않게.
+    // 넘치면 가장 오래 안 쓴 조각부터 버리므로, 자주 쓰는 조합은 계속 캐시에 남음
+    private static final int MAX_FRAGMENTS = 256;
+
+    private static final byte[] OPENAI_CHAT_SUFFIX = ascii("}],\"max_tokens\":");
+    private static final byte[] ANTHROPIC_CHAT_SUFFIX = ascii("}]}],\"max_tokens\":");
+    private static final byte[] TEMPERATURE = ascii(",\"temperature\":");
+
+    private final DataBufferFactory bufferFactory;
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private final Map<FragmentKey, byte[]> fragments = Collections.synchronizedMap(
+            new LinkedHashMap<>(32, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<FragmentKey, byte[]> eldest) {
+                    return size() > MAX_FRAGMENTS;
+                }
+            });
+
+    public LlmRequestEncoder() {
+        this(new NettyDataBufferFactory(ByteBufAllocator.DEFAULT));
+    }
+
+    public LlmRequestEncoder(DataBufferFactory bufferFactory) {
+        this.bufferFactory = bufferFactory;
+    }
+
+    /**
+     * {"model":..,"messages":[{"role":"system","content":..},{"role":"user","content":..}],"max_tokens":..,"temperature":..}
+     */
+    public DataBuffer openAiChat(String model, String system, String user, GenerationOptions options) {
+        byte[] prefix = fragment("openai-chat", model, system, () ->
+                "{\"model\":" + quote(model)
+                        + ",\"messages\":[{\"role\":\"system\",\"content\":" + quote(system)
+                        + "},{\"role\":\"user\",\"content\":");
+        return write(prefix, user, OPENAI_CHAT_SUFFIX, options);
+    }
+
+    /**
+     * {"model":..,"system":..,"messages":[{"role":"user","content":[{"type":"text","text":..}]}],"max_tokens":..,"temperature":..}
+     */
+    public DataBuffer anthropicChat(String model, String system, String user, GenerationOptions options) {
+        byte[] prefix = fragment("anthropic-chat", model, system, () ->
+                "{\"model\":" + quote(model)
+                        + ",\"system\":" + quote(system)
+                        + ",\"messages\":[{\"role\":\"user\",\"content\":[{\"type\":\"text\",\"text\":");
+        // Anthropic 의 temperature 범위는 0 ~ 1
+        GenerationOptions clamped = options.temperature() != null && options.temperature() > 1.0
+                ? new GenerationOptions(options.maxTokens(), 1.0)
+                : options;
+        return write(prefix, user, ANTHROPIC_CHAT_SUFFIX, clamped);
+    }
+
+    /**
+     * {"model":..,"input":..,"encoding_format":..}
+     */
+    public DataBuffer openAiEmbedding(String model, String input, String encodingFormat) {
+        byte[] prefix = fragment("openai-embedding", model, "", () -> "{\"model\":" + quote(model) + ",\"input\":");
+        byte[] suffix = fragment("openai-embedding-format", encodingFormat, "", () ->
+                ",\"encoding_format\":" + quote(encodingFormat) + "}");
+
+        DataBuffer buffer = allocate(prefix.length + suffix.length, input);
+        try (OutputStream out = buffer.asOutputStream()) {
+            out.write(prefix);
+            writeString(out, input);
+            out.write(suffix);
+            return buffer;
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw new UncheckedIOException("요청 본문 인코딩 실패", e);
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    private DataBuffer write(byte[] prefix, String user, byte[] suffix, GenerationOptions options) {
+        DataBuffer buffer = allocate(prefix.length + suffix.length + 32, user);
+        try (OutputStream out = buffer.asOutputStream()) {
+            out.write(prefix);
+            writeString(out, user);
+            out.write(suffix);
+            out.write(ascii(Integer.toString(options.maxTokens())));
+            if (options.temperature() != null) {
+                out.write(TEMPERATURE);
+                out.write(ascii(Double.toString(options.temperature())));
+            }
+            out.write('}');
+            return buffer;
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw new UncheckedIOException("요청 본문 인코딩 실패", e);
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    // 한글은 UTF-8 로 3바이트이므로 넉넉히 잡아 중간에 버퍼를 늘리지 않게 함
+    private DataBuffer allocate(int fixed, String text) {
+        return bufferFactory.allocateBuffer(fixed + 2 + (text == null ? 0 : text.length() * 3));
+    }
+
+    private void writeString(OutputStream out, String value) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+    }
+
+    private byte[] fragment(String kind, String first, String second, FragmentSource source) {
+        // 문자열을 이어 붙이지 않고 레코드로 찾음 (String 의 hashCode 는 캐시되므로 시스템 프롬프트가 길어도 조회 비용이 작음)
+        FragmentKey key = new FragmentKey(kind, first, second);
+        byte[] cached = fragments.get(key);
+        if (cached != null) return cached;
+
+        byte[] encoded = source.json().getBytes(StandardCharsets.UTF_8);
+        fragments.put(key, encoded);
+        return encoded;
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+        return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + "\"";
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record FragmentKey(String kind, String first, String second) {}
+
+    @FunctionalInterface
+    private interface FragmentSource {
+        String json();
+    }
+}
@@ -0,0 +1,356 @@
+package io.github.eschoe.llmragapi.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.ContextView;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * LLM 제공자 호출을 감싸는 마감 / 재시도 / 헤지 / circuit breaker
+ *
+ * - 마감: {@link LlmDeadline} 이 Context 에 있으면 시도마다 남은 시간만큼만 기다림
+ * - 재시도: 429/5xx 와 연결 오류만. Retry-After 가 있으면 그 시간, 없으면 full jitter 지수 backoff
+ * - 헤지: 멱등한 호출(임베딩)에서 첫 요청이 최근 p95 지연보다 오래 걸리면 같은 요청을 하나 더 보내고 먼저 온 응답을 씀
+ * - circuit breaker: 제공자별 ({@link LlmCircuitBreaker})
+ *
+ * 지표: llm.client.requests (p50/p95/p99, tag: provider, operation, outcome), llm.client.retries,
+ *       llm.client.hedges, llm.client.hedges.won, llm.client.circuit.state (0 closed, 1 half-open, 2 open)
+ */
+@Component
+public class LlmResilience {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LlmCircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    @Value("${app.llm.resilience.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${app.llm.resilience.retry-base-delay:200ms}")
+    private Duration retryBaseDelay;
+
+    // 이보다 긴 Retry-After 는 기다리지 않고 실패로 돌려줌
+    @Value("${app.llm.resilience.retry-max-delay:5s}")
+    private Duration retryMaxDelay;
+
+    @Value("${app.llm.resilience.breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${app.llm.resilience.breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${app.llm.resilience.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${app.llm.resilience.breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${app.llm.resilience.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${app.llm.resilience.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    // 지연 표본이 이만큼 쌓이기 전에는 헤지하지 않음
+    @Value("${app.llm.resilience.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${app.llm.resilience.hedge.min-delay:50ms}")
+    private Duration hedgeMinDelay;
+
+    @Value("${app.llm.resilience.hedge.max-delay:2s}")
+    private Duration hedgeMaxDelay;
+
+    public LlmResilience(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 마감 / 재시도 / circuit breaker 를 적용해 호출합니다.
+     *
+     * @param call 시도마다 다시 호출되므로 매번 새 요청을 만들어야 합니다.
+     */
+    public <T> Mono<T> execute(String provider, String operation, Supplier<Mono<T>> call) {
+        return run(provider, operation, call, false);
+    }
+
+    /**
+     * execute 에 헤지를 더합니다. 같은 요청을 두 번 보내도 되는 호출에만 쓰세요.
+     */
+    public <T> Mono<T> executeHedged(String provider, String operation, Supplier<Mono<T>> call) {
+        return run(provider, operation, call, hedgeEnabled);
+    }
+
+    private <T> Mono<T> run(String provider, String operation, Supplier<Mono<T>> call, boolean hedge) {
+        LlmCircuitBreaker breaker = breaker(provider);
+        LatencyWindow latency = latencies.computeIfAbsent(provider + ":" + operation, k -> new LatencyWindow());
+
+        return Mono.deferContextual(ctx -> {
+            long start = System.nanoTime();
+            // 대량 호출(BULK)은 할당량을 아끼기 위해 헤지하지 않음
+            boolean hedgeThis = hedge && LlmPriority.of(ctx) == LlmPriority.INTERACTIVE;
+            Mono<T> attempt = Mono.defer(() -> {
+                Duration remaining = LlmDeadline.remaining(ctx);
+                Mono<T> primary = attempt(provider, operation, breaker, latency, remaining, call);
+                return hedgeThis ? hedged(provider, operation, breaker, latency, remaining, call, primary) : primary;
+            });
+
+            return attempt
+                    .retryWhen(retry(provider, operation, ctx))
+                    .doOnSuccess(v -> record(provider, operation, "success", start))
+                    .doOnError(e -> record(provider, operation, outcome(e), start));
+        });
+    }
+
+    private <T> Mono<T> attempt(String provider, String operation, LlmCircuitBreaker breaker,
+                                LatencyWindow latency, Duration remaining, Supplier<Mono<T>> call) {
+        if (remaining != null && remaining.isZero()) {
+            return Mono.error(new LlmDeadline.ExceededException(provider, operation));
+        }
+        if (!breaker.tryAcquire()) {
+            return Mono.error(new LlmCircuitBreaker.OpenException(provider));
+        }
+
+        AtomicBoolean settled = new AtomicBoolean();
+        Mono<T> mono = Mono.defer(call);
+        if (remaining != null) {
+            mono = mono.timeout(remaining, Mono.error(new LlmDeadline.ExceededException(provider, operation)));
+        }
+        long start = System.nanoTime();
+        return mono
+                .doOnSuccess(v -> {
+                    if (settled.compareAndSet(false, true)) {
+                        breaker.onSuccess();
+                        latency.record(System.nanoTime() - start);
+                    }
+                })
+                .doOnError(e -> {
+                    if (!settled.compareAndSet(false, true)) return;
+                    if (countsAsFailure(e)) {
+                        breaker.onFailure();
+                    } else {
+                        breaker.onIgnored();
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (settled.compareAndSet(false, true)) {
+                        breaker.onIgnored();
+                    }
+                });
+    }
+
+    /**
+     * 첫 요청이 p95 지연 안에 끝나지 않으면 두 번째 요청을 보내고 먼저 성공한 쪽을 씁니다.
+     * 첫 요청이 이미 실패했으면 두 번째는 보내지 않고 재시도 판단에 맡깁니다.
+     */
+    private <T> Mono<T> hedged(String provider, String operation, LlmCircuitBreaker breaker, LatencyWindow latency,
+                               Duration remaining, Supplier<Mono<T>> call, Mono<T> primary) {
+        Duration delay = hedgeDelay(latency);
+        if (delay == null || (remaining != null && remaining.compareTo(delay) <= 0)) {
+            return primary;
+        }
+
+        // 첫 요청이 실패하면 대기 중인 헤지 타이머를 바로 끝냄
+        Sinks.One<Boolean> primaryFailed = Sinks.one();
+        Mono<T> first = primary.doOnError(e -> primaryFailed.tryEmitValue(true));
+        Mono<T> backup = Mono.delay(delay)
+                .takeUntilOther(primaryFailed.asMono())
+                .flatMap(tick -> {
+                    meterRegistry.counter("llm.client.hedges", "provider", provider, "operation", operation).increment();
+                    Duration left = remaining == null ? null : remaining.minus(delay);
+                    return attempt(provider, operation, breaker, latency, left, call)
+                            .doOnSuccess(v -> meterRegistry.counter("llm.client.hedges.won",
+                                    "provider", provider, "operation", operation).increment());
+                });
+
+        return Mono.firstWithValue(first, backup)
+                .onErrorMap(NoSuchElementException.class, LlmResilience::unwrapHedgeError);
+    }
+
+    private Duration hedgeDelay(LatencyWindow latency) {
+        long nanos = latency.percentile(hedgePercentile, hedgeMinSamples);
+        if (nanos < 0) {
+            return null;
+        }
+        long clamped = Math.max(hedgeMinDelay.toNanos(), Math.min(hedgeMaxDelay.toNanos(), nanos));
+        return Duration.ofNanos(clamped);
+    }
+
+    private Retry retry(String provider, String operation, ContextView ctx) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            if (signal.totalRetries() >= maxRetries || !retryable(failure)) {
+                return Mono.error(failure);
+            }
+
+            Duration delay = retryDelay(failure, signal.totalRetries());
+            if (delay == null) {
+                return Mono.error(failure);
+            }
+
+            Duration remaining = LlmDeadline.remaining(ctx);
+            if (remaining != null && remaining.compareTo(delay) <= 0) {
+                return Mono.error(failure);
+            }
+
+            meterRegistry.counter("llm.client.retries", "provider", provider, "operation", operation,
+                    "reason", reason(failure)).increment();
+            return Mono.delay(delay);
+        }));
+    }
+
+    /**
+     * Retry-After 가 있으면 그 시간, 없으면 full jitter: [0, min(max, base * 2^n)).
+     * Retry-After 가 retry-max-delay 보다 길면 null (기다리지 않고 실패)
+     */
+    Duration retryDelay(Throwable failure, long retriesSoFar) {
+        Duration delay = retryAfter(failure);
+        if (delay == null) {
+            long cap = Math.min(retryMaxDelay.toMillis(), retryBaseDelay.toMillis() << Math.min(retriesSoFar, 16));
+            return Duration.ofMillis(ThreadLocalRandom.current().nextLong(Math.max(1, cap)));
+        }
+        return delay.compareTo(retryMaxDelay) > 0 ? null : delay;
+    }
+
+    private static boolean retryable(Throwable e) {
+        if (e instanceof WebClientResponseException r) {
+            int status = r.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof WebClientRequestException;
+    }
+
+    // 4xx(429 제외) 는 요청 문제, 마감 초과와 할당량 대기 실패는 우리 쪽 사정이므로 제공자 장애로 세지 않음
+    private static boolean countsAsFailure(Throwable e) {
+        if (e instanceof WebClientResponseException r) {
+            int status = r.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return !(e instanceof LlmDeadline.ExceededException) && !(e instanceof LlmQuotaScheduler.QuotaException);
+    }
+
+    /**
+     * Retry-After: 초 또는 HTTP-date
+     */
+    static Duration retryAfter(Throwable e) {
+        if (!(e instanceof WebClientResponseException r)) {
+            return null;
+        }
+        return retryAfterHeader(r.getHeaders());
+    }
+
+    static Duration retryAfterHeader(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration until = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return until.isNegative() ? Duration.ZERO : until;
+        } catch (RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    private static Throwable unwrapHedgeError(NoSuchElementException e) {
+        List<Throwable> errors = new ArrayList<>();
+        if (e.getCause() != null) {
+            errors.addAll(Exceptions.unwrapMultiple(e.getCause()));
+        }
+        errors.addAll(Arrays.asList(e.getSuppressed()));
+        return errors.isEmpty() ? e : errors.get(0);
+    }
+
+    private static String reason(Throwable e) {
+        if (e instanceof WebClientResponseException r) {
+            return String.valueOf(r.getStatusCode().value());
+        }
+        return "io";
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof LlmDeadline.ExceededException) return "deadline";
+        if (e instanceof LlmCircuitBreaker.OpenException) return "circuit_open";
+        if (e instanceof LlmQuotaScheduler.QuotaException) return "quota";
+        if (e instanceof WebClientResponseException r) return String.valueOf(r.getStatusCode().value());
+        if (e instanceof TimeoutException) return "timeout";
+        return "io";
+    }
+
+    private void record(String provider, String operation, String outcome, long start) {
+        Timer.builder("llm.client.requests")
+                .tags("provider", provider, "operation", operation, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private LlmCircuitBreaker breaker(String provider) {
+        return breakers.computeIfAbsent(provider, p -> {
+            LlmCircuitBreaker breaker = new LlmCircuitBreaker(p, breakerWindowSize, breakerMinimumCalls,
+                    breakerFailureRate, breakerOpenDuration);
+            meterRegistry.gauge("llm.client.circuit.state",
+                    Tags.of("provider", p), breaker, b -> b.state().ordinal());
+            return breaker;
+        });
+    }
+
+    /**
+     * 최근 성공 호출의 지연 (헤지 지연 계산용)
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int position;
+        private int size;
+
+        synchronized void record(long nanos) {
+            samples[position] = nanos;
+            position = (position + 1) % samples.length;
+            if (size < samples.length) size++;
+        }
+
+        /**
+         * 표본이 minSamples 보다 적으면 -1
+         */
+        synchronized long percentile(double p, int minSamples) {
+            if (size < Math.max(1, minSamples)) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(size - 1, Math.ceil(p * size) - 1);
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
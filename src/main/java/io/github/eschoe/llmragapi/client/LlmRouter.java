@@ -0,0 +1,278 @@
+package io.github.eschoe.llmragapi.client;
+
+import io.github.eschoe.llmragapi.config.LlmRoutingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 채팅 요청을 그룹 안에서 가장 빠르고 건강한 대상으로 보내고, 실패하면 다음 대상으로 넘깁니다.
+ *
+ * 대상(provider:model)마다 지연과 오류율의 EWMA 를 유지하고, 점수 = 지연 / (1 - 오류율) 이 낮은 순서로 시도합니다.
+ * 429 (또는 할당량 대기 실패) 나 장애(circuit open, 연결 오류, 5xx 가 이어짐)를 만나면 그 대상은 일정 시간 뒤로 밀립니다.
+ * 한 대상 안의 재시도는 {@link LlmResilience} 가 하고, 라우터는 그래도 실패한 경우에만 다른 대상으로 넘어갑니다.
+ * 400 처럼 요청 자체가 잘못된 오류는 다른 대상에서도 같을 것이므로 넘기지 않습니다.
+ *
+ * 지표: llm.router.latency.ewma (ms), llm.router.error.ewma (tag: target), llm.router.requests (tag: group, target),
+ *       llm.router.failovers (tag: group, from, reason)
+ */
+@Component
+public class LlmRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmRouter.class);
+
+    private final LlmContextClient llmContextClient;
+    private final LlmRoutingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<LlmTarget>> groups = new LinkedHashMap<>();
+    private final Map<LlmTarget, TargetStats> stats = new ConcurrentHashMap<>();
+
+    public LlmRouter(LlmContextClient llmContextClient, LlmRoutingProperties properties, MeterRegistry meterRegistry) {
+        this.llmContextClient = llmContextClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        properties.getGroups().forEach((name, values) -> {
+            List<LlmTarget> targets = new ArrayList<>();
+            for (String value : values) {
+                LlmTarget target = LlmTarget.parse(value);
+                // API 키가 없는 제공자는 후보에서 제외
+                if (!llmContextClient.isConfigured(target.provider())) {
+                    log.warn("[LlmRouter] {} skipped in group {}: no API key", target, name);
+                    continue;
+                }
+                targets.add(target);
+                stats(target);
+            }
+            if (targets.isEmpty()) {
+                log.warn("[LlmRouter] group {} has no usable target", name);
+                return;
+            }
+            groups.put(name, List.copyOf(targets));
+            log.info("[LlmRouter] group {}: {}", name, targets);
+        });
+    }
+
+    public String defaultGroup() {
+        return properties.getDefaultGroup();
+    }
+
+    /**
+     * 그룹에 속한 모델 이름 (프롬프트 크기를 가장 작은 컨텍스트 창에 맞출 때 사용). 없는 그룹이면 빈 목록
+     */
+    public List<String> models(String group) {
+        List<LlmTarget> targets = groups.getOrDefault(group, List.of());
+        return targets.stream().map(LlmTarget::model).toList();
+    }
+
+    /**
+     * 그룹에서 대상을 골라 채팅을 보냅니다. 실패하면 남은 대상으로 차례로 넘어갑니다.
+     */
+    public Mono<LlmReply> chat(String group, String system, String content, GenerationOptions options) {
+        List<LlmTarget> candidates;
+        try {
+            candidates = candidates(group);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        return attempt(group, candidates, 0, system, content, options, null);
+    }
+
+    /**
+     * 지금 시도할 순서대로 정렬한 대상 목록
+     */
+    List<LlmTarget> candidates(String group) {
+        List<LlmTarget> targets = groups.get(group);
+        if (targets == null) {
+            throw new IllegalArgumentException("알 수 없는 라우팅 그룹: " + group);
+        }
+        if (!properties.isEnabled() || targets.size() == 1) {
+            return targets.subList(0, 1);
+        }
+
+        long now = System.nanoTime();
+        // 정렬 중에 값이 바뀌지 않도록 먼저 찍어둠
+        List<Ranked> ranked = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            TargetStats s = stats(targets.get(i));
+            ranked.add(new Ranked(targets.get(i), s.rank(now), s.orderKey(now), i));
+        }
+        // 건강한 대상 (측정된 것 → 아직 모르는 것) → 쉬는 중인 대상 (빨리 풀리는 순), 같으면 설정 순서
+        ranked.sort(Comparator.comparingInt(Ranked::rank)
+                .thenComparingDouble(Ranked::key)
+                .thenComparingInt(Ranked::order));
+
+        List<LlmTarget> ordered = new ArrayList<>(ranked.size());
+        int healthy = 0;
+        for (Ranked r : ranked) {
+            ordered.add(r.target());
+            if (r.rank() < 2) healthy++;
+        }
+        if (healthy > 1 && ThreadLocalRandom.current().nextDouble() < properties.getExploreRatio()) {
+            LlmTarget explore = ordered.remove(1 + ThreadLocalRandom.current().nextInt(healthy - 1));
+            ordered.addFirst(explore);
+        }
+        return ordered;
+    }
+
+    private Mono<LlmReply> attempt(String group, List<LlmTarget> candidates, int index,
+                                   String system, String content, GenerationOptions options, Throwable previous) {
+        LlmTarget target = candidates.get(index);
+        TargetStats targetStats = stats(target);
+        long start = System.nanoTime();
+
+        return llmContextClient.chat(target.provider(), target.model(), system, content, options)
+                .map(text -> new LlmReply(target, text))
+                .doOnSuccess(reply -> {
+                    targetStats.onSuccess(System.nanoTime() - start);
+                    meterRegistry.counter("llm.router.requests", "group", group, "target", target.toString()).increment();
+                })
+                .onErrorResume(e -> {
+                    if (previous != null && previous != e) e.addSuppressed(previous);
+
+                    if (e instanceof LlmDeadline.ExceededException) {
+                        // 남은 시간이 없으므로 넘기지 않음. 느렸다는 사실만 반영
+                        targetStats.onSlow(System.nanoTime() - start);
+                        return Mono.error(e);
+                    }
+                    if (!failoverWorthy(e)) {
+                        return Mono.error(e);
+                    }
+
+                    targetStats.onFailure(e);
+                    String reason = reason(e);
+                    if (index + 1 >= candidates.size()) {
+                        log.warn("[LlmRouter] group {}: all targets failed, last {} ({})", group, target, reason);
+                        return Mono.error(e);
+                    }
+                    LlmTarget next = candidates.get(index + 1);
+                    log.warn("[LlmRouter] group {}: {} failed ({}), failing over to {}", group, target, reason, next);
+                    meterRegistry.counter("llm.router.failovers", "group", group, "from", target.toString(), "reason", reason).increment();
+                    return attempt(group, candidates, index + 1, system, content, options, e);
+                });
+    }
+
+    // 요청 자체의 문제(형식, 크기, 없는 모델 등)는 다른 대상으로 넘겨도 같은 결과
+    private static boolean failoverWorthy(Throwable e) {
+        if (e instanceof WebClientResponseException r) {
+            int status = r.getStatusCode().value();
+            return status == 401 || status == 403 || status == 408 || status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    private static String reason(Throwable e) {
+        if (e instanceof WebClientResponseException r) return String.valueOf(r.getStatusCode().value());
+        if (e instanceof LlmCircuitBreaker.OpenException) return "circuit_open";
+        if (e instanceof LlmQuotaScheduler.QuotaException) return "quota";
+        return "io";
+    }
+
+    private TargetStats stats(LlmTarget target) {
+        return stats.computeIfAbsent(target, t -> {
+            TargetStats s = new TargetStats(t);
+            Tags tags = Tags.of("target", t.toString());
+            meterRegistry.gauge("llm.router.latency.ewma", tags, s, TargetStats::latencyMillis);
+            meterRegistry.gauge("llm.router.error.ewma", tags, s, TargetStats::errorRate);
+            return s;
+        });
+    }
+
+    private record Ranked(LlmTarget target, int rank, double key, int order) {}
+
+    /**
+     * 대상 하나의 지연 / 오류율 EWMA 와 쉬는 시간
+     */
+    private final class TargetStats {
+        private final LlmTarget target;
+        private double latencyMillis = Double.NaN;  // 아직 측정 전
+        private double errorRate;
+        private long cooldownUntil;
+        private boolean coolingDown;
+
+        TargetStats(LlmTarget target) {
+            this.target = target;
+        }
+
+        synchronized void onSuccess(long elapsedNanos) {
+            updateLatency(elapsedNanos);
+            errorRate = (1 - alpha()) * errorRate;
+        }
+
+        synchronized void onSlow(long elapsedNanos) {
+            updateLatency(elapsedNanos);
+        }
+
+        synchronized void onFailure(Throwable e) {
+            errorRate = alpha() + (1 - alpha()) * errorRate;
+
+            Duration cooldown = null;
+            if (e instanceof WebClientResponseException r && r.getStatusCode().value() == 429) {
+                cooldown = properties.getRateLimitCooldown();
+                Duration retryAfter = LlmResilience.retryAfter(e);
+                if (retryAfter != null && retryAfter.compareTo(cooldown) > 0) cooldown = retryAfter;
+            } else if (e instanceof LlmQuotaScheduler.QuotaException) {
+                // 우리 쪽 할당량 대기열이 넘침. 제공자 429 와 같이 취급
+                cooldown = properties.getRateLimitCooldown();
+            } else if (e instanceof LlmCircuitBreaker.OpenException || errorRate >= properties.getUnhealthyErrorRate()) {
+                cooldown = properties.getOutageCooldown();
+            }
+            if (cooldown != null) {
+                cooldownUntil = System.nanoTime() + cooldown.toNanos();
+                coolingDown = true;
+                log.warn("[LlmRouter] {} cooling down for {}s (error rate {})",
+                        target, cooldown.toSeconds(), String.format("%.2f", errorRate));
+            }
+        }
+
+        synchronized boolean coolingDown(long now) {
+            if (coolingDown && now - cooldownUntil >= 0) {
+                coolingDown = false;
+            }
+            return coolingDown;
+        }
+
+        // 0: 측정된 정상 대상, 1: 아직 측정 전, 2: 쉬는 중
+        synchronized int rank(long now) {
+            if (coolingDown(now)) return 2;
+            return Double.isNaN(latencyMillis) ? 1 : 0;
+        }
+
+        // 같은 rank 안에서의 정렬 기준. 쉬는 중이면 남은 시간, 아니면 오류율을 반영한 기대 지연
+        synchronized double orderKey(long now) {
+            if (coolingDown(now)) return cooldownUntil - now;
+            if (Double.isNaN(latencyMillis)) return 0;
+            return latencyMillis / Math.max(0.05, 1 - errorRate);
+        }
+
+        synchronized double latencyMillis() {
+            return Double.isNaN(latencyMillis) ? 0 : latencyMillis;
+        }
+
+        synchronized double errorRate() {
+            return errorRate;
+        }
+
+        private void updateLatency(long elapsedNanos) {
+            double millis = elapsedNanos / 1_000_000.0;
+            latencyMillis = Double.isNaN(latencyMillis) ? millis : alpha() * millis + (1 - alpha()) * latencyMillis;
+        }
+
+        private double alpha() {
+            return properties.getEwmaAlpha();
+        }
+    }
+}
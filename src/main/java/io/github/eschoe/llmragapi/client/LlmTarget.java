@@ -0,0 +1,20 @@
+package io.github.eschoe.llmragapi.client;
+
+/**
+ * 라우팅 대상 (제공자 + 모델). 설정에서는 "openai:gpt-4o-mini" 형식으로 씁니다.
+ */
+public record LlmTarget(String provider, String model) {
+
+    public static LlmTarget parse(String value) {
+        int colon = value == null ? -1 : value.indexOf(':');
+        if (colon <= 0 || colon == value.length() - 1) {
+            throw new IllegalArgumentException("라우팅 대상은 provider:model 형식이어야 합니다: " + value);
+        }
+        return new LlmTarget(value.substring(0, colon).trim().toLowerCase(), value.substring(colon + 1).trim());
+    }
+
+    @Override
+    public String toString() {
+        return provider + ":" + model;
+    }
+}
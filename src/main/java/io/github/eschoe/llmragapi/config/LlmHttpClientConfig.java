@@ -0,0 +1,88 @@
+package io.github.eschoe.llmragapi.config;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.SslProvider;
+
+import java.util.function.Function;
+
+/**
+ * LLM 제공자별 WebClient
+ *
+ * 제공자마다 별도의 커넥션 풀을 두어 한쪽이 느려져도 다른 쪽 커넥션을 잡아먹지 않게 하고,
+ * 대기열 길이와 대기 시간을 제한해 몰리는 요청이 무한히 쌓이지 않게 합니다.
+ * SslContext 를 제공자별로 한 번만 만들어 재사용하므로 새 커넥션도 TLS 세션을 재개할 수 있습니다.
+ *
+ * 풀/요청 지표는 Micrometer 로 내보냅니다. (/actuator/metrics/reactor.netty.connection.provider.*, reactor.netty.http.client.*)
+ */
+@Configuration
+@EnableConfigurationProperties({LlmHttpProperties.class, LlmRoutingProperties.class, LlmQuotaProperties.class, LlmPromptProperties.class})
+public class LlmHttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmHttpClientConfig.class);
+
+    @Bean("openAiWebClient")
+    public WebClient openAiWebClient(WebClient.Builder builder, LlmHttpProperties properties) {
+        return build("openai", builder, properties.getOpenai());
+    }
+
+    @Bean("anthropicWebClient")
+    public WebClient anthropicWebClient(WebClient.Builder builder, LlmHttpProperties properties) {
+        return build("anthropic", builder, properties.getAnthropic());
+    }
+
+    private WebClient build(String name, WebClient.Builder builder, LlmHttpProperties.Provider p) {
+        ConnectionProvider pool = ConnectionProvider.builder("llm-" + name)
+                .maxConnections(p.getMaxConnections())
+                .pendingAcquireMaxCount(p.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(p.getPendingAcquireTimeout())
+                .maxIdleTime(p.getMaxIdleTime())
+                .maxLifeTime(p.getMaxLifeTime())
+                .evictInBackground(p.getEvictInBackground())
+                .metrics(true)
+                .build();
+
+        SslProvider.ProtocolSslContextSpec ssl = p.isHttp2()
+                ? Http2SslContextSpec.forClient()
+                : Http11SslContextSpec.forClient();
+        ssl.configure(b -> b
+                .sessionCacheSize(p.getTlsSessionCacheSize())
+                .sessionTimeout(p.getTlsSessionTimeout().toSeconds()));
+
+        HttpClient http = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) p.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(p.getResponseTimeout())
+                .compress(true)
+                // 호출하는 경로가 고정되어 있으므로 uri 태그를 그대로 써도 카디널리티가 작음
+                .metrics(true, Function.identity());
+        // base-url 을 로컬 목 서버(http://) 로 바꿔도 동작하도록 TLS 는 https 일 때만
+        boolean tls = p.getBaseUrl() != null && p.getBaseUrl().startsWith("https");
+        if (tls) {
+            http = http.secure(spec -> spec.sslContext(ssl));
+        }
+        if (p.isHttp2()) {
+            http = http.protocol(tls ? HttpProtocol.H2 : HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        logger.info("LLM HTTP client [{}]: baseUrl={}, maxConnections={}, pendingAcquireMaxCount={}, http2={}",
+                name, p.getBaseUrl(), p.getMaxConnections(), p.getPendingAcquireMaxCount(), p.isHttp2());
+
+        return builder.clone()
+                .baseUrl(p.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
+                .build();
+    }
+}
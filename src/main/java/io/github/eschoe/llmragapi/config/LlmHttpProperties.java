@@ -0,0 +1,84 @@
+package io.github.eschoe.llmragapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * LLM 제공자별 HTTP 클라이언트 설정 (app.llm.http.openai.*, app.llm.http.anthropic.*)
+ */
+@ConfigurationProperties(prefix = "app.llm.http")
+public class LlmHttpProperties {
+
+    private Provider openai = new Provider("https://api.openai.com");
+    private Provider anthropic = new Provider("https://api.anthropic.com");
+
+    public Provider getOpenai() { return openai; }
+    public void setOpenai(Provider openai) { this.openai = openai; }
+
+    public Provider getAnthropic() { return anthropic; }
+    public void setAnthropic(Provider anthropic) { this.anthropic = anthropic; }
+
+    public static class Provider {
+        private String baseUrl;
+        // 커넥션 풀
+        private int maxConnections = 50;
+        // 커넥션을 기다리는 요청 수 상한. 넘으면 바로 실패 (무한 대기열 방지)
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        // 타임아웃
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(60);
+        // TLS 세션 재사용 (재연결 시 전체 핸드셰이크 생략)
+        private int tlsSessionCacheSize = 256;
+        private Duration tlsSessionTimeout = Duration.ofHours(1);
+        // ALPN 으로 HTTP/2 협상. 서버가 지원하지 않으면 HTTP/1.1 로 동작
+        private boolean http2 = false;
+
+        public Provider() {}
+
+        public Provider(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        // Getters and Setters
+        public String getBaseUrl() { return baseUrl; }
+        public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+        public int getPendingAcquireMaxCount() { return pendingAcquireMaxCount; }
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) { this.pendingAcquireMaxCount = pendingAcquireMaxCount; }
+
+        public Duration getPendingAcquireTimeout() { return pendingAcquireTimeout; }
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) { this.pendingAcquireTimeout = pendingAcquireTimeout; }
+
+        public Duration getMaxIdleTime() { return maxIdleTime; }
+        public void setMaxIdleTime(Duration maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+
+        public Duration getMaxLifeTime() { return maxLifeTime; }
+        public void setMaxLifeTime(Duration maxLifeTime) { this.maxLifeTime = maxLifeTime; }
+
+        public Duration getEvictInBackground() { return evictInBackground; }
+        public void setEvictInBackground(Duration evictInBackground) { this.evictInBackground = evictInBackground; }
+
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+        public Duration getResponseTimeout() { return responseTimeout; }
+        public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+
+        public int getTlsSessionCacheSize() { return tlsSessionCacheSize; }
+        public void setTlsSessionCacheSize(int tlsSessionCacheSize) { this.tlsSessionCacheSize = tlsSessionCacheSize; }
+
+        public Duration getTlsSessionTimeout() { return tlsSessionTimeout; }
+        public void setTlsSessionTimeout(Duration tlsSessionTimeout) { this.tlsSessionTimeout = tlsSessionTimeout; }
+
+        public boolean isHttp2() { return http2; }
+        public void setHttp2(boolean http2) { this.http2 = http2; }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.eschoe.llmragapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 프롬프트 크기 / 생성 파라미터 설정 (app.llm.prompt.*)
+ *
+ * context-windows 의 키는 모델 이름 접두사이며 가장 긴 접두사가 적용됩니다. (예: "gpt-4o" 는 gpt-4o-mini 에도 적용)
+ */
+@ConfigurationProperties(prefix = "app.llm.prompt")
+public class LlmPromptProperties {
+
+    private Map<String, Integer> contextWindows = new LinkedHashMap<>();
+    // context-windows 에 없는 모델의 컨텍스트 창
+    private int defaultContextWindow = 16_384;
+    // 창이 아무리 커도 입력은 이 이하로 (지연과 비용의 상한)
+    private int maxInputTokens = 12_000;
+    // 요청의 maxTokens 상한 / 요청에 없을 때 기본값
+    private int maxOutputTokens = 4_096;
+    private int defaultMaxTokens = 1_024;
+    // 로컬 토크나이저(cl100k)와 제공자 토크나이저의 차이, 메시지 포맷 오버헤드
+    private int safetyMargin = 256;
+
+    // Getters and Setters
+    public Map<String, Integer> getContextWindows() { return contextWindows; }
+    public void setContextWindows(Map<String, Integer> contextWindows) { this.contextWindows = contextWindows; }
+
+    public int getDefaultContextWindow() { return defaultContextWindow; }
+    public void setDefaultContextWindow(int defaultContextWindow) { this.defaultContextWindow = defaultContextWindow; }
+
+    public int getMaxInputTokens() { return maxInputTokens; }
+    public void setMaxInputTokens(int maxInputTokens) { this.maxInputTokens = maxInputTokens; }
+
+    public int getMaxOutputTokens() { return maxOutputTokens; }
+    public void setMaxOutputTokens(int maxOutputTokens) { this.maxOutputTokens = maxOutputTokens; }
+
+    public int getDefaultMaxTokens() { return defaultMaxTokens; }
+    public void setDefaultMaxTokens(int defaultMaxTokens) { this.defaultMaxTokens = defaultMaxTokens; }
+
+    public int getSafetyMargin() { return safetyMargin; }
+    public void setSafetyMargin(int safetyMargin) { this.safetyMargin = safetyMargin; }
+}
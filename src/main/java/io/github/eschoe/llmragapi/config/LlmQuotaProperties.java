@@ -0,0 +1,70 @@
+package io.github.eschoe.llmragapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 제공자/모델별 요청 할당량 설정 (app.llm.quota.*)
+ *
+ * limits 의 키는 "provider:model" 입니다. 응답의 rate limit 헤더로 실제 한도를 알게 되면 그 값이 우선합니다.
+ */
+@ConfigurationProperties(prefix = "app.llm.quota")
+public class LlmQuotaProperties {
+
+    private boolean enabled = true;
+    // limits 에 없는 모델의 기본 한도
+    private int defaultRpm = 500;
+    private int defaultTpm = 200_000;
+    private Map<String, Limit> limits = new LinkedHashMap<>();
+    // BULK 호출이 건드리지 않고 남겨두는 한도 비율 (INTERACTIVE 전용)
+    private double bulkReserve = 0.2;
+    // weighted fair queuing 가중치
+    private int interactiveWeight = 8;
+    private int bulkWeight = 1;
+    // 마감이 없는 호출이 대기열에서 기다리는 최대 시간
+    private Duration maxWait = Duration.ofMinutes(2);
+    // 우선순위별 대기열 길이 상한
+    private int maxQueue = 10_000;
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getDefaultRpm() { return defaultRpm; }
+    public void setDefaultRpm(int defaultRpm) { this.defaultRpm = defaultRpm; }
+
+    public int getDefaultTpm() { return defaultTpm; }
+    public void setDefaultTpm(int defaultTpm) { this.defaultTpm = defaultTpm; }
+
+    public Map<String, Limit> getLimits() { return limits; }
+    public void setLimits(Map<String, Limit> limits) { this.limits = limits; }
+
+    public double getBulkReserve() { return bulkReserve; }
+    public void setBulkReserve(double bulkReserve) { this.bulkReserve = bulkReserve; }
+
+    public int getInteractiveWeight() { return interactiveWeight; }
+    public void setInteractiveWeight(int interactiveWeight) { this.interactiveWeight = interactiveWeight; }
+
+    public int getBulkWeight() { return bulkWeight; }
+    public void setBulkWeight(int bulkWeight) { this.bulkWeight = bulkWeight; }
+
+    public Duration getMaxWait() { return maxWait; }
+    public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+
+    public int getMaxQueue() { return maxQueue; }
+    public void setMaxQueue(int maxQueue) { this.maxQueue = maxQueue; }
+
+    public static class Limit {
+        private int rpm;
+        private int tpm;
+
+        public int getRpm() { return rpm; }
+        public void setRpm(int rpm) { this.rpm = rpm; }
+
+        public int getTpm() { return tpm; }
+        public void setTpm(int tpm) { this.tpm = tpm; }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.eschoe.llmragapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 채팅 모델 라우팅 설정 (app.llm.routing.*)
+ *
+ * groups 의 각 그룹은 서로 바꿔 써도 되는 대상 목록입니다. (provider:model, 앞쪽이 우선)
+ */
+@ConfigurationProperties(prefix = "app.llm.routing")
+public class LlmRoutingProperties {
+
+    // false 면 그룹의 첫 번째 대상만 사용 (failover 없음)
+    private boolean enabled = true;
+    private String defaultGroup = "chat";
+    private Map<String, List<String>> groups = new LinkedHashMap<>(Map.of("chat", List.of("openai:gpt-4o-mini")));
+    // EWMA 가중치 (클수록 최근 호출을 크게 반영)
+    private double ewmaAlpha = 0.3;
+    // 오류율 EWMA 가 이 값을 넘으면 outage-cooldown 동안 후보에서 뒤로 뺌
+    private double unhealthyErrorRate = 0.5;
+    private Duration outageCooldown = Duration.ofSeconds(30);
+    // 429 를 받았을 때 (Retry-After 가 더 길면 그 값)
+    private Duration rateLimitCooldown = Duration.ofSeconds(15);
+    // 최선이 아닌 정상 대상에 보내는 요청 비율 (지연 측정값을 최신으로 유지)
+    private double exploreRatio = 0.05;
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDefaultGroup() { return defaultGroup; }
+    public void setDefaultGroup(String defaultGroup) { this.defaultGroup = defaultGroup; }
+
+    public Map<String, List<String>> getGroups() { return groups; }
+    public void setGroups(Map<String, List<String>> groups) { this.groups = groups; }
+
+    public double getEwmaAlpha() { return ewmaAlpha; }
+    public void setEwmaAlpha(double ewmaAlpha) { this.ewmaAlpha = ewmaAlpha; }
+
+    public double getUnhealthyErrorRate() { return unhealthyErrorRate; }
+    public void setUnhealthyErrorRate(double unhealthyErrorRate) { this.unhealthyErrorRate = unhealthyErrorRate; }
+
+    public Duration getOutageCooldown() { return outageCooldown; }
+    public void setOutageCooldown(Duration outageCooldown) { this.outageCooldown = outageCooldown; }
+
+    public Duration getRateLimitCooldown() { return rateLimitCooldown; }
+    public void setRateLimitCooldown(Duration rateLimitCooldown) { this.rateLimitCooldown = rateLimitCooldown; }
+
+    public double getExploreRatio() { return exploreRatio; }
+    public void setExploreRatio(double exploreRatio) { this.exploreRatio = exploreRatio; }
+}
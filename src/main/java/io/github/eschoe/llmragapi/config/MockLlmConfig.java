@@ -0,0 +1,24 @@
+package io.github.eschoe.llmragapi.config;
+
+import io.github.eschoe.llmragapi.mock.MockLlmServer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * mock-llm 프로필: 로컬 목 LLM 서버를 띄웁니다.
+ *
+ * application-mock-llm.yaml 이 app.llm.http.*.base-url 을 이 서버로 돌리므로 LlmContextClient 는 그대로 씁니다.
+ * (SPRING_PROFILES_ACTIVE=mock-llm)
+ */
+@Configuration
+@Profile("mock-llm")
+@EnableConfigurationProperties(MockLlmProperties.class)
+public class MockLlmConfig {
+
+    @Bean
+    public MockLlmServer mockLlmServer(MockLlmProperties properties) {
+        return new MockLlmServer(properties);
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.eschoe.llmragapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 로컬 목 LLM 제공자 설정 (app.mock-llm.*, mock-llm 프로필)
+ *
+ * 지연은 로그정규분포로 뽑습니다: median * exp(sigma * N(0,1)), max 에서 자름. sigma 0 이면 항상 median.
+ */
+@ConfigurationProperties(prefix = "app.mock-llm")
+public class MockLlmProperties {
+
+    private int port = 18080;
+    // 임베딩 차원 (text-embedding-3-small 과 같게)
+    private int embeddingDimensions = 1536;
+    // 응답 길이 (단어 수). 요청의 max_tokens 가 더 작으면 그 값
+    private int completionTokens = 120;
+    private Latency embeddingLatency = new Latency(Duration.ofMillis(80), 0.4, Duration.ofSeconds(5));
+    private Latency chatLatency = new Latency(Duration.ofMillis(600), 0.5, Duration.ofSeconds(30));
+    // 스트리밍 응답의 토큰 간격
+    private Duration tokenInterval = Duration.ofMillis(15);
+    // 오류 주입 비율 (0 ~ 1)
+    private double rate429 = 0.0;
+    private double rate5xx = 0.0;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    // 0 보다 크면 응답에 rate limit 한도 헤더를 붙임
+    private int rpm = 0;
+    private int tpm = 0;
+
+    // Getters and Setters
+    public int getPort() { return port; }
+    public void setPort(int port) { this.port = port; }
+
+    public int getEmbeddingDimensions() { return embeddingDimensions; }
+    public void setEmbeddingDimensions(int embeddingDimensions) { this.embeddingDimensions = embeddingDimensions; }
+
+    public int getCompletionTokens() { return completionTokens; }
+    public void setCompletionTokens(int completionTokens) { this.completionTokens = completionTokens; }
+
+    public Latency getEmbeddingLatency() { return embeddingLatency; }
+    public void setEmbeddingLatency(Latency embeddingLatency) { this.embeddingLatency = embeddingLatency; }
+
+    public Latency getChatLatency() { return chatLatency; }
+    public void setChatLatency(Latency chatLatency) { this.chatLatency = chatLatency; }
+
+    public Duration getTokenInterval() { return tokenInterval; }
+    public void setTokenInterval(Duration tokenInterval) { this.tokenInterval = tokenInterval; }
+
+    public double getRate429() { return rate429; }
+    public void setRate429(double rate429) { this.rate429 = rate429; }
+
+    public double getRate5xx() { return rate5xx; }
+    public void setRate5xx(double rate5xx) { this.rate5xx = rate5xx; }
+
+    public Duration getRetryAfter() { return retryAfter; }
+    public void setRetryAfter(Duration retryAfter) { this.retryAfter = retryAfter; }
+
+    public int getRpm() { return rpm; }
+    public void setRpm(int rpm) { this.rpm = rpm; }
+
+    public int getTpm() { return tpm; }
+    public void setTpm(int tpm) { this.tpm = tpm; }
+
+    public static class Latency {
+        private Duration median;
+        private double sigma;
+        private Duration max;
+
+        public Latency() {}
+
+        public Latency(Duration median, double sigma, Duration max) {
+            this.median = median;
+            this.sigma = sigma;
+            this.max = max;
+        }
+
+        public Duration getMedian() { return median; }
+        public void setMedian(Duration median) { this.median = median; }
+
+        public double getSigma() { return sigma; }
+        public void setSigma(double sigma) { this.sigma = sigma; }
+
+        public Duration getMax() { return max; }
+        public void setMax(Duration max) { this.max = max; }
+    }
+}
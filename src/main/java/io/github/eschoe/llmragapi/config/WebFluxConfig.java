@@ -32,6 +32,9 @@ public class WebFluxConfig {
     private String allowedHeaders;
     @Value("${app.cors.allowed-credentials:true}")
     private boolean allowedCredentials;
+    // 범용 WebClient 응답 타임아웃 (LLM 호출은 LlmHttpClientConfig 의 제공자별 설정을 씀)
+    @Value("${app.http.response-timeout:60s}")
+    private Duration responseTimeout;
 
     @Bean
     public WebFluxConfigurer webFluxConfigurer() {
@@ -86,6 +89,12 @@ public class WebFluxConfig {
         corsConfig.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
         corsConfig.setAllowedHeaders(Arrays.asList(allowedHeaders.split(",")));
         corsConfig.addExposedHeader("X-Session-ID");
+        // 브라우저 클라이언트가 남은 한도를 읽을 수 있도록
+        corsConfig.addExposedHeader("RateLimit-Limit");
+        corsConfig.addExposedHeader("RateLimit-Remaining");
+        corsConfig.addExposedHeader("RateLimit-Reset");
+        corsConfig.addExposedHeader("RateLimit-Policy");
+        corsConfig.addExposedHeader("Retry-After");
         corsConfig.setMaxAge(3600L);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -99,7 +108,7 @@ public class WebFluxConfig {
     public WebClient webClient(WebClient.Builder builder) {
         return builder
                 .clientConnector(new ReactorClientHttpConnector(HttpClient.create()
-                        .responseTimeout(Duration.ofSeconds(8000))
+                        .responseTimeout(responseTimeout)
                         .followRedirect(true)
                 ))
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10*1024*1024))
@@ -0,0 +1,189 @@
+package io.github.eschoe.llmragapi.dao;
+
+import io.github.eschoe.llmragapi.entity.DocumentRow;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public class DocumentDao {
+
+    private static final String COLUMNS =
+            "id, title, version, owner_id, description, category, total_chunks, created_at, updated_at";
+
+    private final DatabaseClient dbClient;
+
+    public DocumentDao(DatabaseClient dbClient) {
+        this.dbClient = dbClient;
+    }
+
+    public Mono<DocumentRow> findById(String id) {
+        String sql = "SELECT " + COLUMNS + " FROM chatbot.documents WHERE id = :id";
+
+        return dbClient.sql(sql)
+                .bind("id", id)
+                .map((row, meta) -> toRow(row))
+                .one();
+    }
+
+    /**
+     * 소유자의 문서만 조회합니다. 다른 세션의 문서면 empty
+     */
+    public Mono<DocumentRow> findByIdAndOwner(String id, String ownerId) {
+        String sql = "SELECT " + COLUMNS + " FROM chatbot.documents WHERE id = :id AND owner_id = :ownerId";
+
+        return dbClient.sql(sql)
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .map((row, meta) -> toRow(row))
+                .one();
+    }
+
+    /**
+     * 소유자의 문서를 최근 수정 순으로 한 페이지 조회합니다. (owner_id, updated_at DESC) 인덱스를 사용합니다.
+     *
+     * @param category null 이거나 비어 있으면 모든 카테고리
+     */
+    public Flux<DocumentRow> findByOwner(String ownerId, String category, int limit, long offset) {
+        boolean filtered = category != null && !category.isBlank();
+        String sql = "SELECT " + COLUMNS + " FROM chatbot.documents WHERE owner_id = :ownerId"
+                + (filtered ? " AND category = :category" : "")
+                + " ORDER BY updated_at DESC, id LIMIT :limit OFFSET :offset";
+
+        DatabaseClient.GenericExecuteSpec spec = dbClient.sql(sql)
+                .bind("ownerId", ownerId)
+                .bind("limit", limit)
+                .bind("offset", offset);
+        if (filtered) {
+            spec = spec.bind("category", category);
+        }
+
+        return spec.map((row, meta) -> toRow(row)).all();
+    }
+
+    public Mono<Long> countByOwner(String ownerId, String category) {
+        boolean filtered = category != null && !category.isBlank();
+        String sql = "SELECT COUNT(*) AS total FROM chatbot.documents WHERE owner_id = :ownerId"
+                + (filtered ? " AND category = :category" : "");
+
+        DatabaseClient.GenericExecuteSpec spec = dbClient.sql(sql).bind("ownerId", ownerId);
+        if (filtered) {
+            spec = spec.bind("category", category);
+        }
+
+        return spec.map((row, meta) -> row.get("total", Long.class)).one();
+    }
+
+    public Mono<DocumentRow> insert(DocumentRow row) {
+        String sql = """
+                INSERT INTO chatbot.documents
+                    (id, title, version, owner_id, description, category, total_chunks, created_at, updated_at)
+                VALUES (:id, :title, :version, :ownerId, :description, :category, :totalChunks, :createdAt, :updatedAt)
+                """;
+
+        DatabaseClient.GenericExecuteSpec spec = dbClient.sql(sql)
+                .bind("id", row.getId())
+                .bind("version", row.getVersion())
+                .bind("totalChunks", row.getTotalChunks() != null ? row.getTotalChunks() : 0)
+                .bind("createdAt", row.getCreatedAt())
+                .bind("updatedAt", row.getUpdatedAt());
+        spec = bindNullable(spec, "title", row.getTitle());
+        spec = bindNullable(spec, "ownerId", row.getOwnerId());
+        spec = bindNullable(spec, "description", row.getDescription());
+        spec = bindNullable(spec, "category", row.getCategory());
+
+        return spec
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(row);
+    }
+
+    /**
+     * 최초 업로드가 끝난 뒤 청크 수를 기록합니다.
+     */
+    public Mono<Long> updateTotalChunks(String id, int totalChunks) {
+        String sql = """
+                UPDATE chatbot.documents
+                SET total_chunks = :totalChunks, updated_at = :updatedAt
+                WHERE id = :id
+                """;
+
+        return dbClient.sql(sql)
+                .bind("id", id)
+                .bind("totalChunks", totalChunks)
+                .bind("updatedAt", OffsetDateTime.now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * 버전이 expectedVersion 일 때만 제목과 청크 수를 갱신하고 버전을 올립니다. (낙관적 잠금)
+     * 트랜잭션 안에서 먼저 실행하면 커밋할 때까지 문서 행이 잠겨 같은 문서의 다른 재색인이 기다립니다.
+     *
+     * @return 올라간 버전 (문서가 없거나 그 사이 다른 요청이 버전을 올렸으면 empty)
+     */
+    public Mono<Integer> bumpVersion(String id, int expectedVersion, String title, int totalChunks) {
+        String sql = """
+                UPDATE chatbot.documents
+                SET title = :title, total_chunks = :totalChunks, version = version + 1, updated_at = :updatedAt
+                WHERE id = :id AND version = :expectedVersion
+                RETURNING version
+                """;
+
+        return dbClient.sql(sql)
+                .bind("id", id)
+                .bind("expectedVersion", expectedVersion)
+                .bind("title", title)
+                .bind("totalChunks", totalChunks)
+                .bind("updatedAt", OffsetDateTime.now())
+                .map((row, meta) -> row.get("version", Integer.class))
+                .one();
+    }
+
+    /**
+     * 문서를 삭제합니다. 청크(chatbot.embeddings)는 FK 의 ON DELETE CASCADE 로 함께 삭제됩니다.
+     */
+    public Mono<Long> delete(String id) {
+        return dbClient.sql("DELETE FROM chatbot.documents WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * 소유자의 문서만 삭제합니다.
+     *
+     * @return 삭제된 행 수 (없거나 다른 세션의 문서면 0)
+     */
+    public Mono<Long> deleteByOwner(String id, String ownerId) {
+        return dbClient.sql("DELETE FROM chatbot.documents WHERE id = :id AND owner_id = :ownerId")
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DocumentRow toRow(Row row) {
+        DocumentRow r = new DocumentRow();
+        r.setId(row.get("id", String.class));
+        r.setTitle(row.get("title", String.class));
+        r.setVersion(row.get("version", Integer.class));
+        r.setOwnerId(row.get("owner_id", String.class));
+        r.setDescription(row.get("description", String.class));
+        r.setCategory(row.get("category", String.class));
+        r.setTotalChunks(row.get("total_chunks", Integer.class));
+        r.setCreatedAt(row.get("created_at", OffsetDateTime.class));
+        r.setUpdatedAt(row.get("updated_at", OffsetDateTime.class));
+        return r;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+
+}
@@ -1,6 +1,7 @@
 package io.github.eschoe.llmragapi.dao;
 
 import io.github.eschoe.llmragapi.entity.EmbeddingRow;
+import io.github.eschoe.llmragapi.util.SnowflakeIdGenerator;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -8,14 +9,18 @@ import reactor.core.publisher.Mono;
 
 import java.sql.Types;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
 
 @Repository
 public class EmbeddingQueryDao {
 
     private final DatabaseClient dbClient;
+    private final SnowflakeIdGenerator idGenerator;
 
-    public EmbeddingQueryDao(DatabaseClient dbClient) {
+    public EmbeddingQueryDao(DatabaseClient dbClient, SnowflakeIdGenerator idGenerator) {
         this.dbClient = dbClient;
+        this.idGenerator = idGenerator;
     }
 
     public Flux<EmbeddingRow> topKByCosine(float[] q, int k) {
@@ -43,23 +48,122 @@ public class EmbeddingQueryDao {
 
     }
 
+    /**
+     * 임베딩 행을 저장합니다. id 가 비어 있으면 {@link SnowflakeIdGenerator} 로 발급합니다.
+     */
     public Mono<EmbeddingRow> save(EmbeddingRow row) {
+        if (row.getId() == null) {
+            row.setId(idGenerator.nextId());
+        }
+
         String sql = """
-                INSERT INTO chatbot.embeddings (id, title, content, embedding, created_at)
-                VALUES (:id, :title, :content, :embedding::vector, :createdAt)
+                INSERT INTO chatbot.embeddings (id, title, content, embedding, created_at, document_id, chunk_index, start_offset, end_offset, content_hash)
+                VALUES (:id, :title, :content, :embedding::vector, :createdAt, :documentId, :chunkIndex, :startOffset, :endOffset, :contentHash)
                 """;
 
-        return dbClient.sql(sql)
+        DatabaseClient.GenericExecuteSpec spec = dbClient.sql(sql)
                 .bind("id", row.getId())
                 .bind("title", row.getTitle())
                 .bind("content", row.getContent())
                 .bind("embedding", row.getEmbedding())
-                .bind("createdAt", row.getCreatedAt())
+                .bind("createdAt", row.getCreatedAt());
+        spec = bindNullable(spec, "documentId", row.getDocumentId(), String.class);
+        spec = bindNullable(spec, "chunkIndex", row.getChunkIndex(), Integer.class);
+        spec = bindNullable(spec, "startOffset", row.getStartOffset(), Long.class);
+        spec = bindNullable(spec, "endOffset", row.getEndOffset(), Long.class);
+        spec = bindNullable(spec, "contentHash", row.getContentHash(), String.class);
+
+        return spec
                 .fetch()
                 .rowsUpdated()
                 .thenReturn(row);
     }
 
+    /**
+     * 내용 해시로 이미 저장된 임베딩을 한 번에 조회합니다.
+     * 같은 해시의 행이 여러 개면 아무 행 하나의 벡터를 사용합니다. (같은 모델, 같은 내용이면 벡터도 같음)
+     *
+     * @return content_hash -> embedding
+     */
+    public Mono<Map<String, Float[]>> findEmbeddingsByHashes(Collection<String> hashes) {
+        if (hashes.isEmpty()) return Mono.just(Map.of());
+
+        String sql = """
+                SELECT DISTINCT ON (content_hash) content_hash, embedding::real[] AS embedding
+                FROM chatbot.embeddings
+                WHERE content_hash = ANY(:hashes)
+                """;
+
+        return dbClient.sql(sql)
+                .bind("hashes", hashes.toArray(new String[0]))
+                .map((row, meta) -> Map.entry(
+                        row.get("content_hash", String.class),
+                        row.get("embedding", Float[].class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * 문서에 속한 청크들의 식별/위치 정보만 조회합니다. 본문과 벡터는 읽지 않습니다.
+     */
+    public Flux<EmbeddingRow> findChunkKeysByDocument(String documentId) {
+        String sql = """
+                SELECT id, title, content_hash, chunk_index, start_offset, end_offset
+                FROM chatbot.embeddings
+                WHERE document_id = :documentId
+                ORDER BY chunk_index
+                """;
+
+        return dbClient.sql(sql)
+                .bind("documentId", documentId)
+                .map((row, meta) -> {
+                    EmbeddingRow r = new EmbeddingRow();
+                    r.setId(row.get("id", Long.class));
+                    r.setDocumentId(documentId);
+                    r.setTitle(row.get("title", String.class));
+                    r.setContentHash(row.get("content_hash", String.class));
+                    r.setChunkIndex(row.get("chunk_index", Integer.class));
+                    r.setStartOffset(row.get("start_offset", Long.class));
+                    r.setEndOffset(row.get("end_offset", Long.class));
+                    return r;
+                })
+                .all();
+    }
+
+    /**
+     * 내용은 그대로이고 문서 안에서의 위치만 바뀐 청크를 갱신합니다.
+     */
+    public Mono<Long> updateChunkPosition(EmbeddingRow row) {
+        String sql = """
+                UPDATE chatbot.embeddings
+                SET title = :title, chunk_index = :chunkIndex, start_offset = :startOffset, end_offset = :endOffset
+                WHERE id = :id
+                """;
+
+        return dbClient.sql(sql)
+                .bind("id", row.getId())
+                .bind("title", row.getTitle())
+                .bind("chunkIndex", row.getChunkIndex())
+                .bind("startOffset", row.getStartOffset())
+                .bind("endOffset", row.getEndOffset())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return Mono.just(0L);
+
+        return dbClient.sql("DELETE FROM chatbot.embeddings WHERE id = ANY(:ids)")
+                .bind("ids", ids.toArray(new Long[0]))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                      String name, T value, Class<T> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
     public Mono<Long> deleteByTitle(String titlePattern) {
         String sql = "DELETE FROM chatbot.embeddings WHERE title LIKE :titlePattern";
         
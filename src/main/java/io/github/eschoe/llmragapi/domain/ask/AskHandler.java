@@ -1,15 +1,18 @@
 package io.github.eschoe.llmragapi.domain.ask;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.client.LlmDeadline;
 import io.github.eschoe.llmragapi.global.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 
 @Component
@@ -17,6 +20,10 @@ public class AskHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(AskHandler.class);
 
+    // 요청 하나가 LLM 호출(임베딩 + 채팅, 재시도 포함)에 쓸 수 있는 전체 시간
+    @Value("${app.llm.resilience.request-deadline:30s}")
+    private Duration requestDeadline;
+
     private final AskService askService;
     private final ObjectMapper objectMapper;
 
@@ -65,6 +72,7 @@ public class AskHandler {
                                 );
                     }
                 })
+                .contextWrite(LlmDeadline.within(requestDeadline))
                 .onErrorResume(e -> {
                     return ServerResponse.badRequest()
                             .contentType(MediaType.APPLICATION_JSON)
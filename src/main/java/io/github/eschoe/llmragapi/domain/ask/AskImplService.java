@@ -1,9 +1,16 @@
 package io.github.eschoe.llmragapi.domain.ask;
 
+import io.github.eschoe.llmragapi.client.GenerationOptions;
 import io.github.eschoe.llmragapi.client.LlmContextClient;
-import io.github.eschoe.llmragapi.domain.history.ChatHistoryStore;
+import io.github.eschoe.llmragapi.client.LlmReply;
+import io.github.eschoe.llmragapi.client.LlmRouter;
+import io.github.eschoe.llmragapi.client.LlmTarget;
+import io.github.eschoe.llmragapi.domain.history.ConversationMemory;
+import io.github.eschoe.llmragapi.domain.history.HistoryMessage;
 import io.github.eschoe.llmragapi.domain.llm.LlmCacheService;
 import io.github.eschoe.llmragapi.domain.llm.LlmConstants;
+import io.github.eschoe.llmragapi.domain.llm.PromptBudget;
+import io.github.eschoe.llmragapi.domain.llm.PromptBudgeter;
 import io.github.eschoe.llmragapi.util.HashUtil;
 import io.github.eschoe.llmragapi.util.LlmRagUtil;
 import org.springframework.stereotype.Service;
@@ -14,7 +21,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class AskImplService implements AskService {
@@ -23,14 +30,18 @@ public class AskImplService implements AskService {
     private final HashUtil hash;
     private final LlmRagUtil llmRagUtil;
     private final LlmContextClient llmContextClient;
-    private final ChatHistoryStore chatHistoryStore;
+    private final ConversationMemory conversationMemory;
+    private final LlmRouter llmRouter;
+    private final PromptBudgeter promptBudgeter;
 
-    public AskImplService(LlmCacheService cache, HashUtil hash, LlmRagUtil llmRagUtil, LlmContextClient llmContextClient, ChatHistoryStore chatHistoryStore) {
+    public AskImplService(LlmCacheService cache, HashUtil hash, LlmRagUtil llmRagUtil, LlmContextClient llmContextClient, ConversationMemory conversationMemory, LlmRouter llmRouter, PromptBudgeter promptBudgeter) {
         this.cache = cache;
         this.hash = hash;
         this.llmRagUtil = llmRagUtil;
         this.llmContextClient = llmContextClient;
-        this.chatHistoryStore = chatHistoryStore;
+        this.conversationMemory = conversationMemory;
+        this.llmRouter = llmRouter;
+        this.promptBudgeter = promptBudgeter;
     }
 
     @Override
@@ -44,7 +55,21 @@ public class AskImplService implements AskService {
 
         if (llmQuery.isBlank()) return Mono.error(new IllegalArgumentException("query is required"));
 
-        return llmContextClient.chat(llmProvider, llmModel, systemPrompt, llmQuery);
+        // 제공자/모델을 지정했으면 그대로, 아니면 라우터가 고름
+        boolean explicit = StringUtils.hasText(ask.provider()) || StringUtils.hasText(ask.model());
+        String routeGroup = llmRouter.defaultGroup();
+        GenerationOptions options;
+        try {
+            options = promptBudgeter.begin(explicit ? List.of(llmModel) : llmRouter.models(routeGroup),
+                    null, null, systemPrompt, llmQuery).options();
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        if (explicit) {
+            return llmContextClient.chat(llmProvider, llmModel, systemPrompt, llmQuery, options);
+        }
+        return llmRouter.chat(routeGroup, systemPrompt, llmQuery, options).map(LlmReply::text);
 
     }
 
@@ -54,8 +79,9 @@ public class AskImplService implements AskService {
         Instant startTime = Instant.now();
 
         String llmQuery = llmRagUtil.opt(ask.getQuery());
-        String llmProvider = LlmConstants.DEFAULT_PROVIDER; // 기본값 사용
-        String llmModel = llmRagUtil.chooseModel(llmProvider, null); // 기본 모델 사용
+        // 모델은 라우터가 그룹 안에서 지연/오류율을 보고 고름. 실제로 응답한 대상은 served 에 남김
+        String routeGroup = llmRouter.defaultGroup();
+        AtomicReference<LlmTarget> served = new AtomicReference<>();
         String systemPrompt = LlmConstants.SYSTEM_PROMPT;
 
         if(llmQuery.isBlank()) return Mono.error(new IllegalArgumentException("query is required"));
@@ -64,25 +90,31 @@ public class AskImplService implements AskService {
         String sessionId = ask.getSessionId() != null ? ask.getSessionId() : "default-session";
         System.out.println("[AskImplService] Session ID: " + sessionId);
 
-        // 이전 대화 히스토리 가져오기 (최근 10개) - 타임아웃 5초
-        return chatHistoryStore.recent(sessionId, 10)
-                .collectList()
+        // 입력 토큰 예산: 그룹에서 가장 작은 컨텍스트 창 - maxTokens. 질문만으로 넘치면 거절
+        PromptBudget budget;
+        try {
+            budget = promptBudgeter.begin(llmRouter.models(routeGroup),
+                    ask.getConfig() != null ? ask.getConfig().getMaxTokens() : null,
+                    ask.getConfig() != null ? ask.getConfig().getTemperature() : null,
+                    systemPrompt, llmQuery, "\n\nPREVIOUS CONVERSATION:\n");
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        GenerationOptions options = budget.options();
+
+        // 이전 대화 맥락 (요약 + 토큰 예산 안의 최근 메시지) - 타임아웃 5초. 검색 컨텍스트가 없으므로 남은 예산 전부
+        int historyAllowance = budget.remaining();
+        return conversationMemory.buildContext(sessionId, Mono.empty(), historyAllowance)
                 .timeout(Duration.ofSeconds(5))
-                .onErrorReturn(List.of())  // 타임아웃 시 빈 리스트 반환
-                .flatMap(historyMessages -> {
-                    
-                    System.out.println("[AskImplService] History messages count: " + historyMessages.size());
-                    if (!historyMessages.isEmpty()) {
-                        System.out.println("[AskImplService] History: " + historyMessages);
-                    }
+                .onErrorReturn("")  // 타임아웃 시 맥락 없이 진행
+                .flatMap(rawHistory -> {
+
+                    String history = budget.addHistory(rawHistory, historyAllowance);
+                    System.out.println("[AskImplService] History context length: " + history.length()
+                            + ", prompt tokens: " + budget.used() + "/" + budget.limit() + ", max_tokens: " + options.maxTokens());
                     
                     // 대화 히스토리를 프롬프트에 포함
-                    String conversationContext = "";
-                    if (!historyMessages.isEmpty()) {
-                        conversationContext = "\n\nPREVIOUS CONVERSATION:\n" + 
-                            historyMessages.stream()
-                                .collect(Collectors.joining("\n"));
-                    }
+                    String conversationContext = history.isEmpty() ? "" : "\n\nPREVIOUS CONVERSATION:\n" + history;
 
                     String userPrompt = llmQuery + conversationContext;
 
@@ -99,36 +131,40 @@ public class AskImplService implements AskService {
                             () -> Mono.just(toPromptJson(systemPrompt, userPrompt))
                     );
 
-                    // 응답 캐시 + 분산락 : 모델 / 버전 / 프롬프트 기반 입력 해시
-                    String inputHash = hash.sha256(llmModel, llmProvider, ctxVersion, systemPrompt, userPrompt);
+                    // 응답 캐시 + 분산락 : 라우팅 그룹 / 버전 / 생성 파라미터 / 프롬프트 기반 입력 해시 (그룹 안의 모델은 서로 바꿔 쓸 수 있음)
+                    String inputHash = hash.sha256(routeGroup, ctxVersion, options.cacheKey(), systemPrompt, userPrompt);
 
                     Mono<String> answerMono = cache.getOrInvoke(
-                            llmModel,
+                            routeGroup,
                             inputHash,
-                            () -> llmContextClient.chat(llmProvider, llmModel, systemPrompt, userPrompt)
+                            () -> llmRouter.chat(routeGroup, systemPrompt, userPrompt, options)
+                                    .doOnNext(r -> served.set(r.target()))
+                                    .map(LlmReply::text)
                     );
 
                     return promptMono
                             .then(answerMono)
                             .flatMap(response -> {
-                                // 대화 히스토리에 저장 (질문과 답변을 JSON 형태로)
-                                String questionJson = String.format("{\"role\":\"user\",\"content\":\"%s\",\"timestamp\":\"%s\"}", 
-                                        llmQuery.replace("\"", "\\\""), Instant.now());
-                                String answerJson = String.format("{\"role\":\"assistant\",\"content\":\"%s\",\"timestamp\":\"%s\"}", 
-                                        response.replace("\"", "\\\""), Instant.now());
+                                // 대화 히스토리에 저장
+                                HistoryMessage question = HistoryMessage.user(llmQuery);
+                                HistoryMessage reply = HistoryMessage.assistant(response);
                                 
                                 System.out.println("[AskImplService] Saving to history - Session: " + sessionId);
-                                System.out.println("[AskImplService] Question: " + questionJson);
-                                System.out.println("[AskImplService] Answer: " + answerJson);
                                 
-                                return chatHistoryStore.append(sessionId, questionJson)
-                                        .then(chatHistoryStore.append(sessionId, answerJson))
-                                        .thenReturn(new AskResponse(response, llmModel, 0, Map.of(
+                                // 히스토리 저장과 요약 갱신은 응답을 기다리지 않고 백그라운드에서 처리
+                                conversationMemory.recordTurn(sessionId, question, reply);
+
+                                // 캐시에서 온 응답이면 served 가 비어 있음
+                                LlmTarget target = served.get();
+
+                                return Mono.just(new AskResponse(response, target != null ? target.model() : routeGroup, 0, Map.of(
                                                 "processingTime", Duration.between(startTime, Instant.now()).toMillis(),
                                                 "config", ask.getConfig(),
                                                 "timestamp", Instant.now(),
-                                                "provider", llmProvider,
-                                                "sessionId", sessionId
+                                                "provider", target != null ? target.provider() : "cache",
+                                                "route", routeGroup,
+                                                "sessionId", sessionId,
+                                                "promptTokens", budget.used()
                                         )));
                             });
                 }).onErrorResume(error -> {
@@ -1,23 +1,31 @@
 package io.github.eschoe.llmragapi.domain.chat;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.client.LlmDeadline;
 import io.github.eschoe.llmragapi.domain.rag.RAGConfig;
 import io.github.eschoe.llmragapi.global.DetailedErrorResponse;
 import io.github.eschoe.llmragapi.service.RateLimitingService;
 import io.github.eschoe.llmragapi.util.SessionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Component
 public class ChatHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatHandler.class);
 
+    // 요청 하나가 LLM 호출(임베딩 + 채팅, 재시도 포함)에 쓸 수 있는 전체 시간
+    @Value("${app.llm.resilience.request-deadline:30s}")
+    private Duration requestDeadline;
+
     private final ChatService chatService;
     private final ObjectMapper objectMapper;
     private final SessionUtil sessionUtil;
@@ -42,24 +50,24 @@ public class ChatHandler {
                 .flatMap(body -> {
                     final String sessionId = sessionUtil.extractSessionId(req);
                     
-                    // Rate Limiting 체크
-                    return rateLimitingService.isAllowed(sessionId)
-                            .flatMap(allowed -> {
-                                if (!allowed) {
-                                    return rateLimitingService.getRemainingRequests(sessionId)
-                                            .flatMap(remaining -> rateLimitingService.getResetTime(sessionId)
-                                                    .map(resetTime -> new DetailedErrorResponse(
-                                                            "RATE_LIMIT_EXCEEDED",
-                                                            "요청 한도를 초과했습니다.",
-                                                            String.format("남은 요청: %d개, 재설정 시간: %d", remaining, resetTime),
-                                                            sessionId
-                                                    )))
-                                            .flatMap(errorResponse -> ServerResponse.status(429)
-                                                    .contentType(MediaType.APPLICATION_JSON)
-                                                    .bodyValue(errorResponse));
+                    // Rate Limiting 체크 (판정과 남은 한도를 한 번의 왕복으로 받음)
+                    return rateLimitingService.check(sessionId)
+                            .flatMap(decision -> {
+                                // 모든 응답(성공/오류)에 RateLimit-* 헤더가 붙도록 교환 객체에 미리 설정
+                                decision.addTo(req.exchange().getResponse().getHeaders());
+                                if (!decision.allowed()) {
+                                    return ServerResponse.status(429)
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .bodyValue(new DetailedErrorResponse(
+                                                    "RATE_LIMIT_EXCEEDED",
+                                                    "요청 한도를 초과했습니다.",
+                                                    String.format("남은 요청: %d개, 재설정까지 %d초", decision.remaining(), decision.resetSeconds()),
+                                                    sessionId
+                                            ));
                                 }
                                 
-                                return processChatRequest(body, sessionId);
+                                return processChatRequest(body, sessionId)
+                                        .contextWrite(LlmDeadline.within(requestDeadline));
                             });
                 })
                 .onErrorResume(e -> handleError(e, "unknown"));
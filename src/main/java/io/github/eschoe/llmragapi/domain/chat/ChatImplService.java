@@ -1,10 +1,17 @@
 package io.github.eschoe.llmragapi.domain.chat;
 
+import io.github.eschoe.llmragapi.client.GenerationOptions;
 import io.github.eschoe.llmragapi.client.LlmContextClient;
+import io.github.eschoe.llmragapi.client.LlmReply;
+import io.github.eschoe.llmragapi.client.LlmRouter;
+import io.github.eschoe.llmragapi.client.LlmTarget;
 import io.github.eschoe.llmragapi.dao.EmbeddingQueryDao;
-import io.github.eschoe.llmragapi.domain.history.ChatHistoryStore;
+import io.github.eschoe.llmragapi.domain.history.ConversationMemory;
+import io.github.eschoe.llmragapi.domain.history.HistoryMessage;
 import io.github.eschoe.llmragapi.domain.llm.LlmCacheService;
 import io.github.eschoe.llmragapi.domain.llm.LlmConstants;
+import io.github.eschoe.llmragapi.domain.llm.PromptBudget;
+import io.github.eschoe.llmragapi.domain.llm.PromptBudgeter;
 import io.github.eschoe.llmragapi.domain.search.SearchResult;
 import io.github.eschoe.llmragapi.util.HashUtil;
 import io.github.eschoe.llmragapi.util.LlmRagUtil;
@@ -17,6 +24,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,15 +38,19 @@ public class ChatImplService implements ChatService {
     private final LlmRagUtil llmRagUtil;
     private final LlmContextClient llmContextClient;
     private final EmbeddingQueryDao embeddingQueryDao;
-    private final ChatHistoryStore chatHistoryStore;
+    private final ConversationMemory conversationMemory;
+    private final LlmRouter llmRouter;
+    private final PromptBudgeter promptBudgeter;
 
-    public ChatImplService(LlmCacheService cache, HashUtil hash, LlmRagUtil llmRagUtil, LlmContextClient llmContextClient, EmbeddingQueryDao embeddingQueryDao, ChatHistoryStore chatHistoryStore) {
+    public ChatImplService(LlmCacheService cache, HashUtil hash, LlmRagUtil llmRagUtil, LlmContextClient llmContextClient, EmbeddingQueryDao embeddingQueryDao, ConversationMemory conversationMemory, LlmRouter llmRouter, PromptBudgeter promptBudgeter) {
         this.cache = cache;
         this.hash = hash;
         this.llmRagUtil = llmRagUtil;
         this.llmContextClient = llmContextClient;
         this.embeddingQueryDao = embeddingQueryDao;
-        this.chatHistoryStore = chatHistoryStore;
+        this.conversationMemory = conversationMemory;
+        this.llmRouter = llmRouter;
+        this.promptBudgeter = promptBudgeter;
     }
 
     // 기존 메서드 (그대로 유지)
@@ -52,6 +64,21 @@ public class ChatImplService implements ChatService {
 
         if (llmQuery.isBlank()) return Mono.error(new IllegalArgumentException("query is required"));
 
+        // 제공자/모델을 지정했으면 그대로, 아니면 라우터가 고름
+        boolean explicit = StringUtils.hasText(chatBody.provider()) || StringUtils.hasText(chatBody.model());
+        String routeGroup = llmRouter.defaultGroup();
+        String systemPrompt = LlmConstants.SYSTEM_PROMPT;
+        String questionPrompt = "QUESTION:\n" + llmQuery + "\n\nCONTEXT:\n";
+
+        // 질문이 너무 길면 임베딩을 요청하기 전에 거절
+        PromptBudget budget;
+        try {
+            budget = promptBudgeter.begin(explicit ? List.of(llmModel) : llmRouter.models(routeGroup),
+                    null, null, systemPrompt, questionPrompt);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
         Mono<float[]> embedMono = (chatBody.embedding() != null && chatBody.embedding().length > 0)
                 ? Mono.just(chatBody.embedding())
                 : llmContextClient.embed(embeddingModel, llmQuery);
@@ -60,14 +87,16 @@ public class ChatImplService implements ChatService {
                 .flatMapMany(embed -> embeddingQueryDao.topKByCosine(embed, k))
                 .collectList()
                 .flatMap(embedRow -> {
-                    String _context = embedRow.stream()
+                    String _context = String.join("\n", budget.addContext(embedRow.stream()
                             .map(row -> "- " + llmRagUtil.safeSnippet(row.getContent()))
-                            .collect(Collectors.joining("\n"));
+                            .toList()));
 
-                    String systemPrompt = LlmConstants.SYSTEM_PROMPT;
-                    String userPrompt = "QUESTION:\n" + llmQuery + "\n\nCONTEXT:\n" + _context;
+                    String userPrompt = questionPrompt + _context;
 
-                    return llmContextClient.chat(llmProvider, llmModel, systemPrompt, userPrompt);
+                    if (explicit) {
+                        return llmContextClient.chat(llmProvider, llmModel, systemPrompt, userPrompt, budget.options());
+                    }
+                    return llmRouter.chat(routeGroup, systemPrompt, userPrompt, budget.options()).map(LlmReply::text);
                 });
     }
 
@@ -155,8 +184,9 @@ public class ChatImplService implements ChatService {
         String llmQuery = LlmRagUtil.opt(request.getQuery());
         if(llmQuery.isBlank()) return Mono.error(new IllegalArgumentException("query is required"));
 
-        String llmProvider = LlmConstants.DEFAULT_PROVIDER;
-        String llmModel = LlmRagUtil.chooseModel(llmProvider, null);
+        // 모델은 라우터가 그룹 안에서 지연/오류율을 보고 고름. 실제로 응답한 대상은 served 에 남김
+        String routeGroup = llmRouter.defaultGroup();
+        AtomicReference<LlmTarget> served = new AtomicReference<>();
 
         int k = (request.getConfig() != null && request.getConfig().getTopK() > 0)
                 ? request.getConfig().getTopK() : 5;
@@ -170,6 +200,23 @@ public class ChatImplService implements ChatService {
         // 세션 ID 처리 (없으면 기본값 사용)
         String sessionId = request.getSessionId() != null ? request.getSessionId() : "default-session";
 
+        // 입력 토큰 예산: 그룹에서 가장 작은 컨텍스트 창 - maxTokens. 질문만으로 넘치면 임베딩 전에 거절
+        String systemPrompt = LlmConstants.SYSTEM_PROMPT;
+        String questionPrompt = ChatPrompt.question(llmQuery);
+        PromptBudget budget;
+        try {
+            budget = promptBudgeter.begin(llmRouter.models(routeGroup),
+                    request.getConfig() != null ? request.getConfig().getMaxTokens() : null,
+                    request.getConfig() != null ? request.getConfig().getTemperature() : null,
+                    systemPrompt, questionPrompt, ChatPrompt.HISTORY_HEADER);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        GenerationOptions options = budget.options();
+
+        // 질문 임베딩은 문서 검색과 과거 대화 검색에서 함께 쓰므로 한 번만 요청
+        Mono<float[]> queryEmbedding = llmContextClient.embed(embeddingModel, llmQuery).cache();
+
         // ---- 검색 결과 준비 (있으면 사용, 없으면 임베딩→TopK) ----
         Mono<List<SearchResult>> searchResultsMono;
 
@@ -177,7 +224,7 @@ public class ChatImplService implements ChatService {
             searchResultsMono = Mono.just(request.getSearchResults());
         } else {
 
-            searchResultsMono = llmContextClient.embed(embeddingModel, llmQuery)
+            searchResultsMono = queryEmbedding
                     .flatMapMany(embed -> embeddingQueryDao.topKByCosine(embed, k))
                     .collectList()
                     .map(rows -> {
@@ -214,30 +261,15 @@ public class ChatImplService implements ChatService {
                      searchResults.get(0).getContent()));
             }
 
-            String contextBlock = searchResults.isEmpty()
-                    ? "- (관련 컨텍스트를 찾지 못했습니다. 일반 지식으로만 답변하세요.)"
-                    : searchResults.stream()
-                    .map(r -> String.format("- %s (점수: %.3f)",
-                            llmRagUtil.safeSnippet(r.getContent()), r.getScore()))
-                    .collect(Collectors.joining("\n"));
-
-            // 이전 대화 히스토리 가져오기 (최근 10개) - 타임아웃 5초
-            return chatHistoryStore.recent(sessionId, 10)
-                    .collectList()
+            // 이전 대화 맥락 (요약 + 토큰 예산 안의 최근 메시지 + 질문과 관련된 과거 턴) - 타임아웃 5초
+            // 대화 맥락은 남은 예산의 절반까지, 검색 컨텍스트는 그 나머지 (점수 낮은 것부터 빠짐)
+            int historyAllowance = budget.historyAllowance();
+            return conversationMemory.buildContext(sessionId, queryEmbedding, historyAllowance)
                     .timeout(Duration.ofSeconds(5))
-                    .onErrorReturn(List.of())  // 타임아웃 시 빈 리스트 반환
-                    .flatMap(historyMessages -> {
-                        
-                        // 대화 히스토리를 프롬프트에 포함
-                        String conversationContext = "";
-                        if (!historyMessages.isEmpty()) {
-                            conversationContext = "\n\nPREVIOUS CONVERSATION:\n" + 
-                                historyMessages.stream()
-                                    .collect(Collectors.joining("\n"));
-                        }
+                    .onErrorReturn("")  // 타임아웃 시 맥락 없이 진행
+                    .flatMap(rawHistory -> {
 
-                        String systemPrompt = LlmConstants.SYSTEM_PROMPT;
-                        String userPrompt = "QUESTION:\n" + llmQuery + "\n\nCONTEXT:\n" + contextBlock + conversationContext;
+                        String userPrompt = ChatPrompt.assemble(budget, questionPrompt, rawHistory, historyAllowance, searchResults);
 
                         // 디버그 로그
                         System.out.println("[ChatImplService] Search results count: " + searchResults.size());
@@ -247,7 +279,10 @@ public class ChatImplService implements ChatService {
                             System.out.println("[ChatImplService] Top result score: " + 
                                 searchResults.get(0).getScore());
                         }
-                        System.out.println("[ChatImplService] Context block length: " + contextBlock.length());
+                        System.out.println("[ChatImplService] User prompt length: " + userPrompt.length());
+                        System.out.println("[ChatImplService] Prompt tokens: " + budget.used() + "/" + budget.limit()
+                                + ", dropped context: " + budget.droppedContext() + ", history trimmed: " + budget.historyTrimmed()
+                                + ", max_tokens: " + options.maxTokens());
                         System.out.println("[ChatImplService] User prompt preview: " + 
                             (userPrompt.length() > 500 ? userPrompt.substring(0, 500) + "..." : userPrompt));
 
@@ -261,26 +296,31 @@ public class ChatImplService implements ChatService {
                         );
 
                         // 2) 응답 캐시 + 락 (기존 메서드 그대로 사용)
-                        String inputHash = hash.sha256(llmModel, llmProvider, ctxVersion, systemPrompt, userPrompt);
+                        // 그룹 안의 모델은 서로 바꿔 쓸 수 있으므로 캐시 키는 그룹 기준 (생성 파라미터가 다르면 다른 응답)
+                        String inputHash = hash.sha256(routeGroup, ctxVersion, options.cacheKey(), systemPrompt, userPrompt);
                         Mono<String> answerMono = cache.getOrInvoke(
-                                llmModel,
+                                routeGroup,
                                 inputHash,
-                                () -> llmContextClient.chat(llmProvider, llmModel, systemPrompt, userPrompt)
+                                () -> llmRouter.chat(routeGroup, systemPrompt, userPrompt, options)
+                                        .doOnNext(r -> served.set(r.target()))
+                                        .map(LlmReply::text)
                         );
 
                         return promptMono.then(answerMono)
                                 .flatMap(answer -> {
-                                    // 대화 히스토리에 저장 (질문과 답변을 JSON 형태로)
-                                    String questionJson = String.format("{\"role\":\"user\",\"content\":\"%s\",\"timestamp\":\"%s\"}", 
-                                            llmQuery.replace("\"", "\\\""), Instant.now());
-                                    String answerJson = String.format("{\"role\":\"assistant\",\"content\":\"%s\",\"timestamp\":\"%s\"}", 
-                                            answer.replace("\"", "\\\""), Instant.now());
+                                    // 대화 히스토리에 저장
+                                    HistoryMessage question = HistoryMessage.user(llmQuery);
+                                    HistoryMessage reply = HistoryMessage.assistant(answer);
                                     
-                                    return chatHistoryStore.append(sessionId, questionJson)
-                                            .then(chatHistoryStore.append(sessionId, answerJson))
-                                            .thenReturn(new ChatResponse(
+                                    // 히스토리 저장과 요약 갱신은 응답을 기다리지 않고 백그라운드에서 처리 (채팅만 recall 인덱스에도 넣음)
+                                    conversationMemory.recordTurn(sessionId, question, reply, true);
+
+                                    // 캐시에서 온 응답이면 served 가 비어 있음
+                                    LlmTarget target = served.get();
+
+                                    return Mono.just(new ChatResponse(
                                                     answer,
-                                                    llmModel,
+                                                    target != null ? target.model() : routeGroup,
                                                     0,
                                                     Map.of(
                                                             "processingTime", Duration.between(startTime, Instant.now()).toMillis(),
@@ -288,7 +328,9 @@ public class ChatImplService implements ChatService {
                                                             "searchResults", searchResults.size(),
                                                             "averageScore", searchResults.stream().mapToDouble(SearchResult::getScore).average().orElse(0.0),
                                                             "timestamp", Instant.now(),
-                                                            "provider", llmProvider
+                                                            "provider", target != null ? target.provider() : "cache",
+                                                            "route", routeGroup,
+                                                            "promptTokens", budget.used()
                                                     ),
                                                     sessionId
                                             ));
@@ -0,0 +1,48 @@
+package io.github.eschoe.llmragapi.domain.chat;
+
+import io.github.eschoe.llmragapi.domain.llm.PromptBudget;
+import io.github.eschoe.llmragapi.domain.search.SearchResult;
+import io.github.eschoe.llmragapi.util.LlmRagUtil;
+
+import java.util.List;
+
+/**
+ * /api/chat 의 사용자 프롬프트 조립 (검색 결과와 대화 맥락이 준비된 뒤, LLM 호출 직전)
+ *
+ * 토큰 예산 안에서 대화 맥락을 자르고, 검색 결과를 컨텍스트 줄로 만들어 예산에 맞게 고른 뒤 질문과 합칩니다.
+ * ChatImplService 와 JMH 벤치마크(ContextAssemblyBenchmark)가 같은 코드를 쓰도록 분리해 두었습니다.
+ */
+public final class ChatPrompt {
+
+    public static final String HISTORY_HEADER = "\n\nPREVIOUS CONVERSATION:\n";
+
+    private static final String NO_CONTEXT = "- (관련 컨텍스트를 찾지 못했습니다. 일반 지식으로만 답변하세요.)";
+
+    private ChatPrompt() {}
+
+    /**
+     * 예산을 잡을 때 먼저 넣는 질문 부분
+     */
+    public static String question(String query) {
+        return "QUESTION:\n" + query + "\n\nCONTEXT:\n";
+    }
+
+    /**
+     * @param budget 질문까지 넣은 예산 ({@link io.github.eschoe.llmragapi.domain.llm.PromptBudgeter#begin})
+     * @param historyAllowance 대화 맥락을 만들 때 준 토큰 한도 (맥락은 이 안에서 오래된 줄부터 잘림)
+     * @param searchResults 점수 순. 예산이 모자라면 뒤에서부터 빠짐
+     */
+    public static String assemble(PromptBudget budget, String questionPrompt, String rawHistory, int historyAllowance,
+                                  List<SearchResult> searchResults) {
+        String history = budget.addHistory(rawHistory, historyAllowance);
+        List<String> contextLines = budget.addContext(searchResults.stream()
+                .map(r -> String.format("- %s (점수: %.3f)", LlmRagUtil.safeSnippet(r.getContent()), r.getScore()))
+                .toList());
+        String contextBlock = contextLines.isEmpty() ? NO_CONTEXT : String.join("\n", contextLines);
+
+        // 대화 히스토리를 프롬프트에 포함
+        String conversationContext = history.isEmpty() ? "" : HISTORY_HEADER + history;
+
+        return questionPrompt + contextBlock + conversationContext;
+    }
+}
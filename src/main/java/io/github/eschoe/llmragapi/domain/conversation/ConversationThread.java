@@ -14,6 +14,8 @@ public class ConversationThread {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private ThreadStatus status;
+    // 전체 메시지 수 (messages 에는 최근 일부만 담길 수 있음)
+    private long messageCount;
     private Map<String, Object> metadata;
 
     public ConversationThread() {}
@@ -53,6 +55,9 @@ public class ConversationThread {
     public ThreadStatus getStatus() { return status; }
     public void setStatus(ThreadStatus status) { this.status = status; }
 
+    public long getMessageCount() { return messageCount; }
+    public void setMessageCount(long messageCount) { this.messageCount = messageCount; }
+
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
 
@@ -12,6 +12,9 @@ import reactor.core.publisher.Mono;
 @Component
 public class ConversationThreadHandler {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ConversationThreadService threadService;
     private final ObjectMapper objectMapper;
     private final SessionUtil sessionUtil;
@@ -53,8 +56,27 @@ public class ConversationThreadHandler {
     public Mono<ServerResponse> getThread(ServerRequest request) {
         String threadId = request.pathVariable("threadId");
         final String sessionId = sessionUtil.extractSessionId(request);
-        
-        return threadService.getThread(threadId)
+
+        // limit: 함께 조회할 최근 메시지 수 (없으면 app.llm.thread-message-window)
+        Integer limit;
+        try {
+            limit = request.queryParam("limit").map(String::trim).map(Integer::parseInt).orElse(null);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new DetailedErrorResponse(
+                            "INVALID_LIMIT",
+                            "limit 은 숫자여야 합니다.",
+                            e.getMessage(),
+                            sessionId
+                    ));
+        }
+
+        Mono<ConversationThread> threadMono = limit != null
+                ? threadService.getThread(threadId, Math.max(0, limit))
+                : threadService.getThread(threadId);
+
+        return threadMono
                 .flatMap(thread -> {
                     if (thread == null) {
                         return ServerResponse.status(404)
@@ -76,9 +98,25 @@ public class ConversationThreadHandler {
 
     public Mono<ServerResponse> getUserThreads(ServerRequest request) {
         final String sessionId = sessionUtil.extractSessionId(request);
-        
-        return threadService.getUserThreads(sessionId)
-                .collectList()
+        // 최근 수정 순, page 는 0부터. limit 과 마찬가지로 숫자가 아니면 기본값으로 넘기지 않고 400
+        int page;
+        int size;
+        try {
+            page = Math.max(0, request.queryParam("page").map(String::trim).map(Integer::parseInt).orElse(0));
+            size = Math.min(MAX_PAGE_SIZE, Math.max(1,
+                    request.queryParam("size").map(String::trim).map(Integer::parseInt).orElse(DEFAULT_PAGE_SIZE)));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new DetailedErrorResponse(
+                            "INVALID_PAGINATION",
+                            "page 와 size 는 숫자여야 합니다.",
+                            e.getMessage(),
+                            sessionId
+                    ));
+        }
+
+        return threadService.listThreads(sessionId, page, size)
                 .flatMap(threads -> ServerResponse.ok()
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Session-ID", sessionId)
@@ -94,7 +132,7 @@ public class ConversationThreadHandler {
                     try {
                         AddMessageRequest addRequest = objectMapper.readValue(body, AddMessageRequest.class);
                         
-                        return threadService.addMessage(threadId, addRequest.getContent(), addRequest.getRole())
+                        return threadService.addMessage(sessionId, threadId, addRequest.getContent(), addRequest.getRole())
                                 .flatMap(thread -> ServerResponse.ok()
                                         .contentType(MediaType.APPLICATION_JSON)
                                         .header("X-Session-ID", sessionId)
@@ -121,7 +159,7 @@ public class ConversationThreadHandler {
                     try {
                         UpdateTitleRequest updateRequest = objectMapper.readValue(body, UpdateTitleRequest.class);
                         
-                        return threadService.updateThreadTitle(threadId, updateRequest.getTitle())
+                        return threadService.updateThreadTitle(sessionId, threadId, updateRequest.getTitle())
                                 .flatMap(thread -> ServerResponse.ok()
                                         .contentType(MediaType.APPLICATION_JSON)
                                         .header("X-Session-ID", sessionId)
@@ -143,7 +181,7 @@ public class ConversationThreadHandler {
         String threadId = request.pathVariable("threadId");
         final String sessionId = sessionUtil.extractSessionId(request);
         
-        return threadService.archiveThread(threadId)
+        return threadService.archiveThread(sessionId, threadId)
                 .then(ServerResponse.ok()
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Session-ID", sessionId)
@@ -154,7 +192,7 @@ public class ConversationThreadHandler {
         String threadId = request.pathVariable("threadId");
         final String sessionId = sessionUtil.extractSessionId(request);
         
-        return threadService.deleteThread(threadId)
+        return threadService.deleteThread(sessionId, threadId)
                 .then(ServerResponse.ok()
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Session-ID", sessionId)
@@ -16,7 +16,7 @@ public class ConversationThreadRouter {
         return route()
                 // 스레드 생성
                 .POST("/api/threads", handler::createThread)
-                // 사용자 스레드 목록 조회
+                // 사용자 스레드 목록 조회 (?page=0&size=20, 최근 수정 순)
                 .GET("/api/threads", handler::getUserThreads)
                 // 특정 스레드 조회
                 .GET("/api/threads/{threadId}", handler::getThread)
@@ -1,36 +1,126 @@
 package io.github.eschoe.llmragapi.domain.conversation;
 
 import io.github.eschoe.llmragapi.domain.history.ChatHistoryStore;
+import io.github.eschoe.llmragapi.domain.history.HistoryMessage;
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * 대화 스레드 저장소
+ *
+ * 스레드는 두 개의 키로 나눠 저장합니다.
+ * - thread:{id}:meta     (hash) 제목, 상태, 생성/수정 시각, 메시지 수 등 메타데이터
+ * - thread:{id}:messages (list) 메시지 JSON, 오래된 것부터 RPUSH
+ *
+ * 세션별 목록은 user:threads:z:{sessionId} (zset, score = updatedAt) 인덱스로 관리합니다.
+ *
+ * 메시지 추가는 Lua 스크립트 한 번(RPUSH + HSET + HINCRBY + PEXPIRE + ZADD)으로 처리되므로
+ * 스레드 길이와 상관없이 O(1) 이고, 동시에 추가해도 메시지가 유실되지 않습니다.
+ * 스크립트는 KEYS 로 받은 키만 건드리고, 스레드를 만든 세션이 아니면 스레드가 없는 것으로 처리합니다.
+ * 예전 형식(thread:{id} 에 전체 JSON)은 처음 접근할 때 새 형식으로 옮기고,
+ * 예전 세션 인덱스(user:threads:{sessionId} set)는 기동할 때 한 번 옮깁니다.
+ */
 @Service
 public class ConversationThreadService {
 
     private static final Logger logger = LoggerFactory.getLogger(ConversationThreadService.class);
-    
+
+    /**
+     * 세션별 스레드 인덱스(user:threads:z:{sessionId}, score = updatedAt epoch ms) 갱신
+     * 메타데이터의 status 가 DELETED 면 인덱스에서 빼고, 아니면 score 를 갱신합니다.
+     * 사용하는 값: KEYS[1] = meta, KEYS[#KEYS] = 인덱스, ARGV[1] = 스레드 ID, ARGV[2] = score, ARGV[3] = TTL(ms)
+     */
+    private static final String REINDEX_LUA = """
+            local index = KEYS[#KEYS]
+            if redis.call('HGET', KEYS[1], 'status') == 'DELETED' then
+              redis.call('ZREM', index, ARGV[1])
+            else
+              redis.call('ZADD', index, ARGV[2], ARGV[1])
+              redis.call('PEXPIRE', index, ARGV[3])
+            end
+            """;
+
+    /**
+     * 스레드가 있으면 메시지를 추가하고 메타데이터와 인덱스를 갱신
+     * KEYS[1] = meta, KEYS[2] = messages, KEYS[3] = 세션 인덱스
+     * ARGV[1] = 스레드 ID, ARGV[2] = updatedAt score, ARGV[3] = TTL(ms), ARGV[4] = 세션 ID, ARGV[5] = updatedAt, ARGV[6] = 메시지 JSON
+     * 반환: 추가 후 메시지 수, 스레드가 없거나 다른 세션의 스레드면 -1
+     */
+    private static final RedisScript<Long> APPEND_MESSAGE_SCRIPT = RedisScript.of("""
+            if redis.call('HGET', KEYS[1], 'sessionId') ~= ARGV[4] then
+              return -1
+            end
+            redis.call('RPUSH', KEYS[2], ARGV[6])
+            redis.call('HSET', KEYS[1], 'updatedAt', ARGV[5])
+            local count = redis.call('HINCRBY', KEYS[1], 'messageCount', 1)
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            redis.call('PEXPIRE', KEYS[2], ARGV[3])
+            """ + REINDEX_LUA + """
+            return count
+            """, Long.class);
+
+    /**
+     * 스레드가 있으면 메타데이터 필드를 갱신하고 인덱스를 갱신
+     * KEYS[1] = meta, KEYS[2] = 세션 인덱스
+     * ARGV[1] = 스레드 ID, ARGV[2] = updatedAt score, ARGV[3] = TTL(ms), ARGV[4] = 세션 ID, ARGV[5..] = field1, value1, field2, value2, ...
+     * 반환: 1 (갱신), 0 (스레드가 없거나 다른 세션의 스레드)
+     */
+    private static final RedisScript<Long> UPDATE_META_SCRIPT = RedisScript.of("""
+            if redis.call('HGET', KEYS[1], 'sessionId') ~= ARGV[4] then
+              return 0
+            end
+            redis.call('HSET', KEYS[1], unpack(ARGV, 5))
+            """ + REINDEX_LUA + """
+            return 1
+            """, Long.class);
+
+    // 목록 조회 시 읽는 메타데이터 필드 (ThreadSummary 순서)
+    private static final List<String> SUMMARY_FIELDS = List.of("id", "title", "status", "messageCount", "createdAt", "updatedAt");
+
+    // 예전 세션 인덱스(user:threads:{sessionId} set)를 모두 옮겼다는 표시
+    private static final String LEGACY_INDEX_PREFIX = "user:threads:";
+    private static final String LEGACY_INDEX_MIGRATED_KEY = "user:threads:legacy-migrated";
+
     private final ReactiveStringRedisTemplate redis;
     private final ChatHistoryStore chatHistoryStore;
+    private final RedisJsonCodec codec;
 
     @Value("${app.llm.thread-ttl:7d}")
     private String threadTtl;
 
-    public ConversationThreadService(ReactiveStringRedisTemplate redis, ChatHistoryStore chatHistoryStore) {
+    // 스레드 조회 시 함께 내려주는 최근 메시지 수
+    @Value("${app.llm.thread-message-window:100}")
+    private int messageWindow;
+
+    // 예전 세션 인덱스 이전이 끝나기 전까지만 목록 조회마다 예전 인덱스를 확인
+    private volatile boolean legacyIndexMigrated;
+
+    public ConversationThreadService(ReactiveStringRedisTemplate redis, ChatHistoryStore chatHistoryStore, RedisJsonCodec codec) {
         this.redis = redis;
         this.chatHistoryStore = chatHistoryStore;
+        this.codec = codec;
     }
 
     public Mono<ConversationThread> createThread(String sessionId, String title) {
@@ -48,10 +138,16 @@ public class ConversationThreadService {
     }
 
     public Mono<ConversationThread> getThread(String threadId) {
-        String key = "thread:" + threadId;
-        
-        return redis.opsForValue().get(key)
-                .map(this::parseThread)
+        return getThread(threadId, messageWindow);
+    }
+
+    /**
+     * 스레드 메타데이터와 최근 limit 개의 메시지를 조회합니다.
+     */
+    public Mono<ConversationThread> getThread(String threadId, int limit) {
+        return readThread(threadId, limit)
+                .switchIfEmpty(Mono.defer(() -> migrateLegacyThread(threadId)
+                        .flatMap(migrated -> migrated ? readThread(threadId, limit) : Mono.empty())))
                 .onErrorMap(throwable -> {
                     logger.error("Redis error getting thread {}: {}", threadId, throwable.getMessage());
                     return new RuntimeException("Redis connection failed", throwable);
@@ -62,120 +158,80 @@ public class ConversationThreadService {
                 });
     }
 
-    public Flux<ConversationThread> getUserThreads(String sessionId) {
-        String key = "user:threads:" + sessionId;
-        logger.info("Getting user threads for session: {}", sessionId);
-        logger.info("Redis key: {}", key);
-        
-        return redis.opsForSet().members(key)
-                .doOnNext(threadId -> logger.info("Found thread ID: {}", threadId))
-                .doOnComplete(() -> logger.info("Finished getting thread IDs from set"))
-                .flatMap(threadId -> {
-                    logger.info("Getting thread: {}", threadId);
-                    return getThread(threadId)
-                            .doOnNext(thread -> {
-                                if (thread != null) {
-                                    logger.info("Thread loaded - ID: {}, Messages: {}", thread.getId(), thread.getMessages() != null ? thread.getMessages().size() : "null");
-                                } else {
-                                    logger.warn("Thread is null for ID: {}", threadId);
-                                }
-                            })
-                            .onErrorResume(throwable -> {
-                                logger.error("Error loading thread {}: {}", threadId, throwable.getMessage());
-                                return Mono.empty();
-                            });
-                })
-                .filter(thread -> thread != null && thread.getStatus() != ConversationThread.ThreadStatus.DELETED)
-                .sort((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()))
-                .doOnComplete(() -> logger.info("Finished loading user threads"));
+    /**
+     * 세션의 스레드를 최근 수정 순으로 page 단위로 조회합니다.
+     * 인덱스(ZSET)에서 페이지 범위의 ID 만 꺼내고, 각 스레드의 메타데이터 필드만 HMGET 으로 읽습니다.
+     * HMGET 들은 응답을 기다리지 않고 같은 커넥션으로 연달아 전송되므로(파이프라인) 비용은 페이지 크기에만 비례합니다.
+     */
+    public Mono<ThreadPage> listThreads(String sessionId, int page, int size) {
+        String index = indexKey(sessionId);
+        long start = (long) page * size;
+        long end = start + size - 1;
+        logger.info("Listing threads - session: {}, page: {}, size: {}", sessionId, page, size);
+
+        Mono<Void> migration = legacyIndexMigrated ? Mono.empty() : migrateLegacyIndex(sessionId);
+
+        return migration
+                .then(Mono.zip(
+                        redis.opsForZSet().size(index),
+                        redis.opsForZSet().reverseRange(index, Range.closed(start, end)).collectList()))
+                .flatMap(t -> Flux.fromIterable(t.getT2())
+                        .flatMapSequential(threadId -> readSummary(sessionId, threadId), Math.max(1, size))
+                        .collectList()
+                        .map(threads -> new ThreadPage(threads, page, size, t.getT1())));
     }
 
-    public Mono<ConversationThread> addMessage(String threadId, String content, ConversationThread.Message.MessageRole role) {
-        logger.info("Adding message to thread: {}, content: {}, role: {}", threadId, content, role);
-        return getThread(threadId)
-                .flatMap(thread -> {
-                    if (thread == null) {
+    public Mono<ConversationThread> addMessage(String sessionId, String threadId, String content, ConversationThread.Message.MessageRole role) {
+        logger.info("Adding message to thread: {}, role: {}", threadId, role);
+
+        ConversationThread.Message message = new ConversationThread.Message(content, role);
+        message.setId(UUID.randomUUID().toString());
+
+        return appendMessage(sessionId, threadId, message)
+                .flatMap(count -> {
+                    if (count >= 0) return Mono.just(count);
+                    // 새 형식의 스레드가 없으면 예전 형식에서 옮긴 뒤 한 번 더 시도
+                    return migrateLegacyThread(threadId)
+                            .flatMap(migrated -> migrated ? appendMessage(sessionId, threadId, message) : Mono.just(-1L));
+                })
+                .flatMap(count -> {
+                    if (count < 0) {
                         logger.error("Thread not found: {}", threadId);
                         return Mono.error(new IllegalArgumentException("Thread not found"));
                     }
-                    
-                    ConversationThread.Message message = new ConversationThread.Message(content, role);
-                    message.setId(UUID.randomUUID().toString());
-                    
-                    // messages 리스트가 null인 경우 초기화
-                    if (thread.getMessages() == null) {
-                        logger.info("Messages list is null, initializing");
-                        thread.setMessages(new ArrayList<>());
-                    }
-                    
-                    logger.info("Before adding message - current count: {}", thread.getMessages().size());
-                    thread.getMessages().add(message);
-                    logger.info("After adding message - new count: {}", thread.getMessages().size());
-                    thread.setUpdatedAt(LocalDateTime.now());
-                    
-                    return saveThread(thread);
+                    logger.info("Message added - thread: {}, count: {}", threadId, count);
+                    return getThread(threadId);
                 });
     }
 
-    public Mono<ConversationThread> updateThreadTitle(String threadId, String newTitle) {
-        return getThread(threadId)
-                .flatMap(thread -> {
-                    if (thread == null) {
-                        return Mono.error(new IllegalArgumentException("Thread not found"));
-                    }
-                    
-                    thread.setTitle(newTitle);
-                    thread.setUpdatedAt(LocalDateTime.now());
-                    
-                    return saveThread(thread);
-                });
+    public Mono<ConversationThread> updateThreadTitle(String sessionId, String threadId, String newTitle) {
+        return updateMeta(sessionId, threadId, Map.of("title", newTitle))
+                .then(getThread(threadId));
     }
 
-    public Mono<Void> archiveThread(String threadId) {
-        return getThread(threadId)
-                .flatMap(thread -> {
-                    if (thread == null) {
-                        return Mono.error(new IllegalArgumentException("Thread not found"));
-                    }
-                    
-                    thread.setStatus(ConversationThread.ThreadStatus.ARCHIVED);
-                    thread.setUpdatedAt(LocalDateTime.now());
-                    
-                    return saveThread(thread);
-                })
-                .then();
+    public Mono<Void> archiveThread(String sessionId, String threadId) {
+        return updateMeta(sessionId, threadId, Map.of("status", ConversationThread.ThreadStatus.ARCHIVED.name()));
     }
 
-    public Mono<Void> deleteThread(String threadId) {
-        return getThread(threadId)
-                .flatMap(thread -> {
-                    if (thread == null) {
-                        return Mono.error(new IllegalArgumentException("Thread not found"));
-                    }
-                    
-                    thread.setStatus(ConversationThread.ThreadStatus.DELETED);
-                    thread.setUpdatedAt(LocalDateTime.now());
-                    
-                    return saveThread(thread);
-                })
+    public Mono<Void> deleteThread(String sessionId, String threadId) {
+        return updateMeta(sessionId, threadId, Map.of("status", ConversationThread.ThreadStatus.DELETED.name()))
                 .onErrorMap(throwable -> {
                     if (throwable instanceof IllegalArgumentException) {
                         return throwable; // Thread not found or corrupted - pass through
                     }
                     logger.error("Redis error deleting thread {}: {}", threadId, throwable.getMessage());
                     return new RuntimeException("Redis connection failed", throwable);
-                })
-                .then();
+                });
     }
 
     public Mono<ConversationThread> loadThreadFromHistory(String threadId, String sessionId) {
-        return chatHistoryStore.recent(sessionId, 50)
+        return chatHistoryStore.recentMessages(sessionId, 50)
                 .collectList()
                 .flatMap(historyMessages -> {
                     ConversationThread thread = new ConversationThread(threadId, "Loaded from History", sessionId);
                     
                     List<ConversationThread.Message> messages = historyMessages.stream()
-                            .map(this::parseHistoryMessage)
+                            .map(this::toThreadMessage)
                             .collect(Collectors.toList());
                     
                     thread.setMessages(messages);
@@ -185,217 +241,287 @@ public class ConversationThreadService {
                 });
     }
 
+    private static String metaKey(String threadId) {
+        return "thread:" + threadId + ":meta";
+    }
+
+    private static String messagesKey(String threadId) {
+        return "thread:" + threadId + ":messages";
+    }
+
+    private static String indexKey(String sessionId) {
+        return "user:threads:z:" + sessionId;
+    }
+
+    private static long score(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private Mono<ThreadSummary> readSummary(String sessionId, String threadId) {
+        return redis.<String, String>opsForHash().multiGet(metaKey(threadId), SUMMARY_FIELDS)
+                .flatMap(values -> {
+                    if (values.get(0) == null) {
+                        // TTL 로 만료된 스레드는 인덱스에서도 정리
+                        return redis.opsForZSet().remove(indexKey(sessionId), threadId).then(Mono.empty());
+                    }
+                    try {
+                        return Mono.just(new ThreadSummary(
+                                values.get(0),
+                                values.get(1),
+                                ConversationThread.ThreadStatus.valueOf(values.get(2)),
+                                values.get(3) != null ? Long.parseLong(values.get(3)) : 0L,
+                                LocalDateTime.parse(values.get(4)),
+                                LocalDateTime.parse(values.get(5))));
+                    } catch (Exception e) {
+                        logger.error("Error parsing thread summary {}: {}", threadId, e.getMessage());
+                        return Mono.empty();
+                    }
+                });
+    }
+
+    /**
+     * 기동할 때 예전 세션 인덱스를 모두 옮깁니다.
+     * 다른 인스턴스가 이미 끝냈으면(표시 키가 있으면) SCAN 없이 넘어가고, 끝난 뒤에는 목록 조회에서 예전 인덱스를 확인하지 않습니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyIndexes() {
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_INDEX_PREFIX + "*").count(1000).build();
+
+        redis.hasKey(LEGACY_INDEX_MIGRATED_KEY)
+                .flatMap(done -> done
+                        ? Mono.<Void>empty()
+                        : redis.scan(options)
+                                .filter(key -> !key.startsWith(indexKey("")) && !key.equals(LEGACY_INDEX_MIGRATED_KEY))
+                                .concatMap(key -> migrateLegacyIndex(key.substring(LEGACY_INDEX_PREFIX.length()))
+                                        .onErrorResume(e -> {
+                                            logger.warn("Skipping legacy thread index {}: {}", key, e.getMessage());
+                                            return Mono.empty();
+                                        }))
+                                .then(redis.opsForValue().set(LEGACY_INDEX_MIGRATED_KEY, LocalDateTime.now().toString()))
+                                .then())
+                .subscribe(
+                        null,
+                        e -> logger.warn("Legacy thread index migration failed, will check on each listing: {}", e.getMessage()),
+                        () -> {
+                            legacyIndexMigrated = true;
+                            logger.info("Legacy thread indexes migrated");
+                        });
+    }
+
+    /**
+     * 예전 인덱스(user:threads:{sessionId} SET)가 남아 있으면 ZSET 인덱스로 옮기고 지웁니다.
+     * 각 스레드는 getThread 를 거치므로 예전 형식의 스레드도 함께 새 형식으로 옮겨집니다.
+     */
+    private Mono<Void> migrateLegacyIndex(String sessionId) {
+        String legacyKey = LEGACY_INDEX_PREFIX + sessionId;
+
+        return redis.hasKey(legacyKey)
+                .flatMap(exists -> {
+                    if (!exists) return Mono.<Void>empty();
+
+                    logger.info("Migrating legacy thread index: {}", legacyKey);
+                    return redis.opsForSet().members(legacyKey)
+                            .flatMap(threadId -> getThread(threadId, 0))
+                            .filter(thread -> thread.getStatus() != ConversationThread.ThreadStatus.DELETED)
+                            .flatMap(thread -> redis.opsForZSet().add(indexKey(sessionId), thread.getId(), score(thread.getUpdatedAt())))
+                            .then(redis.expire(indexKey(sessionId), parseTtl()))
+                            .then(redis.delete(legacyKey))
+                            .then();
+                });
+    }
+
+    private Mono<ConversationThread> readThread(String threadId, int limit) {
+        // 두 명령은 같은 커넥션으로 연달아 전송됨
+        Mono<Map<String, String>> meta = redis.<String, String>opsForHash().entries(metaKey(threadId))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        Mono<List<String>> messages = limit > 0
+                ? redis.opsForList().range(messagesKey(threadId), -limit, -1).collectList()
+                : Mono.just(List.of());
+
+        return Mono.zip(meta, messages)
+                .flatMap(t -> t.getT1().isEmpty() ? Mono.empty() : Mono.justOrEmpty(toThread(t.getT1(), t.getT2())));
+    }
+
+    private Mono<Long> appendMessage(String sessionId, String threadId, ConversationThread.Message message) {
+        List<String> keys = List.of(metaKey(threadId), messagesKey(threadId), indexKey(sessionId));
+        List<String> args = List.of(
+                threadId,
+                String.valueOf(score(message.getTimestamp())),
+                String.valueOf(parseTtl().toMillis()),
+                sessionId,
+                message.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                serializeMessage(message));
+
+        return redis.execute(APPEND_MESSAGE_SCRIPT, keys, args).next();
+    }
+
+    private Mono<Void> updateMeta(String sessionId, String threadId, Map<String, String> fields) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> args = new ArrayList<>();
+        args.add(threadId);
+        args.add(String.valueOf(score(now)));
+        args.add(String.valueOf(parseTtl().toMillis()));
+        args.add(sessionId);
+        fields.forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        args.add("updatedAt");
+        args.add(now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+        Mono<Long> update = redis.execute(UPDATE_META_SCRIPT, List.of(metaKey(threadId), indexKey(sessionId)), args).next();
+
+        return update
+                .flatMap(updated -> {
+                    if (updated == 1L) return Mono.just(true);
+                    return migrateLegacyThread(threadId)
+                            .flatMap(migrated -> migrated ? update.map(retried -> retried == 1L) : Mono.just(false));
+                })
+                .flatMap(updated -> updated
+                        ? Mono.<Void>empty()
+                        : Mono.error(new IllegalArgumentException("Thread not found")));
+    }
+
+    /**
+     * 스레드 전체를 새 형식으로 저장합니다. (생성, 히스토리에서 불러오기, 예전 형식 이전)
+     */
     private Mono<ConversationThread> saveThread(ConversationThread thread) {
-        String key = "thread:" + thread.getId();
-        String threadJson = serializeThread(thread);
-        
-        logger.info("Saving thread - key: {}", key);
-        logger.info("Thread JSON: {}", threadJson);
-        logger.info("Thread TTL: {}", threadTtl);
-        
-        Duration ttlDuration;
-        try {
-            if (threadTtl.endsWith("d")) {
-                int days = Integer.parseInt(threadTtl.replace("d", ""));
-                ttlDuration = Duration.ofDays(days);
-            } else {
-                ttlDuration = Duration.parse("PT" + threadTtl.replace("d", "D"));
-            }
-        } catch (Exception e) {
-            logger.error("TTL parsing error, using default 7 days: {}", e.getMessage());
-            ttlDuration = Duration.ofDays(7);
-        }
-        
-        return redis.opsForValue().set(key, threadJson, ttlDuration)
+        String metaKey = metaKey(thread.getId());
+        String messagesKey = messagesKey(thread.getId());
+        Duration ttlDuration = parseTtl();
+
+        List<ConversationThread.Message> messages = thread.getMessages() != null ? thread.getMessages() : List.of();
+        thread.setMessageCount(messages.size());
+
+        logger.info("Saving thread - key: {}, messages: {}", metaKey, messages.size());
+
+        Mono<Boolean> writeMessages = redis.delete(messagesKey)
+                .then(messages.isEmpty()
+                        ? Mono.just(true)
+                        : redis.opsForList()
+                                .rightPushAll(messagesKey, messages.stream().map(this::serializeMessage).toList())
+                                .then(redis.expire(messagesKey, ttlDuration)));
+
+        return writeMessages
+                .then(redis.<String, String>opsForHash().putAll(metaKey, toMeta(thread)))
+                .then(redis.expire(metaKey, ttlDuration))
                 .doOnSuccess(result -> logger.info("Thread saved to Redis"))
                 .doOnError(error -> logger.error("Redis save error: {}", error.getMessage()))
-                .then(redis.opsForSet().add("user:threads:" + thread.getSessionId(), thread.getId()))
-                .doOnSuccess(result -> logger.info("Thread added to user set"))
-                .doOnError(error -> logger.error("User set add error: {}", error.getMessage()))
+                .then(thread.getStatus() == ConversationThread.ThreadStatus.DELETED
+                        ? redis.opsForZSet().remove(indexKey(thread.getSessionId()), thread.getId()).then()
+                        : redis.opsForZSet().add(indexKey(thread.getSessionId()), thread.getId(), score(thread.getUpdatedAt()))
+                                .then(redis.expire(indexKey(thread.getSessionId()), ttlDuration))
+                                .then())
+                .doOnSuccess(result -> logger.info("Thread added to user index"))
+                .doOnError(error -> logger.error("User index add error: {}", error.getMessage()))
                 .thenReturn(thread);
     }
 
-    private ConversationThread parseThread(String threadJson) {
+    /**
+     * 예전 형식(thread:{id} 에 스레드 전체 JSON)을 새 형식으로 옮기고 예전 키를 지웁니다.
+     *
+     * @return 옮겼으면 true, 예전 형식의 스레드도 없으면 false
+     */
+    private Mono<Boolean> migrateLegacyThread(String threadId) {
+        String legacyKey = "thread:" + threadId;
+
+        return redis.opsForValue().get(legacyKey)
+                .flatMap(json -> {
+                    ConversationThread legacy = parseThread(json);
+                    if (legacy == null) return Mono.just(false);
+
+                    logger.info("Migrating legacy thread: {}", threadId);
+                    return saveThread(legacy)
+                            .then(redis.delete(legacyKey))
+                            .thenReturn(true);
+                })
+                .defaultIfEmpty(false);
+    }
+
+    private Map<String, String> toMeta(ConversationThread thread) {
+        Map<String, String> meta = new LinkedHashMap<>();
+        meta.put("id", thread.getId());
+        meta.put("title", thread.getTitle());
+        meta.put("description", thread.getDescription() != null ? thread.getDescription() : "");
+        meta.put("sessionId", thread.getSessionId());
+        meta.put("status", thread.getStatus().name());
+        meta.put("createdAt", thread.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        meta.put("updatedAt", thread.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        meta.put("messageCount", String.valueOf(thread.getMessageCount()));
+        return meta;
+    }
+
+    private ConversationThread toThread(Map<String, String> meta, List<String> messageJsons) {
         try {
-            // 간단한 JSON 파싱 (실제로는 Jackson 사용 권장)
-            String id = extractValue(threadJson, "id");
-            String title = extractValue(threadJson, "title");
-            String description = extractValue(threadJson, "description");
-            String sessionId = extractValue(threadJson, "sessionId");
-            String status = extractValue(threadJson, "status");
-            String createdAt = extractValue(threadJson, "createdAt");
-            String updatedAt = extractValue(threadJson, "updatedAt");
-            
-            ConversationThread thread = new ConversationThread(id, title, sessionId);
+            ConversationThread thread = new ConversationThread(meta.get("id"), meta.get("title"), meta.get("sessionId"));
+            String description = meta.getOrDefault("description", "");
             thread.setDescription(description.isEmpty() ? null : description);
-            thread.setStatus(ConversationThread.ThreadStatus.valueOf(status));
-            thread.setCreatedAt(LocalDateTime.parse(createdAt));
-            thread.setUpdatedAt(LocalDateTime.parse(updatedAt));
-            
-            // 메시지 배열 파싱
-            String messagesJson = extractArrayValue(threadJson, "messages");
-            logger.info("Messages JSON: {}", messagesJson);
-            if (!messagesJson.isEmpty()) {
-                List<ConversationThread.Message> messages = parseMessagesArray(messagesJson);
-                logger.info("Parsed messages count: {}", messages.size());
-                thread.setMessages(messages);
-            } else {
-                // 메시지가 없는 경우 빈 리스트로 초기화
-                logger.info("No messages found, initializing empty list");
-                thread.setMessages(new ArrayList<>());
+            thread.setStatus(ConversationThread.ThreadStatus.valueOf(meta.get("status")));
+            thread.setCreatedAt(LocalDateTime.parse(meta.get("createdAt")));
+            thread.setUpdatedAt(LocalDateTime.parse(meta.get("updatedAt")));
+            thread.setMessageCount(Long.parseLong(meta.getOrDefault("messageCount", "0")));
+
+            List<ConversationThread.Message> messages = new ArrayList<>(messageJsons.size());
+            for (String json : messageJsons) {
+                ConversationThread.Message message = parseMessage(json);
+                if (message != null) messages.add(message);
             }
-            
+            thread.setMessages(messages);
             return thread;
         } catch (Exception e) {
-            logger.error("Error parsing thread: {}", e.getMessage());
+            logger.error("Error parsing thread meta: {}", e.getMessage());
             return null;
         }
     }
 
-    private ConversationThread.Message parseHistoryMessage(String historyJson) {
+    private Duration parseTtl() {
         try {
-            String role = extractValue(historyJson, "role");
-            String content = extractValue(historyJson, "content");
-            String timestamp = extractValue(historyJson, "timestamp");
-            
-            ConversationThread.Message message = new ConversationThread.Message();
-            message.setId(UUID.randomUUID().toString());
-            message.setContent(content);
-            message.setRole(ConversationThread.Message.MessageRole.valueOf(role.toUpperCase()));
-            message.setTimestamp(LocalDateTime.parse(timestamp));
-            
-            return message;
+            if (threadTtl.endsWith("d")) {
+                int days = Integer.parseInt(threadTtl.replace("d", ""));
+                return Duration.ofDays(days);
+            }
+            return Duration.parse("PT" + threadTtl.replace("d", "D"));
         } catch (Exception e) {
-            return new ConversationThread.Message("파싱 오류", ConversationThread.Message.MessageRole.SYSTEM);
+            logger.error("TTL parsing error, using default 7 days: {}", e.getMessage());
+            return Duration.ofDays(7);
         }
     }
 
-    private String serializeThread(ConversationThread thread) {
-        // 메시지 배열을 JSON 문자열로 변환
-        String messagesJson = "[]";
-        if (thread.getMessages() != null && !thread.getMessages().isEmpty()) {
-            messagesJson = thread.getMessages().stream()
-                .map(msg -> String.format(
-                    "{\"id\":\"%s\",\"content\":\"%s\",\"role\":\"%s\",\"timestamp\":\"%s\"}",
-                    msg.getId(),
-                    msg.getContent().replace("\"", "\\\""),
-                    msg.getRole().name(),
-                    msg.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                ))
-                .collect(Collectors.joining(",", "[", "]"));
-
-        }
-        
-        return String.format(
-            "{\"id\":\"%s\",\"title\":\"%s\",\"description\":\"%s\",\"sessionId\":\"%s\",\"status\":\"%s\",\"createdAt\":\"%s\",\"updatedAt\":\"%s\",\"messages\":%s}",
-            thread.getId(),
-            thread.getTitle().replace("\"", "\\\""),
-            thread.getDescription() != null ? thread.getDescription().replace("\"", "\\\"") : "",
-            thread.getSessionId(),
-            thread.getStatus().name(),
-            thread.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-            thread.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-            messagesJson
-        );
-    }
-
-    private String extractValue(String json, String key) {
-        String pattern = "\"" + key + "\":\"";
-        int start = json.indexOf(pattern);
-        if (start == -1) return "";
-        start += pattern.length();
-        int end = json.indexOf("\"", start);
-        if (end == -1) return "";
-        return json.substring(start, end);
-    }
-    
-    private String extractArrayValue(String json, String key) {
-        String pattern = "\"" + key + "\":";
-        int start = json.indexOf(pattern);
-        if (start == -1) return "";
-        start += pattern.length();
-        
-        // 배열의 시작과 끝 찾기
-        int bracketCount = 0;
-        int arrayStart = start;
-        int arrayEnd = start;
-        
-        for (int i = start; i < json.length(); i++) {
-            if (json.charAt(i) == '[') {
-                if (bracketCount == 0) arrayStart = i;
-                bracketCount++;
-            } else if (json.charAt(i) == ']') {
-                bracketCount--;
-                if (bracketCount == 0) {
-                    arrayEnd = i + 1;
-                    break;
-                }
+    /**
+     * 예전 형식(스레드 전체 JSON)을 파싱합니다. 예전 키를 새 형식으로 옮길 때만 사용합니다.
+     */
+    private ConversationThread parseThread(String threadJson) {
+        try {
+            ConversationThread thread = codec.decode(threadJson, ConversationThread.class);
+            if (thread.getDescription() != null && thread.getDescription().isEmpty()) {
+                thread.setDescription(null);
             }
-        }
-        
-        return json.substring(arrayStart, arrayEnd);
-    }
-    
-    private List<ConversationThread.Message> parseMessagesArray(String messagesJson) {
-        List<ConversationThread.Message> messages = new ArrayList<>();
-        
-        if (messagesJson.equals("[]")) {
-            return messages;
-        }
-        
-        // 간단한 배열 파싱 (실제로는 Jackson 사용 권장)
-        String content = messagesJson.substring(1, messagesJson.length() - 1); // [ ] 제거
-        
-        // 각 메시지 객체 파싱
-        int start = 0;
-        while (start < content.length()) {
-            int objStart = content.indexOf("{", start);
-            if (objStart == -1) break;
-            
-            int objEnd = findObjectEnd(content, objStart);
-            if (objEnd == -1) break;
-            
-            String messageJson = content.substring(objStart, objEnd + 1);
-            ConversationThread.Message message = parseMessage(messageJson);
-            if (message != null) {
-                messages.add(message);
+            if (thread.getMessages() == null) {
+                thread.setMessages(new ArrayList<>());
             }
-            
-            start = objEnd + 1;
+            return thread;
+        } catch (Exception e) {
+            logger.error("Error parsing thread: {}", e.getMessage());
+            return null;
         }
-        
-        return messages;
     }
-    
-    private int findObjectEnd(String content, int start) {
-        int braceCount = 0;
-        for (int i = start; i < content.length(); i++) {
-            if (content.charAt(i) == '{') {
-                braceCount++;
-            } else if (content.charAt(i) == '}') {
-                braceCount--;
-                if (braceCount == 0) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+
+    private ConversationThread.Message toThreadMessage(HistoryMessage history) {
+        ConversationThread.Message message = new ConversationThread.Message();
+        message.setId(UUID.randomUUID().toString());
+        message.setContent(history.content());
+        message.setRole(ConversationThread.Message.MessageRole.valueOf(history.role().toUpperCase()));
+        message.setTimestamp(LocalDateTime.ofInstant(history.timestamp(), ZoneId.systemDefault()));
+        return message;
+    }
+
+    private String serializeMessage(ConversationThread.Message msg) {
+        return codec.encode(msg);
     }
-    
+
     private ConversationThread.Message parseMessage(String messageJson) {
         try {
-            String id = extractValue(messageJson, "id");
-            String content = extractValue(messageJson, "content");
-            String role = extractValue(messageJson, "role");
-            String timestamp = extractValue(messageJson, "timestamp");
-            
-            ConversationThread.Message message = new ConversationThread.Message();
-            message.setId(id);
-            message.setContent(content);
-            message.setRole(ConversationThread.Message.MessageRole.valueOf(role));
-            message.setTimestamp(LocalDateTime.parse(timestamp));
-            
-            return message;
+            return codec.decode(messageJson, ConversationThread.Message.class);
         } catch (Exception e) {
             logger.error("Error parsing message: {}", e.getMessage());
             return null;
@@ -0,0 +1,11 @@
+package io.github.eschoe.llmragapi.domain.conversation;
+
+import java.util.List;
+
+/**
+ * 최근 수정 순으로 정렬된 스레드 목록의 한 페이지
+ *
+ * @param page  0부터 시작하는 페이지 번호
+ * @param total 세션의 전체 스레드 수 (삭제된 스레드 제외)
+ */
+public record ThreadPage(List<ThreadSummary> threads, int page, int size, long total) { }
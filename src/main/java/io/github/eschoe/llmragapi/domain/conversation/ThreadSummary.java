@@ -0,0 +1,15 @@
+package io.github.eschoe.llmragapi.domain.conversation;
+
+import java.time.LocalDateTime;
+
+/**
+ * 스레드 목록용 요약 (메시지 본문 없이 메타데이터만)
+ */
+public record ThreadSummary(
+        String id,
+        String title,
+        ConversationThread.ThreadStatus status,
+        long messageCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) { }
@@ -0,0 +1,11 @@
+package io.github.eschoe.llmragapi.domain.document;
+
+import java.util.List;
+
+/**
+ * 최근 수정 순으로 정렬된 문서 목록의 한 페이지
+ *
+ * @param page  0부터 시작하는 페이지 번호
+ * @param total 조건(소유자, 카테고리)에 맞는 전체 문서 수
+ */
+public record DocumentPage(List<DocumentUploadService.DocumentInfo> documents, int page, int size, long total) { }
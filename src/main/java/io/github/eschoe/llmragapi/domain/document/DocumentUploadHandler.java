@@ -15,9 +15,14 @@ import reactor.core.publisher.Mono;
 import java.nio.ByteBuffer;
 import java.util.stream.Collectors;
 
+import static io.github.eschoe.llmragapi.util.QueryParamUtil.intQueryParam;
+
 @Component
 public class DocumentUploadHandler {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DocumentUploadService uploadService;
     private final ObjectMapper objectMapper;
     private final SessionUtil sessionUtil;
@@ -34,15 +39,27 @@ public class DocumentUploadHandler {
     }
 
     public Mono<ServerResponse> uploadDocument(ServerRequest request) {
-        System.out.println("[DocumentUploadHandler] Upload request received");
+        return handleUpload(request, null);
+    }
+
+    /**
+     * 기존 문서를 새 파일로 재색인합니다. (바뀐 청크만 임베딩/반영, 요청 세션이 올린 문서만)
+     */
+    public Mono<ServerResponse> updateDocument(ServerRequest request) {
+        return handleUpload(request, request.pathVariable("documentId"));
+    }
+
+    private Mono<ServerResponse> handleUpload(ServerRequest request, String documentId) {
+        System.out.println("[DocumentUploadHandler] Upload request received" + (documentId != null ? " (update: " + documentId + ")" : ""));
         final String sessionId = sessionUtil.extractSessionId(request);
         System.out.println("[DocumentUploadHandler] Session ID: " + sessionId);
         
         // Rate Limiting 체크
-        return rateLimitingService.isAllowed(sessionId)
-                .doOnNext(allowed -> System.out.println("[DocumentUploadHandler] Rate limit check: " + allowed))
-                .flatMap(allowed -> {
-                    if (!allowed) {
+        return rateLimitingService.check(sessionId)
+                .doOnNext(decision -> System.out.println("[DocumentUploadHandler] Rate limit check: " + decision))
+                .flatMap(decision -> {
+                    decision.addTo(request.exchange().getResponse().getHeaders());
+                    if (!decision.allowed()) {
                         System.out.println("[DocumentUploadHandler] Rate limit exceeded");
                         return ServerResponse.status(429)
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -55,14 +72,14 @@ public class DocumentUploadHandler {
                     }
                     
                     System.out.println("[DocumentUploadHandler] Processing document upload");
-                    return processDocumentUpload(request, sessionId);
+                    return processDocumentUpload(request, sessionId, documentId);
                 })
                 .doOnSuccess(response -> System.out.println("[DocumentUploadHandler] Upload successful"))
                 .doOnError(e -> System.err.println("[DocumentUploadHandler] Upload error: " + e.getMessage()))
                 .onErrorResume(e -> handleError(e, sessionId));
     }
 
-    private Mono<ServerResponse> processDocumentUpload(ServerRequest request, String sessionId) {
+    private Mono<ServerResponse> processDocumentUpload(ServerRequest request, String sessionId, String documentId) {
         System.out.println("[DocumentUploadHandler] processDocumentUpload called");
         return request.multipartData()
                 .doOnNext(parts -> System.out.println("[DocumentUploadHandler] Multipart data received, parts: " + parts.toSingleValueMap().keySet()))
@@ -105,19 +122,11 @@ public class DocumentUploadHandler {
                                         System.err.println("[DocumentUploadHandler] Metadata parsing error: " + e.getMessage());
                                     }
                                     // 기본값 설정
-                                    DocumentUploadRequest defaultRequest = new DocumentUploadRequest();
-                                    defaultRequest.setTitle("Untitled Document");
-                                    defaultRequest.setDescription("");
-                                    defaultRequest.setCategory("");
-                                    return defaultRequest;
+                                    return defaultUploadRequest(documentId);
                                 });
                     } else {
                         // 메타데이터가 없는 경우 기본값
-                        DocumentUploadRequest defaultRequest = new DocumentUploadRequest();
-                        defaultRequest.setTitle("Untitled Document");
-                        defaultRequest.setDescription("");
-                        defaultRequest.setCategory("");
-                        metadataMono = Mono.just(defaultRequest);
+                        metadataMono = Mono.just(defaultUploadRequest(documentId));
                     }
                     
                     return metadataMono.flatMap(uploadRequest -> {
@@ -150,25 +159,48 @@ public class DocumentUploadHandler {
                                     return fileContent;
                                 })
                                 .doOnNext(content -> System.out.println("[DocumentUploadHandler] File content ready, calling uploadService"))
-                                .flatMap(fileContent -> uploadService.uploadDocument(fileContent, filePart.filename(), finalUploadRequest))
+                                .flatMap(fileContent -> documentId == null
+                                        ? uploadService.uploadDocument(fileContent, filePart.filename(), finalUploadRequest)
+                                        : uploadService.updateDocument(documentId, fileContent, filePart.filename(), finalUploadRequest))
                                 .doOnNext(response -> System.out.println("[DocumentUploadHandler] Upload service returned: " + response))
                                 .flatMap(response -> {
                                     System.out.println("[DocumentUploadHandler] Creating response with: " + response);
-                                    return ServerResponse.ok()
+                                    // 같은 문서의 동시 재색인이 재시도 후에도 충돌
+                                    return ServerResponse.status("CONFLICT".equals(response.getStatus()) ? 409 : 200)
                                             .contentType(MediaType.APPLICATION_JSON)
                                             .header("X-Session-ID", sessionId)
                                             .bodyValue(response);
                                 })
+                                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(404)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .bodyValue(new DetailedErrorResponse(
+                                                "DOCUMENT_NOT_FOUND",
+                                                "문서를 찾을 수 없습니다.",
+                                                "Document ID: " + documentId,
+                                                sessionId
+                                        ))))
                                 .doOnSuccess(serverResponse -> System.out.println("[DocumentUploadHandler] ServerResponse created successfully"))
                                 .doOnError(e -> System.err.println("[DocumentUploadHandler] Error in processDocumentUpload: " + e.getMessage()));
                     });
                 });
     }
 
+    private DocumentUploadRequest defaultUploadRequest(String documentId) {
+        DocumentUploadRequest defaultRequest = new DocumentUploadRequest();
+        // 재색인은 제목이 없으면 기존 제목을 유지
+        defaultRequest.setTitle(documentId == null ? "Untitled Document" : null);
+        defaultRequest.setDescription("");
+        defaultRequest.setCategory("");
+        return defaultRequest;
+    }
+
     public Mono<ServerResponse> getUserDocuments(ServerRequest request) {
         final String sessionId = sessionUtil.extractSessionId(request);
+        int page = Math.max(0, intQueryParam(request, "page", 0));
+        int size = Math.min(MAX_PAGE_SIZE, Math.max(1, intQueryParam(request, "size", DEFAULT_PAGE_SIZE)));
+        String category = request.queryParam("category").orElse(null);
         
-        return uploadService.getUserDocuments(sessionId)
+        return uploadService.getUserDocuments(sessionId, category, page, size)
                 .flatMap(documents -> ServerResponse.ok()
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Session-ID", sessionId)
@@ -179,35 +211,39 @@ public class DocumentUploadHandler {
         String documentId = request.pathVariable("documentId");
         final String sessionId = sessionUtil.extractSessionId(request);
         
-        return uploadService.getDocument(documentId)
-                .flatMap(document -> {
-                    if (document == null) {
-                        return ServerResponse.status(404)
-                                .contentType(MediaType.APPLICATION_JSON)
-                                .bodyValue(new DetailedErrorResponse(
-                                        "DOCUMENT_NOT_FOUND",
-                                        "문서를 찾을 수 없습니다.",
-                                        "Document ID: " + documentId,
-                                        sessionId
-                                ));
-                    }
-                    
-                    return ServerResponse.ok()
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .header("X-Session-ID", sessionId)
-                            .bodyValue(document);
-                });
+        return uploadService.getDocument(sessionId, documentId)
+                .flatMap(document -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Session-ID", sessionId)
+                        .bodyValue(document))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(404)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new DetailedErrorResponse(
+                                "DOCUMENT_NOT_FOUND",
+                                "문서를 찾을 수 없습니다.",
+                                "Document ID: " + documentId,
+                                sessionId
+                        ))));
     }
 
     public Mono<ServerResponse> deleteDocument(ServerRequest request) {
         String documentId = request.pathVariable("documentId");
         final String sessionId = sessionUtil.extractSessionId(request);
         
-        return uploadService.deleteDocument(documentId)
-                .then(ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .header("X-Session-ID", sessionId)
-                        .bodyValue("Document deleted successfully"));
+        return uploadService.deleteDocument(sessionId, documentId)
+                .flatMap(deleted -> deleted
+                        ? ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("X-Session-ID", sessionId)
+                                .bodyValue("Document deleted successfully")
+                        : ServerResponse.status(404)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(new DetailedErrorResponse(
+                                        "DOCUMENT_NOT_FOUND",
+                                        "문서를 찾을 수 없습니다.",
+                                        "Document ID: " + documentId,
+                                        sessionId
+                                )));
     }
 
     private Mono<ServerResponse> handleError(Throwable e, String sessionId) {
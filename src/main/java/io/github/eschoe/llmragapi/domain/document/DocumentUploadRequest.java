@@ -8,6 +8,8 @@ public class DocumentUploadRequest {
     private String category;
     private Map<String, Object> metadata;
     private String sessionId;
+    // 청킹 전략 이름 (sentence, structure). 비어 있으면 app.document.chunking.strategy 사용
+    private String chunkingStrategy;
 
     public DocumentUploadRequest() {}
 
@@ -31,4 +33,7 @@ public class DocumentUploadRequest {
 
     public String getSessionId() { return sessionId; }
     public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public String getChunkingStrategy() { return chunkingStrategy; }
+    public void setChunkingStrategy(String chunkingStrategy) { this.chunkingStrategy = chunkingStrategy; }
 }
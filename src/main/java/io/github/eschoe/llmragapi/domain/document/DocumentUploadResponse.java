@@ -11,6 +11,10 @@ public class DocumentUploadResponse {
     private String status;
     private int totalChunks;
     private int processedChunks;
+    // 재색인 결과 (업로드는 version 1, 모든 청크가 added)
+    private int version;
+    private int addedChunks;
+    private int removedChunks;
     private String uploadedAt;
     private List<String> errors;
     private Map<String, Object> metadata;
@@ -40,6 +44,15 @@ public class DocumentUploadResponse {
     public int getProcessedChunks() { return processedChunks; }
     public void setProcessedChunks(int processedChunks) { this.processedChunks = processedChunks; }
 
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    public int getAddedChunks() { return addedChunks; }
+    public void setAddedChunks(int addedChunks) { this.addedChunks = addedChunks; }
+
+    public int getRemovedChunks() { return removedChunks; }
+    public void setRemovedChunks(int removedChunks) { this.removedChunks = removedChunks; }
+
     public String getUploadedAt() { return uploadedAt; }
     public void setUploadedAt(String uploadedAt) { this.uploadedAt = uploadedAt; }
 
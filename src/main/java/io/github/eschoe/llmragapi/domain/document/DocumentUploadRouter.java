@@ -18,6 +18,10 @@ public class DocumentUploadRouter {
                 .POST("/api/documents/upload", 
                       contentType(MediaType.MULTIPART_FORM_DATA), 
                       handler::uploadDocument)
+                .PUT("/api/documents/{documentId}",
+                     contentType(MediaType.MULTIPART_FORM_DATA),
+                     handler::updateDocument)
+                // 세션의 문서 목록 (?page=0&size=20&category=, 최근 수정 순)
                 .GET("/api/documents", handler::getUserDocuments)
                 .GET("/api/documents/{documentId}", handler::getDocument)
                 .DELETE("/api/documents/{documentId}", handler::deleteDocument)
@@ -1,20 +1,32 @@
 package io.github.eschoe.llmragapi.domain.document;
 
 import io.github.eschoe.llmragapi.client.LlmContextClient;
+import io.github.eschoe.llmragapi.client.LlmPriority;
+import io.github.eschoe.llmragapi.dao.DocumentDao;
 import io.github.eschoe.llmragapi.dao.EmbeddingQueryDao;
+import io.github.eschoe.llmragapi.domain.document.chunk.Chunk;
+import io.github.eschoe.llmragapi.entity.DocumentRow;
 import io.github.eschoe.llmragapi.entity.EmbeddingRow;
 import io.github.eschoe.llmragapi.service.DocumentParsingService;
+import io.github.eschoe.llmragapi.util.HashUtil;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class DocumentUploadService {
@@ -22,25 +34,37 @@ public class DocumentUploadService {
     private final DocumentParsingService parsingService;
     private final LlmContextClient llmContextClient;
     private final EmbeddingQueryDao embeddingQueryDao;
-    private final ReactiveStringRedisTemplate redis;
+    private final DocumentDao documentDao;
+    private final HashUtil hash;
+    private final TransactionalOperator transactionalOperator;
 
     @Value("${app.llm.embedding-model:}")
     private String embeddingModel;
 
-    @Value("${app.document.chunk-size:1000}")
-    private int chunkSize;
+    // 동시에 진행할 청크 임베딩 요청 수 (파싱 쪽 backpressure 의 상한이기도 함)
+    @Value("${app.document.embed-concurrency:4}")
+    private int embedConcurrency;
 
-    @Value("${app.document.overlap-size:100}")
-    private int overlapSize;
+    // 해시로 기존 임베딩을 한 번에 조회할 청크 묶음 크기
+    @Value("${app.document.dedup-batch-size:32}")
+    private int dedupBatchSize;
+
+    // 같은 문서를 동시에 재색인해서 버전이 어긋났을 때 처음부터 다시 시도하는 횟수
+    @Value("${app.document.update-conflict-retries:2}")
+    private int updateConflictRetries;
 
     public DocumentUploadService(DocumentParsingService parsingService,
                                LlmContextClient llmContextClient,
                                EmbeddingQueryDao embeddingQueryDao,
-                               ReactiveStringRedisTemplate redis) {
+                               DocumentDao documentDao,
+                               HashUtil hash,
+                               TransactionalOperator transactionalOperator) {
         this.parsingService = parsingService;
         this.llmContextClient = llmContextClient;
         this.embeddingQueryDao = embeddingQueryDao;
-        this.redis = redis;
+        this.documentDao = documentDao;
+        this.hash = hash;
+        this.transactionalOperator = transactionalOperator;
     }
 
     public Mono<DocumentUploadResponse> uploadDocument(byte[] fileContent, 
@@ -51,26 +75,28 @@ public class DocumentUploadService {
         
         System.out.println("[DocumentUploadService] Starting document upload: " + fileName);
         
-        // 1. 문서 파싱
-        return parsingService.extractText(fileContent, fileName)
-                .doOnNext(text -> System.out.println("[DocumentUploadService] Text extracted, length: " + text.length()))
-                .flatMap(text -> parsingService.splitIntoChunks(text, chunkSize, overlapSize))
-                .doOnNext(chunks -> System.out.println("[DocumentUploadService] Chunks created: " + chunks.size()))
-                .flatMap(chunks -> {
-                    response.setTotalChunks(chunks.size());
-                    response.setStatus("PROCESSING");
-                    
-                    // 2. 각 청크에 대해 임베딩 생성 및 저장
-                    return processChunks(documentId, chunks, request)
-                            .map(processedCount -> {
-                                System.out.println("[DocumentUploadService] Processed chunks: " + processedCount);
-                                response.setProcessedChunks(processedCount);
-                                response.setStatus("COMPLETED");
-                                return response;
-                            });
+        // 1. 문서 파싱과 청크 분할을 스트리밍으로 진행 (파싱이 끝나기 전에 앞쪽 청크부터 임베딩 시작)
+        Flux<Chunk> chunks = parsingService.streamChunks(fileContent, fileName, request.getChunkingStrategy());
+        response.setStatus("PROCESSING");
+
+        // 2. 문서 행을 먼저 만들고(청크의 FK 대상), 각 청크에 대해 임베딩 생성 및 저장
+        return createDocument(documentId, request)
+                .then(processChunks(documentId, chunks, request))
+                .map(processedCount -> {
+                    System.out.println("[DocumentUploadService] Processed chunks: " + processedCount);
+                    response.setTotalChunks(processedCount);
+                    response.setProcessedChunks(processedCount);
+                    response.setAddedChunks(processedCount);
+                    response.setVersion(1);
+                    response.setStatus("COMPLETED");
+                    return response;
                 })
                 .doOnSuccess(r -> System.out.println("[DocumentUploadService] Upload completed: " + r))
                 .doOnError(e -> System.err.println("[DocumentUploadService] Upload error: " + e.getMessage()))
+                // 일부 청크만 저장된 채로 남지 않도록 문서를 지움 (청크는 CASCADE 로 함께 삭제)
+                .onErrorResume(e -> documentDao.delete(documentId)
+                        .onErrorResume(cleanupError -> Mono.empty())
+                        .then(Mono.error(e)))
                 .onErrorResume(e -> {
                     System.err.println("[DocumentUploadService] Creating error response");
                     DocumentUploadResponse errorResponse = new DocumentUploadResponse(documentId, request.getTitle(), "FAILED");
@@ -79,115 +105,292 @@ public class DocumentUploadService {
                 });
     }
 
-    private Mono<Integer> processChunks(String documentId, List<String> chunks, DocumentUploadRequest request) {
-        return Flux.fromIterable(chunks)
-                .index()
-                .flatMap(tuple -> {
-                    long index = tuple.getT1();
-                    String chunk = tuple.getT2();
-                    
-                    // 임베딩 생성
-                    return llmContextClient.embed(embeddingModel, chunk)
-                            .flatMap(embedding -> {
-                                // 데이터베이스에 저장
-                                EmbeddingRow row = new EmbeddingRow();
-                                row.setId(System.currentTimeMillis() + index); // Long 타입으로 변경
-                                row.setContent(chunk);
-                                // float[]를 Float[]로 변환
-                                Float[] embeddingArray = new Float[embedding.length];
-                                for (int i = 0; i < embedding.length; i++) {
-                                    embeddingArray[i] = embedding[i];
-                                }
-                                row.setEmbedding(embeddingArray);
-                                row.setTitle(request.getTitle() + " - 청크 " + (index + 1));
-                                row.setCreatedAt(OffsetDateTime.now());
-                                
-                                return embeddingQueryDao.save(row)
-                                        .then(Mono.just(1));
-                            });
+    /**
+     * 기존 문서를 새 파일로 재색인합니다.
+     *
+     * 새 청크와 저장된 청크를 내용 해시로 비교해서 바뀐 청크만 임베딩/삽입하고, 사라진 청크는 삭제하며,
+     * 그대로인 청크는 위치(순번, 오프셋)만 갱신합니다. 임베딩 API 호출은 트랜잭션 밖에서 먼저 끝내고,
+     * DB 변경(버전 증가, 삭제, 갱신, 삽입)은 하나의 트랜잭션으로 반영합니다.
+     *
+     * 비교 기준(저장된 청크)은 트랜잭션 밖에서 읽으므로, 트랜잭션 첫 문장에서 읽었던 버전일 때만 버전을 올립니다.
+     * 그 사이 다른 재색인이 커밋했으면 아무것도 쓰지 않고 되돌린 뒤 처음부터 다시 비교하고,
+     * 재시도도 모두 충돌하면 상태 CONFLICT 로 응답합니다.
+     *
+     * @return 문서가 없거나 request 의 세션이 올린 문서가 아니면 empty
+     */
+    public Mono<DocumentUploadResponse> updateDocument(String documentId,
+                                                      byte[] fileContent,
+                                                      String fileName,
+                                                      DocumentUploadRequest request) {
+        System.out.println("[DocumentUploadService] Starting document update: " + documentId + " (" + fileName + ")");
+
+        String requestedTitle = request.getTitle();
+
+        return documentDao.findByIdAndOwner(documentId, request.getSessionId())
+                .flatMap(document -> {
+                    request.setTitle(requestedTitle == null || requestedTitle.isBlank() ? document.getTitle() : requestedTitle);
+                    int expectedVersion = document.getVersion() != null ? document.getVersion() : 1;
+
+                    Mono<List<Chunk>> chunks = parsingService
+                            .streamChunks(fileContent, fileName, request.getChunkingStrategy())
+                            .collectList();
+                    Mono<List<EmbeddingRow>> stored = embeddingQueryDao.findChunkKeysByDocument(documentId).collectList();
+
+                    return Mono.zip(chunks, stored)
+                            .flatMap(t -> reindex(documentId, expectedVersion, t.getT1(), t.getT2(), request));
                 })
+                .retryWhen(Retry.max(updateConflictRetries)
+                        .filter(VersionConflictException.class::isInstance)
+                        .doBeforeRetry(signal -> System.out.println("[DocumentUploadService] Version conflict, retrying update: "
+                                + documentId + " (attempt " + (signal.totalRetries() + 2) + ")"))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(r -> System.out.println("[DocumentUploadService] Update completed: " + r))
+                .onErrorResume(e -> {
+                    System.err.println("[DocumentUploadService] Update error: " + e.getMessage());
+                    boolean conflict = e instanceof VersionConflictException;
+                    DocumentUploadResponse errorResponse = new DocumentUploadResponse(documentId, request.getTitle(),
+                            conflict ? "CONFLICT" : "FAILED");
+                    errorResponse.setErrors(List.of("문서 재색인 실패: " + e.getMessage()));
+                    return Mono.just(errorResponse);
+                });
+    }
+
+    private Mono<DocumentUploadResponse> reindex(String documentId,
+                                                 int expectedVersion,
+                                                 List<Chunk> chunks,
+                                                 List<EmbeddingRow> stored,
+                                                 DocumentUploadRequest request) {
+        Map<Chunk, String> hashes = hashChunks(chunks);
+
+        // 내용 해시가 같은 저장된 청크와 하나씩 짝지음 (같은 내용이 여러 번 나올 수 있어 큐로 관리)
+        Map<String, ArrayDeque<EmbeddingRow>> storedByHash = new HashMap<>();
+        for (EmbeddingRow row : stored) {
+            storedByHash.computeIfAbsent(row.getContentHash(), h -> new ArrayDeque<>()).add(row);
+        }
+
+        List<Chunk> added = new ArrayList<>();
+        List<EmbeddingRow> moved = new ArrayList<>();
+        int unchanged = 0;
+        for (Chunk chunk : chunks) {
+            ArrayDeque<EmbeddingRow> candidates = storedByHash.get(hashes.get(chunk));
+            EmbeddingRow match = candidates != null ? candidates.poll() : null;
+            if (match == null) {
+                added.add(chunk);
+                continue;
+            }
+
+            String title = chunkTitle(request, chunk);
+            if (Objects.equals(match.getChunkIndex(), chunk.index())
+                    && Objects.equals(match.getStartOffset(), chunk.startOffset())
+                    && Objects.equals(match.getEndOffset(), chunk.endOffset())
+                    && Objects.equals(match.getTitle(), title)) {
+                unchanged++;
+                continue;
+            }
+            match.setTitle(title);
+            match.setChunkIndex(chunk.index());
+            match.setStartOffset(chunk.startOffset());
+            match.setEndOffset(chunk.endOffset());
+            moved.add(match);
+        }
+
+        // 짝을 찾지 못한 저장된 청크는 더 이상 문서에 없는 내용
+        List<Long> removed = new ArrayList<>();
+        storedByHash.values().forEach(rows -> rows.forEach(row -> removed.add(row.getId())));
+
+        System.out.println("[DocumentUploadService] Chunk diff - added: " + added.size()
+                + ", moved: " + moved.size() + ", unchanged: " + unchanged + ", removed: " + removed.size());
+
+        return resolveEmbeddings(added, hashes)
+                .flatMap(vectors -> {
+                    List<EmbeddingRow> inserts = new ArrayList<>(added.size());
+                    for (Chunk chunk : added) {
+                        String contentHash = hashes.get(chunk);
+                        inserts.add(newRow(documentId, chunk, contentHash, vectors.get(contentHash), request));
+                    }
+
+                    // 하나의 커넥션에서 순서대로 실행. 버전 확인을 먼저 해서 문서 행을 잠그고, 어긋났으면 아무것도 쓰지 않음
+                    Mono<Integer> write = documentDao.bumpVersion(documentId, expectedVersion, request.getTitle(), chunks.size())
+                            .switchIfEmpty(Mono.error(() -> new VersionConflictException(documentId, expectedVersion)))
+                            .flatMap(version -> embeddingQueryDao.deleteByIds(removed)
+                                    .thenMany(Flux.fromIterable(moved).concatMap(embeddingQueryDao::updateChunkPosition))
+                                    .thenMany(Flux.fromIterable(inserts).concatMap(embeddingQueryDao::save))
+                                    .then(Mono.just(version)));
+
+                    return transactionalOperator.transactional(write);
+                })
+                .map(version -> {
+                    DocumentUploadResponse response = new DocumentUploadResponse(documentId, request.getTitle(), "COMPLETED");
+                    response.setVersion(version);
+                    response.setTotalChunks(chunks.size());
+                    response.setProcessedChunks(added.size() + moved.size());
+                    response.setAddedChunks(added.size());
+                    response.setRemovedChunks(removed.size());
+                    return response;
+                });
+    }
+
+    private Mono<DocumentRow> createDocument(String documentId, DocumentUploadRequest request) {
+        OffsetDateTime now = OffsetDateTime.now();
+        DocumentRow row = new DocumentRow();
+        row.setId(documentId);
+        row.setTitle(request.getTitle());
+        row.setOwnerId(request.getSessionId());
+        row.setDescription(request.getDescription() != null ? request.getDescription() : "");
+        row.setCategory(request.getCategory() != null ? request.getCategory() : "");
+        row.setTotalChunks(0);
+        row.setVersion(1);
+        row.setCreatedAt(now);
+        row.setUpdatedAt(now);
+        return documentDao.insert(row);
+    }
+
+    private Mono<Integer> processChunks(String documentId, Flux<Chunk> chunks, DocumentUploadRequest request) {
+        // 청크를 묶어서 해시로 기존 임베딩을 한 번에 조회하고, 없는 것만 임베딩 API 로 보냄
+        return chunks
+                .buffer(dedupBatchSize)
+                .flatMap(batch -> embedBatch(documentId, batch, request), 2)
                 .reduce(0, Integer::sum)
                 .flatMap(processedCount -> {
-                    // 문서 메타데이터 저장
-                    return saveDocumentMetadata(documentId, request, chunks.size())
+                    // 카탈로그에 청크 수 기록
+                    return documentDao.updateTotalChunks(documentId, processedCount)
                             .thenReturn(processedCount);
                 });
     }
 
-    private Mono<Void> saveDocumentMetadata(String documentId, DocumentUploadRequest request, int totalChunks) {
-        String key = "document:" + documentId;
-        String metadata = String.format(
-            "{\"id\":\"%s\",\"title\":\"%s\",\"description\":\"%s\",\"category\":\"%s\",\"totalChunks\":%d,\"uploadedAt\":\"%s\"}",
-            documentId,
-            request.getTitle().replace("\"", "\\\""),
-            request.getDescription() != null ? request.getDescription().replace("\"", "\\\"") : "",
-            request.getCategory() != null ? request.getCategory().replace("\"", "\\\"") : "",
-            totalChunks,
-            LocalDateTime.now().toString()
-        );
-        
-        return redis.opsForValue().set(key, metadata, Duration.ofDays(30))
-                .then();
+    private Mono<Integer> embedBatch(String documentId, List<Chunk> batch, DocumentUploadRequest request) {
+        Map<Chunk, String> hashes = hashChunks(batch);
+
+        return resolveEmbeddings(batch, hashes)
+                .flatMapMany(vectors -> Flux.fromIterable(batch)
+                        .flatMap(chunk -> {
+                            // 데이터베이스에 저장
+                            String contentHash = hashes.get(chunk);
+                            EmbeddingRow row = newRow(documentId, chunk, contentHash, vectors.get(contentHash), request);
+                            return embeddingQueryDao.save(row)
+                                    .then(Mono.just(1));
+                        }, embedConcurrency))
+                .reduce(0, Integer::sum);
     }
 
-    public Mono<List<DocumentInfo>> getUserDocuments(String sessionId) {
-        String pattern = "document:*";
-        
-        return redis.keys(pattern)
-                .flatMap(key -> redis.opsForValue().get(key)
-                        .map(this::parseDocumentInfo))
+    private Map<Chunk, String> hashChunks(List<Chunk> chunks) {
+        Map<Chunk, String> hashes = new LinkedHashMap<>();
+        for (Chunk chunk : chunks) {
+            hashes.put(chunk, hash.sha256(embeddingModel, chunk.text()));
+        }
+        return hashes;
+    }
+
+    /**
+     * 청크들의 임베딩을 내용 해시 기준으로 구합니다.
+     * 이미 저장된 해시는 DB 의 벡터를 재사용하고, 없는 것만 (같은 내용은 한 번만) 임베딩 API 로 요청합니다.
+     *
+     * @return content_hash -> embedding
+     */
+    private Mono<Map<String, Float[]>> resolveEmbeddings(List<Chunk> chunks, Map<Chunk, String> hashes) {
+        Map<String, String> textByHash = new LinkedHashMap<>();
+        for (Chunk chunk : chunks) {
+            textByHash.putIfAbsent(hashes.get(chunk), chunk.text());
+        }
+
+        return embeddingQueryDao.findEmbeddingsByHashes(textByHash.keySet())
+                .flatMap(existing -> {
+                    System.out.println("[DocumentUploadService] Reusing embeddings: " + existing.size() + "/" + textByHash.size());
+
+                    Map<String, Float[]> vectors = new ConcurrentHashMap<>(existing);
+                    return Flux.fromIterable(textByHash.entrySet())
+                            .filter(entry -> !existing.containsKey(entry.getKey()))
+                            .flatMap(entry -> embed(entry.getValue())
+                                    .doOnNext(vector -> vectors.put(entry.getKey(), vector)), embedConcurrency)
+                            .then(Mono.fromSupplier(() -> vectors));
+                });
+    }
+
+    private EmbeddingRow newRow(String documentId, Chunk chunk, String contentHash, Float[] embedding, DocumentUploadRequest request) {
+        EmbeddingRow row = new EmbeddingRow();
+        row.setDocumentId(documentId);
+        row.setContent(chunk.text());
+        row.setEmbedding(embedding);
+        row.setContentHash(contentHash);
+        row.setTitle(chunkTitle(request, chunk));
+        row.setChunkIndex(chunk.index());
+        row.setStartOffset(chunk.startOffset());
+        row.setEndOffset(chunk.endOffset());
+        row.setCreatedAt(OffsetDateTime.now());
+        return row;
+    }
+
+    private String chunkTitle(DocumentUploadRequest request, Chunk chunk) {
+        return request.getTitle() + " - 청크 " + (chunk.index() + 1);
+    }
+
+    private Mono<Float[]> embed(String text) {
+        // 문서 적재는 대량 호출이므로 대화 요청에 할당량을 양보 (LlmQuotaScheduler)
+        return llmContextClient.embed(embeddingModel, text)
+                .contextWrite(LlmPriority.BULK.asContext())
+                .map(embedding -> {
+                    // float[]를 Float[]로 변환
+                    Float[] embeddingArray = new Float[embedding.length];
+                    for (int i = 0; i < embedding.length; i++) {
+                        embeddingArray[i] = embedding[i];
+                    }
+                    return embeddingArray;
+                });
+    }
+
+    /**
+     * 세션이 올린 문서를 최근 수정 순으로 한 페이지 조회합니다.
+     *
+     * @param category null 이거나 비어 있으면 모든 카테고리
+     */
+    public Mono<DocumentPage> getUserDocuments(String sessionId, String category, int page, int size) {
+        long offset = (long) page * size;
+
+        Mono<List<DocumentInfo>> documents = documentDao.findByOwner(sessionId, category, size, offset)
+                .map(this::toDocumentInfo)
                 .collectList();
+
+        return Mono.zip(documents, documentDao.countByOwner(sessionId, category))
+                .map(t -> new DocumentPage(t.getT1(), page, size, t.getT2()));
     }
 
-    public Mono<DocumentInfo> getDocument(String documentId) {
-        String key = "document:" + documentId;
-        
-        return redis.opsForValue().get(key)
-                .map(this::parseDocumentInfo);
+    /**
+     * @return 문서가 없거나 다른 세션의 문서면 empty
+     */
+    public Mono<DocumentInfo> getDocument(String sessionId, String documentId) {
+        return documentDao.findByIdAndOwner(documentId, sessionId)
+                .map(this::toDocumentInfo);
     }
 
-    public Mono<Void> deleteDocument(String documentId) {
-        String key = "document:" + documentId;
-        
-        return redis.delete(key)
-                .then(embeddingQueryDao.deleteByTitle(documentId + "%"))
-                .then();
-    }
-
-    private DocumentInfo parseDocumentInfo(String metadataJson) {
-        try {
-            // 간단한 JSON 파싱 (실제로는 Jackson 사용 권장)
-            String id = extractValue(metadataJson, "id");
-            String title = extractValue(metadataJson, "title");
-            String description = extractValue(metadataJson, "description");
-            String category = extractValue(metadataJson, "category");
-            int totalChunks = Integer.parseInt(extractValue(metadataJson, "totalChunks"));
-            String uploadedAt = extractValue(metadataJson, "uploadedAt");
-            
-            return new DocumentInfo(id, title, description, category, totalChunks, LocalDateTime.parse(uploadedAt));
-        } catch (Exception e) {
-            return new DocumentInfo("unknown", "파싱 오류", "", "", 0, LocalDateTime.now());
-        }
+    /**
+     * @return 삭제했으면 true, 문서가 없거나 다른 세션의 문서면 false
+     */
+    public Mono<Boolean> deleteDocument(String sessionId, String documentId) {
+        // 청크는 document_id FK 의 ON DELETE CASCADE 로 함께 삭제됨
+        return documentDao.deleteByOwner(documentId, sessionId)
+                .map(deleted -> deleted > 0);
     }
 
-    private String extractValue(String json, String key) {
-        String pattern = "\"" + key + "\":\"";
-        int start = json.indexOf(pattern);
-        if (start == -1) {
-            // 숫자 값인 경우
-            pattern = "\"" + key + "\":";
-            start = json.indexOf(pattern);
-            if (start == -1) return "";
-            start += pattern.length();
-            int end = json.indexOf(",", start);
-            if (end == -1) end = json.indexOf("}", start);
-            if (end == -1) return "";
-            return json.substring(start, end).trim();
+    private DocumentInfo toDocumentInfo(DocumentRow row) {
+        DocumentInfo info = new DocumentInfo(
+                row.getId(),
+                row.getTitle(),
+                row.getDescription() != null ? row.getDescription() : "",
+                row.getCategory() != null ? row.getCategory() : "",
+                row.getTotalChunks() != null ? row.getTotalChunks() : 0,
+                row.getCreatedAt() != null ? row.getCreatedAt().toLocalDateTime() : null);
+        info.setVersion(row.getVersion() != null ? row.getVersion() : 1);
+        info.setUpdatedAt(row.getUpdatedAt() != null ? row.getUpdatedAt().toLocalDateTime() : null);
+        return info;
+    }
+
+    /**
+     * 재색인 중에 같은 문서의 버전이 바뀜 (다른 재색인이 먼저 커밋하거나 문서가 삭제됨)
+     */
+    public static class VersionConflictException extends RuntimeException {
+        public VersionConflictException(String documentId, int expectedVersion) {
+            super("문서가 다른 요청으로 변경되었습니다: " + documentId + " (기대한 버전 " + expectedVersion + ")");
         }
-        start += pattern.length();
-        int end = json.indexOf("\"", start);
-        if (end == -1) return "";
-        return json.substring(start, end);
     }
 
     public static class DocumentInfo {
@@ -197,6 +400,8 @@ public class DocumentUploadService {
         private String category;
         private int totalChunks;
         private LocalDateTime uploadedAt;
+        private int version;
+        private LocalDateTime updatedAt;
 
         public DocumentInfo() {}
 
@@ -227,5 +432,11 @@ public class DocumentUploadService {
 
         public LocalDateTime getUploadedAt() { return uploadedAt; }
         public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+
+        public int getVersion() { return version; }
+        public void setVersion(int version) { this.version = version; }
+
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     }
 }
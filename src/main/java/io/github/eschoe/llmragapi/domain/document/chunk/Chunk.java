@@ -0,0 +1,15 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+/**
+ * 문서에서 잘라낸 하나의 청크
+ *
+ * 오프셋은 추출된 텍스트(Tika 가 내보낸 문자 스트림, OCR 결과 등)에서 청크가 덮는 구간입니다.
+ * 본문은 그 구간을 그대로 자른 것이 아니라 문장 사이 공백을 하나로 합치고, 구조 청킹의 목록 기호("- ")와
+ * 셀 구분자(" | ")를 넣은 형태입니다. 오버랩 문장이 있으면 구간도 이전 청크와 겹칩니다.
+ *
+ * @param index       문서 내 청크 순번 (0부터)
+ * @param text        청크 본문
+ * @param startOffset 추출된 전체 텍스트 기준 시작 오프셋 (문자 단위, 포함)
+ * @param endOffset   추출된 전체 텍스트 기준 끝 오프셋 (문자 단위, 미포함)
+ */
+public record Chunk(int index, String text, long startOffset, long endOffset) { }
@@ -0,0 +1,15 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+/**
+ * 청크 크기를 재는 단위 (문자 수, 토큰 수 등)
+ *
+ * 텍스트에 k 개의 문자를 더하면 크기도 최대 k 만큼만 늘어난다고 가정합니다.
+ * 청커는 이 가정으로 긴 문장의 크기를 매 문자마다 다시 재지 않습니다.
+ */
+@FunctionalInterface
+public interface ChunkSizer {
+
+    ChunkSizer CHARACTERS = CharSequence::length;
+
+    int measure(CharSequence text);
+}
@@ -0,0 +1,37 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import java.util.Set;
+
+/**
+ * Tika 의 SAX(XHTML) 이벤트를 {@link StreamingChunker} 로 흘려보내는 기본 핸들러
+ *
+ * 블록 요소가 끝날 때마다 문장을 닫아 문단 경계가 문장 경계로 인식되게 합니다.
+ */
+public class ChunkingContentHandler extends ChunkingHandler {
+
+    private static final Set<String> BLOCK_ELEMENTS = Set.of(
+            "p", "div", "br", "li", "tr", "td", "th", "pre", "blockquote",
+            "h1", "h2", "h3", "h4", "h5", "h6"
+    );
+
+    public ChunkingContentHandler(StreamingChunker chunker) {
+        super(chunker);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        chunker.append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        chunker.append(ch, start, length);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if (BLOCK_ELEMENTS.contains(localName)) {
+            chunker.endSentence();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * 하나의 문서를 청크로 나누는 동안 사용하는 SAX 핸들러
+ *
+ * Tika 의 XHTML 이벤트를 받을 수도 있고, OCR 결과처럼 이미 추출된 일반 텍스트를
+ * {@link #appendText(CharSequence)} 로 받을 수도 있습니다.
+ * 파싱이 끝나면 반드시 {@link #finish()} 를 호출해야 마지막 청크가 나갑니다.
+ */
+public abstract class ChunkingHandler extends DefaultHandler {
+
+    protected final StreamingChunker chunker;
+
+    protected ChunkingHandler(StreamingChunker chunker) {
+        this.chunker = chunker;
+    }
+
+    public void appendText(CharSequence text) {
+        chunker.append(text);
+    }
+
+    public void finish() {
+        chunker.finish();
+    }
+
+    public int emittedCount() {
+        return chunker.emittedCount();
+    }
+}
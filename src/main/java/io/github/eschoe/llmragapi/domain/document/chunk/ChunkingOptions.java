@@ -0,0 +1,10 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+/**
+ * 청킹 전략에 넘기는 크기 설정
+ *
+ * @param sizer       크기 단위 (토큰 수 또는 문자 수)
+ * @param maxSize     청크 하나의 최대 크기
+ * @param overlapSize 이웃 청크와 겹치게 둘 크기 (maxSize 의 절반을 넘지 않음)
+ */
+public record ChunkingOptions(ChunkSizer sizer, int maxSize, int overlapSize) { }
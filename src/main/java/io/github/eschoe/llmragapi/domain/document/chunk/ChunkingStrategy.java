@@ -0,0 +1,19 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import java.util.function.Consumer;
+
+/**
+ * 청킹 전략 SPI
+ *
+ * 구현체를 스프링 빈으로 등록하면 {@link #name()} 으로 선택할 수 있습니다.
+ * (app.document.chunking.strategy 설정 또는 업로드 요청의 chunkingStrategy)
+ */
+public interface ChunkingStrategy {
+
+    String name();
+
+    /**
+     * 문서 하나를 처리할 핸들러를 엽니다. 핸들러는 청크가 완성될 때마다 downstream 으로 내보냅니다.
+     */
+    ChunkingHandler open(ChunkingOptions options, Consumer<Chunk> downstream);
+}
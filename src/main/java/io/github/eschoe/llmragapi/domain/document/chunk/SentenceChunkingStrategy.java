@@ -0,0 +1,25 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 문서 구조와 무관하게 문장 경계에서만 자르는 전략
+ */
+@Component
+public class SentenceChunkingStrategy implements ChunkingStrategy {
+
+    public static final String NAME = "sentence";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ChunkingHandler open(ChunkingOptions options, Consumer<Chunk> downstream) {
+        return new ChunkingContentHandler(
+                new StreamingChunker(options.sizer(), options.maxSize(), options.overlapSize(), downstream));
+    }
+}
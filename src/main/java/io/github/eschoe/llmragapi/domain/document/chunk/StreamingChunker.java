@@ -0,0 +1,348 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * 문자 스트림을 받아 문장 단위로 청크를 만들어 바로 내보내는 청커
+ *
+ * 전체 문서를 하나의 String 으로 모으지 않고, 현재 청크에 들어갈 문장들과
+ * 아직 끝나지 않은 문장 하나만 버퍼에 유지합니다. 따라서 메모리 사용량은
+ * 문서 크기가 아니라 청크 크기에 비례합니다.
+ *
+ * 크기는 {@link ChunkSizer} 로 재며(문자 수 또는 토큰 수), 문장 종결 부호는 잘라내지 않고 보존합니다.
+ *
+ * 오프셋은 {@link #append} 로 받은 원문 문자만 셉니다. 구조 핸들러가 넣는 목록 기호나 셀 구분자는
+ * {@link #appendSynthetic} 으로 넘겨 청크 본문에는 들어가되 오프셋은 움직이지 않게 합니다.
+ *
+ * 스레드 안전하지 않으며, 하나의 문서 파싱 동안 하나의 스레드에서만 사용합니다.
+ */
+public class StreamingChunker {
+
+    private final ChunkSizer sizer;
+    private final int maxSize;
+    private final int overlapSize;
+    private final int separatorSize;
+    private final Consumer<Chunk> downstream;
+
+    // 현재 청크를 구성하는 문장들 (앞쪽은 이전 청크에서 넘어온 오버랩)
+    private final ArrayDeque<Sentence> sentences = new ArrayDeque<>();
+    private int bufferedSize;
+    private int freshSentences;
+
+    // 아직 종결되지 않은 문장
+    private final StringBuilder pending = new StringBuilder();
+    // pending 안에서 원문에 없는(합성) 문자의 위치
+    private BitSet synthetic = new BitSet();
+    private long pendingStart;
+    private int nextPendingCheck;
+
+    // true 이면 줄바꿈/종결 부호로 문장을 나누지 않음 (코드 블록 등)
+    private boolean verbatim;
+
+    private long position;
+    private int nextIndex;
+
+    public StreamingChunker(int chunkSize, int overlapSize, Consumer<Chunk> downstream) {
+        this(ChunkSizer.CHARACTERS, chunkSize, overlapSize, downstream);
+    }
+
+    public StreamingChunker(ChunkSizer sizer, int maxSize, int overlapSize, Consumer<Chunk> downstream) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+        this.sizer = sizer;
+        this.maxSize = maxSize;
+        this.overlapSize = Math.max(0, Math.min(overlapSize, maxSize / 2));
+        this.separatorSize = sizer.measure(" ");
+        this.downstream = downstream;
+        this.nextPendingCheck = pendingLimit();
+    }
+
+    public void append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    public void append(char[] ch, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            accept(ch[i]);
+        }
+    }
+
+    /**
+     * 원문에 없는 텍스트(목록 기호, 셀 구분자 등)를 진행 중인 문장에 붙입니다.
+     * 오프셋을 움직이지 않고, 문장 경계 판단에도 쓰지 않습니다.
+     */
+    public void appendSynthetic(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (pending.isEmpty()) {
+                if (Character.isWhitespace(c)) continue;
+                pendingStart = position;
+            }
+            synthetic.set(pending.length());
+            pending.append(c);
+        }
+    }
+
+    /**
+     * 진행 중인 문장을 닫습니다. (블록 요소 경계 등)
+     */
+    public void endSentence() {
+        closeSentence();
+    }
+
+    /**
+     * 현재까지의 내용을 청크로 내보내고, 다음 청크는 오버랩 없이 새로 시작합니다.
+     * 제목이나 표처럼 이전 내용과 섞이면 안 되는 구조 경계에서 사용합니다.
+     */
+    public void breakChunk() {
+        closeSentence();
+        if (freshSentences > 0) {
+            emit();
+        }
+        sentences.clear();
+        bufferedSize = 0;
+    }
+
+    public void setVerbatim(boolean verbatim) {
+        if (this.verbatim != verbatim) {
+            closeSentence();
+            this.verbatim = verbatim;
+        }
+    }
+
+    /**
+     * 남은 문장을 마무리하고 마지막 청크를 내보냅니다.
+     */
+    public void finish() {
+        closeSentence();
+        if (freshSentences > 0) {
+            emit();
+        }
+    }
+
+    public int emittedCount() {
+        return nextIndex;
+    }
+
+    private void accept(char c) {
+        if (Character.isWhitespace(c)) {
+            if (pending.isEmpty()) {
+                // 문장 앞 공백은 버림
+                position++;
+                return;
+            }
+            if (!verbatim && (c == '\n' || isSentenceEnd(pending))) {
+                // 줄바꿈 또는 "종결 부호/어미 + 공백" 에서 문장 종결
+                closeSentence();
+                position++;
+                return;
+            }
+        }
+
+        // 블록 경계(endSentence) 바로 뒤에 공백 없이 이어지는 문장도 시작 위치를 제대로 잡음
+        if (pending.isEmpty()) pendingStart = position;
+        pending.append(c);
+        position++;
+
+        // 종결 부호 없이 너무 긴 문장은 강제로 자름 (오버랩이 들어갈 자리는 남겨둠)
+        if (pending.length() >= nextPendingCheck) {
+            int measured = sizer.measure(pending);
+            if (measured >= pendingLimit()) {
+                splitOversizedPending();
+            } else {
+                nextPendingCheck = pending.length() + (pendingLimit() - measured);
+            }
+        }
+    }
+
+    private int pendingLimit() {
+        return Math.max(1, maxSize - overlapSize);
+    }
+
+    /**
+     * 마침표/느낌표/물음표(전각 포함)와 말줄임표, 그리고 한국어 종결 어미를 문장 끝으로 봅니다.
+     * 닫는 따옴표나 괄호가 뒤에 붙은 경우도 처리합니다.
+     *
+     * "다", "요", "까" 는 명사 끝에도 흔하므로("바다", "필요", "과다") 앞 음절이 어미 모양일 때만 종결로 봅니다.
+     * - 다: ㅆ 받침(했다, 있다, 겠다), ㄴ 받침(한다, 간다, 는다) 또는 니다, 이다, 없다, 좋다 ...
+     * - 요: 세요, 에요, 예요, 어요, 아요, 해요, 네요, 지요, 까요, 나요, 군요, 데요 ...
+     * - 까: 니까(습니까), ㄹ 받침 + 까(할까, 볼까)
+     * - 죠: 앞이 한글이면 항상 (하죠, 그렇죠)
+     */
+    static boolean isSentenceEnd(CharSequence s) {
+        int i = s.length() - 1;
+        while (i > 0 && isClosing(s.charAt(i))) i--;
+        char c = s.charAt(i);
+        switch (c) {
+            case '.', '!', '?', '。', '！', '？', '…':
+                return true;
+            case '다', '요', '죠', '까': {
+                // 한 글자짜리 단어("다", "요")는 종결 어미로 보지 않음
+                if (i == 0 || !isHangul(s.charAt(i - 1))) return false;
+                char prev = s.charAt(i - 1);
+                return switch (c) {
+                    case '다' -> jongseong(prev) == JONG_SS || jongseong(prev) == JONG_N || DA_STEMS.indexOf(prev) >= 0;
+                    case '요' -> jongseong(prev) == JONG_SS || YO_STEMS.indexOf(prev) >= 0;
+                    case '까' -> prev == '니' || jongseong(prev) == JONG_L;
+                    default -> true;
+                };
+            }
+            default:
+                return false;
+        }
+    }
+
+    // "다" / "요" 앞에 오면 종결 어미로 보는 음절
+    private static final String DA_STEMS = "니이없좋많않같렵쉽";
+    private static final String YO_STEMS = "세에예어아해돼워져봐줘네지까나군데래대려죠";
+    private static final int JONG_N = 4;
+    private static final int JONG_L = 8;
+    private static final int JONG_SS = 20;
+
+    private static int jongseong(char c) {
+        return isHangul(c) ? (c - '가') % 28 : -1;
+    }
+
+    private static boolean isClosing(char c) {
+        return c == '"' || c == '\'' || c == ')' || c == ']' || c == '”' || c == '’' || c == '」' || c == '』';
+    }
+
+    private static boolean isHangul(char c) {
+        return c >= '가' && c <= '힣';
+    }
+
+    private void splitOversizedPending() {
+        int cut = lastWhitespace(pending, pending.length() / 2);
+        if (cut <= 0) cut = pending.length();
+
+        String head = pending.substring(0, cut);
+        String tail = pending.substring(cut);
+        long headStart = pendingStart;
+        long headEnd = headStart + sourceLength(0, cut);
+
+        // 남은 꼬리 부분은 다음 문장의 시작으로 유지
+        int lead = 0;
+        while (lead < tail.length() && Character.isWhitespace(tail.charAt(lead))) lead++;
+        long tailStart = headEnd + sourceLength(cut, cut + lead);
+        BitSet tailSynthetic = synthetic.get(cut + lead, Math.max(cut + lead, pending.length()));
+
+        pending.setLength(0);
+        synthetic.clear();
+        addSentence(head.trim(), headStart, headEnd);
+
+        pending.append(tail, lead, tail.length());
+        synthetic = tailSynthetic;
+        pendingStart = tailStart;
+        nextPendingCheck = pending.length() + 1;
+    }
+
+    private void closeSentence() {
+        nextPendingCheck = pendingLimit();
+        if (pending.isEmpty()) return;
+        String text = pending.toString().trim();
+        long start = pendingStart;
+        long end = pendingStart + sourceLength(0, pending.length());
+        pending.setLength(0);
+        synthetic.clear();
+        addSentence(text, start, end);
+    }
+
+    // pending[from, to) 중 원문에서 온 문자 수
+    private int sourceLength(int from, int to) {
+        return (to - from) - synthetic.get(from, to).cardinality();
+    }
+
+    private void addSentence(String text, long start, long end) {
+        if (text.isEmpty()) return;
+        Sentence sentence = new Sentence(text, sizer.measure(text), start, end);
+
+        if (freshSentences > 0 && joinedSize(sentence) > maxSize) {
+            emit();
+        }
+        // 오버랩만 남은 상태에서 새 문장이 들어가지 않으면 오버랩을 앞에서부터 버림
+        while (!sentences.isEmpty() && joinedSize(sentence) > maxSize) {
+            Sentence dropped = sentences.pollFirst();
+            bufferedSize = sentences.isEmpty() ? 0 : bufferedSize - dropped.size() - separatorSize;
+        }
+
+        bufferedSize = joinedSize(sentence);
+        sentences.addLast(sentence);
+        freshSentences++;
+    }
+
+    private int joinedSize(Sentence next) {
+        return bufferedSize + (sentences.isEmpty() ? 0 : separatorSize) + next.size();
+    }
+
+    private void emit() {
+        StringBuilder sb = new StringBuilder();
+        Iterator<Sentence> it = sentences.iterator();
+        while (it.hasNext()) {
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(it.next().text());
+        }
+
+        downstream.accept(new Chunk(nextIndex++, sb.toString(), sentences.peekFirst().start(), sentences.peekLast().end()));
+        retainOverlap();
+        freshSentences = 0;
+    }
+
+    private void retainOverlap() {
+        if (overlapSize == 0) {
+            sentences.clear();
+            bufferedSize = 0;
+            return;
+        }
+
+        // 뒤쪽 문장들 중 overlapSize 이내로 들어오는 만큼만 남김
+        ArrayDeque<Sentence> kept = new ArrayDeque<>();
+        int keptSize = 0;
+        Iterator<Sentence> it = sentences.descendingIterator();
+        while (it.hasNext()) {
+            Sentence s = it.next();
+            int add = s.size() + (kept.isEmpty() ? 0 : separatorSize);
+            if (keptSize + add > overlapSize) break;
+            kept.addFirst(s);
+            keptSize += add;
+        }
+
+        // 마지막 문장 하나가 오버랩보다 길면 단어 경계에서 꼬리만 남김
+        if (kept.isEmpty() && !sentences.isEmpty()) {
+            Sentence last = sentences.peekLast();
+            String tail = tailWithin(last.text(), overlapSize);
+            if (!tail.isEmpty()) {
+                kept.add(new Sentence(tail, sizer.measure(tail), Math.max(last.start(), last.end() - tail.length()), last.end()));
+                keptSize = kept.peekFirst().size();
+            }
+        }
+
+        sentences.clear();
+        sentences.addAll(kept);
+        bufferedSize = keptSize;
+    }
+
+    private String tailWithin(String text, int budget) {
+        // 뒤에서부터 단어 단위로 늘려가며 budget 안에 들어오는 가장 긴 꼬리를 찾음
+        String best = "";
+        int ws = text.length();
+        while ((ws = text.lastIndexOf(' ', ws - 1)) > 0) {
+            String candidate = text.substring(ws + 1);
+            if (sizer.measure(candidate) > budget) break;
+            best = candidate;
+        }
+        return best;
+    }
+
+    private static int lastWhitespace(CharSequence s, int from) {
+        for (int i = s.length() - 1; i >= from; i--) {
+            if (Character.isWhitespace(s.charAt(i))) return i;
+        }
+        return -1;
+    }
+
+    private record Sentence(String text, int size, long start, long end) { }
+}
@@ -0,0 +1,87 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import org.xml.sax.Attributes;
+
+import java.util.Set;
+
+/**
+ * Tika XHTML 의 문서 구조를 보고 청크 경계를 정하는 핸들러
+ *
+ * - 제목(h1~h6)이 나오면 새 청크를 시작하고, 제목 문장을 청크 맨 앞에 둡니다.
+ * - 표는 앞뒤 내용과 섞지 않고, 행 단위로 "셀 | 셀" 형태의 문장으로 만듭니다.
+ * - pre/code 블록은 줄바꿈을 유지한 채 하나의 단위로 다룹니다. (너무 길면 크기 제한에서 잘림)
+ * - 목록 항목은 "- " 로 시작하는 문장으로 만듭니다.
+ */
+public class StructureChunkingHandler extends ChunkingHandler {
+
+    private static final Set<String> HEADINGS = Set.of("h1", "h2", "h3", "h4", "h5", "h6");
+    private static final Set<String> BLOCK_ELEMENTS = Set.of("p", "div", "br", "blockquote", "li", "tr");
+
+    // 원문에 없는 구분 문자. 청크 본문에는 넣지만 오프셋은 원문 기준으로 유지
+    private static final String LIST_BULLET = "- ";
+    private static final String CELL_SEPARATOR = " | ";
+
+    private int tableDepth;
+    private int codeDepth;
+    private boolean cellOpen;
+
+    public StructureChunkingHandler(StreamingChunker chunker) {
+        super(chunker);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if (HEADINGS.contains(localName)) {
+            chunker.breakChunk();
+        } else if ("table".equals(localName)) {
+            if (tableDepth++ == 0) chunker.breakChunk();
+        } else if ("pre".equals(localName) || ("code".equals(localName) && codeDepth > 0)) {
+            if (codeDepth++ == 0) {
+                chunker.endSentence();
+                chunker.setVerbatim(true);
+            }
+        } else if ("li".equals(localName)) {
+            chunker.endSentence();
+            chunker.appendSynthetic(LIST_BULLET);
+        } else if (tableDepth > 0 && ("td".equals(localName) || "th".equals(localName))) {
+            if (cellOpen) chunker.appendSynthetic(CELL_SEPARATOR);
+            cellOpen = true;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if (HEADINGS.contains(localName)) {
+            chunker.endSentence();
+        } else if ("table".equals(localName)) {
+            if (--tableDepth == 0) chunker.breakChunk();
+        } else if ("pre".equals(localName) || ("code".equals(localName) && codeDepth > 1)) {
+            if (--codeDepth == 0) chunker.setVerbatim(false);
+        } else if ("tr".equals(localName)) {
+            cellOpen = false;
+            chunker.endSentence();
+        } else if (BLOCK_ELEMENTS.contains(localName) && codeDepth == 0) {
+            chunker.endSentence();
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (tableDepth > 0 && codeDepth == 0) {
+            // 셀 안의 줄바꿈이 행을 쪼개지 않도록 공백으로 바꿔서 넘김
+            char[] flat = new char[length];
+            for (int i = 0; i < length; i++) {
+                char c = ch[start + i];
+                flat[i] = (c == '\n' || c == '\r') ? ' ' : c;
+            }
+            chunker.append(flat, 0, length);
+            return;
+        }
+        chunker.append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        characters(ch, start, length);
+    }
+}
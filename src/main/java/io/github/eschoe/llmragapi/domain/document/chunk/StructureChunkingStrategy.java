@@ -0,0 +1,25 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 제목, 표, 코드 블록 등 Tika XHTML 구조를 경계로 삼는 전략 (기본값)
+ */
+@Component
+public class StructureChunkingStrategy implements ChunkingStrategy {
+
+    public static final String NAME = "structure";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ChunkingHandler open(ChunkingOptions options, Consumer<Chunk> downstream) {
+        return new StructureChunkingHandler(
+                new StreamingChunker(options.sizer(), options.maxSize(), options.overlapSize(), downstream));
+    }
+}
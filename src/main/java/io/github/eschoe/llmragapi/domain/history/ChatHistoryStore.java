@@ -1,44 +1,95 @@
 package io.github.eschoe.llmragapi.domain.history;
 
+import io.github.eschoe.llmragapi.service.SideEffectPipeline;
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
 import io.github.eschoe.llmragapi.util.SimpleDurationParser;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class ChatHistoryStore {
 
+    /**
+     * 메시지들을 LPUSH 하고 LTRIM, PEXPIRE 까지 한 번의 왕복으로 원자적으로 처리 (HistoryVectorIndex 도 같이 사용)
+     * KEYS[1] = 리스트 키, ARGV[1] = 최대 개수, ARGV[2] = TTL(ms), ARGV[3..] = 항목 (오래된 것부터)
+     */
+    static final RedisScript<Long> APPEND_SCRIPT = RedisScript.of("""
+            local key = KEYS[1]
+            for i = 3, #ARGV do
+              redis.call('LPUSH', key, ARGV[i])
+            end
+            redis.call('LTRIM', key, 0, tonumber(ARGV[1]) - 1)
+            redis.call('PEXPIRE', key, ARGV[2])
+            return redis.call('LLEN', key)
+            """, Long.class);
+
     @Value("${app.llm.hist-max:50}") private long historyMax;
     @Value("${app.llm.hist-ttl-times:48h}") private String historyTtlTimes;
 
     private final ReactiveStringRedisTemplate redis;
     private final SimpleDurationParser parser;
+    private final SideEffectPipeline sideEffects;
+    private final RedisJsonCodec codec;
 
-    public ChatHistoryStore(@Qualifier("redisWriterTemplate") ReactiveStringRedisTemplate redis, SimpleDurationParser parser) {
+    public ChatHistoryStore(@Qualifier("redisWriterTemplate") ReactiveStringRedisTemplate redis,
+                            SimpleDurationParser parser,
+                            SideEffectPipeline sideEffects,
+                            RedisJsonCodec codec) {
         this.redis = redis;
         this.parser = parser;
+        this.sideEffects = sideEffects;
+        this.codec = codec;
     }
 
     public Mono<Void> append(String sessionId, String messageJson) {
+        return ignoreErrors(appendAll(sessionId, List.of(messageJson)));
+    }
+
+    /**
+     * 질문과 답변 한 턴을 한 번의 Redis 왕복으로 저장합니다.
+     */
+    public Mono<Void> appendTurn(String sessionId, HistoryMessage question, HistoryMessage answer) {
+        return ignoreErrors(appendAll(sessionId, List.of(codec.encode(question), codec.encode(answer))));
+    }
+
+    /**
+     * appendTurn 을 {@link SideEffectPipeline} 에 맡깁니다. 응답을 기다리지 않으며, 실패하면 파이프라인이 재시도합니다.
+     */
+    public void appendTurnAsync(String sessionId, HistoryMessage question, HistoryMessage answer) {
+        List<String> messages = List.of(codec.encode(question), codec.encode(answer));
+        sideEffects.submit("chat-history", () -> appendAll(sessionId, messages));
+    }
+
+    private Mono<Void> appendAll(String sessionId, List<String> messages) {
 
         String redisKey = "chat:hist:%s".formatted(sessionId);
         Duration ttlTimes = parser.parse(historyTtlTimes);
 
-        return redis.opsForList().leftPush(redisKey, messageJson)
-                .then(redis.opsForList().trim(redisKey, 0, historyMax - 1))
-                .then(redis.expire(redisKey, ttlTimes))
-                .then()
-                .onErrorResume(throwable -> {
-                    // Redis 연결 오류 시 로그만 출력하고 계속 진행
-                    System.err.println("Redis connection error in append(): " + throwable.getMessage());
-                    return Mono.empty();
-                });
+        List<String> args = new ArrayList<>(messages.size() + 2);
+        args.add(String.valueOf(historyMax));
+        args.add(String.valueOf(ttlTimes.toMillis()));
+        args.addAll(messages);
+
+        return redis.execute(APPEND_SCRIPT, List.of(redisKey), args)
+                .then();
+
+    }
 
+    private Mono<Void> ignoreErrors(Mono<Void> write) {
+        return write.onErrorResume(throwable -> {
+            // Redis 연결 오류 시 로그만 출력하고 계속 진행
+            System.err.println("Redis connection error in append(): " + throwable.getMessage());
+            return Mono.empty();
+        });
     }
 
     public Flux<String> recent(String sessionId, long rateLimit) {
@@ -62,6 +113,21 @@ public class ChatHistoryStore {
 
     }
 
+    /**
+     * 최근 메시지를 오래된 것부터 파싱해서 돌려줍니다. 파싱할 수 없는 항목은 건너뜁니다.
+     */
+    public Flux<HistoryMessage> recentMessages(String sessionId, long limit) {
+        return recent(sessionId, limit)
+                .flatMap(json -> {
+                    try {
+                        return Mono.just(codec.decode(json, HistoryMessage.class));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Invalid history entry skipped: " + e.getMessage());
+                        return Mono.empty();
+                    }
+                });
+    }
+
     /**
      * 특정 세션의 대화 히스토리를 모두 삭제합니다.
      * 
@@ -70,7 +136,8 @@ public class ChatHistoryStore {
      */
     public Mono<Void> clearHistory(String sessionId) {
         String redisKey = "chat:hist:%s".formatted(sessionId);
-        return redis.delete(redisKey).then();
+        // 히스토리에서 만든 누적 요약(ConversationMemory)과 턴 임베딩 인덱스도 함께 삭제
+        return redis.delete(redisKey, ConversationMemory.summaryKey(sessionId), HistoryVectorIndex.indexKey(sessionId)).then();
     }
 
     /**
@@ -92,7 +159,7 @@ public class ChatHistoryStore {
      * @return 포맷팅된 대화 히스토리
      */
     public Mono<String> getFormattedHistory(String sessionId, long limit) {
-        return recent(sessionId, limit)
+        return recentMessages(sessionId, limit)
                 .collectList()
                 .map(messages -> {
                     if (messages.isEmpty()) {
@@ -100,32 +167,15 @@ public class ChatHistoryStore {
                     }
                     
                     StringBuilder formatted = new StringBuilder();
-                    for (String message : messages) {
-                        try {
-                            // JSON 파싱 시도 (간단한 형태)
-                            if (message.contains("\"role\":\"user\"")) {
-                                String content = extractContent(message, "content");
-                                formatted.append("사용자: ").append(content).append("\n");
-                            } else if (message.contains("\"role\":\"assistant\"")) {
-                                String content = extractContent(message, "content");
-                                formatted.append("AI: ").append(content).append("\n");
-                            }
-                        } catch (Exception e) {
-                            // JSON 파싱 실패 시 원본 메시지 사용
-                            formatted.append(message).append("\n");
+                    for (HistoryMessage message : messages) {
+                        if ("user".equals(message.role())) {
+                            formatted.append("사용자: ").append(message.content()).append("\n");
+                        } else if ("assistant".equals(message.role())) {
+                            formatted.append("AI: ").append(message.content()).append("\n");
                         }
                     }
                     return formatted.toString();
                 });
     }
 
-    private String extractContent(String json, String key) {
-        int start = json.indexOf("\"" + key + "\":\"") + key.length() + 4;
-        int end = json.lastIndexOf("\"");
-        if (start > key.length() + 3 && end > start) {
-            return json.substring(start, end).replace("\\\"", "\"");
-        }
-        return json;
-    }
-
 }
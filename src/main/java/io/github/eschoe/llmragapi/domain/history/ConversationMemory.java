@@ -0,0 +1,361 @@
+package io.github.eschoe.llmragapi.domain.history;
+
+import io.github.eschoe.llmragapi.client.GenerationOptions;
+import io.github.eschoe.llmragapi.client.LlmContextClient;
+import io.github.eschoe.llmragapi.client.LlmPriority;
+import io.github.eschoe.llmragapi.client.LlmReply;
+import io.github.eschoe.llmragapi.client.LlmRouter;
+import io.github.eschoe.llmragapi.domain.llm.LlmConstants;
+import io.github.eschoe.llmragapi.service.SideEffectPipeline;
+import io.github.eschoe.llmragapi.util.LlmRagUtil;
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
+import io.github.eschoe.llmragapi.util.SimpleDurationParser;
+import io.github.eschoe.llmragapi.util.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 프롬프트에 넣을 대화 맥락을 토큰 예산 안에서 만듭니다.
+ *
+ * - 최근 메시지를 최신 것부터 "사용자: ..." / "AI: ..." 한 줄씩 예산(max-tokens)이 찰 때까지 담습니다.
+ * - 오래된 턴은 chat:summary:{sessionId} 에 누적 요약으로 접어 두고, 요약은 맨 앞에 한 번만 넣습니다.
+ * - 질문 임베딩이 주어지면 {@link HistoryVectorIndex} 에서 최근 창 밖의 관련 턴을 찾아 별도 예산(recall.max-tokens)으로 넣습니다.
+ * - 요약 갱신은 응답 이후 {@link SideEffectPipeline} 의 slow 레인에서 실행되며(히스토리 저장을 막지 않음), 세션별 락으로 한 번에 하나만 돕니다.
+ *
+ * 세션이 길어져도 프롬프트 크기는 max-tokens 근처에서 멈추므로 LLM 지연도 일정하게 유지됩니다.
+ */
+@Service
+public class ConversationMemory {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationMemory.class);
+
+    @Value("${app.llm.memory.max-tokens:1500}")
+    private int maxTokens;
+
+    // 메시지 하나가 예산을 독차지하지 않도록 자르는 상한
+    @Value("${app.llm.memory.max-message-tokens:400}")
+    private int maxMessageTokens;
+
+    // 맥락을 만들 때 읽는 최근 메시지 수
+    @Value("${app.llm.memory.window:20}")
+    private long window;
+
+    // 요약하지 않고 원문으로 남겨 두는 최근 메시지 수
+    @Value("${app.llm.memory.keep-recent:6}")
+    private int keepRecent;
+
+    // 요약되지 않은 오래된 메시지가 이만큼 쌓이면 요약 (LLM 호출 횟수 제한)
+    @Value("${app.llm.memory.summarize-batch:6}")
+    private int summarizeBatch;
+
+    @Value("${app.llm.memory.summary-max-tokens:300}")
+    private int summaryMaxTokens;
+
+    // 비어 있으면 라우터의 기본 그룹에서 고름
+    @Value("${app.llm.memory.summary-model:}")
+    private String summaryModel;
+
+    @Value("${app.llm.memory.summary-timeout:60s}")
+    private Duration summaryTimeout;
+
+    @Value("${app.llm.memory.recall.enabled:true}")
+    private boolean recallEnabled;
+
+    @Value("${app.llm.memory.recall.top-k:3}")
+    private int recallTopK;
+
+    @Value("${app.llm.memory.recall.min-score:0.3}")
+    private double recallMinScore;
+
+    @Value("${app.llm.memory.recall.max-tokens:500}")
+    private int recallMaxTokens;
+
+    @Value("${app.llm.hist-max:50}")
+    private long historyMax;
+
+    @Value("${app.llm.hist-ttl-times:48h}")
+    private String historyTtlTimes;
+
+    private final ChatHistoryStore chatHistoryStore;
+    private final HistoryVectorIndex historyVectorIndex;
+    private final ReactiveStringRedisTemplate redis;
+    private final LlmContextClient llmContextClient;
+    private final LlmRouter llmRouter;
+    private final SideEffectPipeline sideEffects;
+    private final TokenCounter tokenCounter;
+    private final RedisJsonCodec codec;
+    private final SimpleDurationParser parser;
+
+    public ConversationMemory(ChatHistoryStore chatHistoryStore,
+                              HistoryVectorIndex historyVectorIndex,
+                              @Qualifier("redisWriterTemplate") ReactiveStringRedisTemplate redis,
+                              LlmContextClient llmContextClient,
+                              LlmRouter llmRouter,
+                              SideEffectPipeline sideEffects,
+                              TokenCounter tokenCounter,
+                              RedisJsonCodec codec,
+                              SimpleDurationParser parser) {
+        this.chatHistoryStore = chatHistoryStore;
+        this.historyVectorIndex = historyVectorIndex;
+        this.redis = redis;
+        this.llmContextClient = llmContextClient;
+        this.llmRouter = llmRouter;
+        this.sideEffects = sideEffects;
+        this.tokenCounter = tokenCounter;
+        this.codec = codec;
+        this.parser = parser;
+    }
+
+    /**
+     * 요약과 최근 메시지로 대화 맥락을 만듭니다.
+     *
+     * @return 이전 대화가 없으면 빈 문자열
+     */
+    public Mono<String> buildContext(String sessionId) {
+        return buildContext(sessionId, Mono.empty());
+    }
+
+    /**
+     * 요약과 최근 메시지에 더해, 질문과 관련된 과거 턴을 찾아 대화 맥락을 만듭니다.
+     *
+     * @param queryEmbedding 질문 임베딩. recall 이 꺼져 있으면 구독하지 않으며, 실패하면 관련 턴 없이 진행합니다.
+     * @return 이전 대화가 없으면 빈 문자열
+     */
+    public Mono<String> buildContext(String sessionId, Mono<float[]> queryEmbedding) {
+        return buildContext(sessionId, queryEmbedding, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 맥락 전체(요약 + 최근 메시지 + 관련 턴)를 maxTokens 안으로 만듭니다. 설정된 예산보다 작을 때만 의미가 있습니다.
+     *
+     * @param maxTokens 이 요청에서 대화 맥락에 쓸 수 있는 토큰 (PromptBudget 이 정함)
+     */
+    public Mono<String> buildContext(String sessionId, Mono<float[]> queryEmbedding, int maxTokens) {
+        Mono<Optional<ConversationSummary>> summary = loadSummary(sessionId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+
+        Mono<List<HistoryVectorIndex.RecalledTurn>> recalled = !recallEnabled
+                ? Mono.just(List.of())
+                : queryEmbedding
+                        .flatMap(embedding -> historyVectorIndex.search(sessionId, embedding, recallTopK, recallMinScore))
+                        .onErrorResume(e -> Mono.empty())
+                        .defaultIfEmpty(List.of());
+
+        return Mono.zip(summary, chatHistoryStore.recentMessages(sessionId, window).collectList(), recalled)
+                .map(t -> render(t.getT1().orElse(null), t.getT2(), t.getT3(), maxTokens));
+    }
+
+    /**
+     * 한 턴을 히스토리에 저장하고, 필요하면 오래된 턴의 요약을 갱신하도록 예약합니다. 응답을 기다리지 않습니다.
+     * 관련 턴 검색(recall) 인덱스에는 넣지 않습니다. (임베딩 호출 없음)
+     */
+    public void recordTurn(String sessionId, HistoryMessage question, HistoryMessage answer) {
+        recordTurn(sessionId, question, answer, false);
+    }
+
+    /**
+     * @param indexForRecall recall 을 쓰는 경로(채팅)면 true. 턴을 임베딩해 {@link HistoryVectorIndex} 에도 넣습니다.
+     */
+    public void recordTurn(String sessionId, HistoryMessage question, HistoryMessage answer, boolean indexForRecall) {
+        chatHistoryStore.appendTurnAsync(sessionId, question, answer);
+        if (recallEnabled && indexForRecall) {
+            historyVectorIndex.indexTurnAsync(sessionId, question, answer);
+        }
+        sideEffects.submit("chat-summary", summaryTimeout, () -> summarizeIfNeeded(sessionId));
+    }
+
+    private String render(ConversationSummary summary,
+                          List<HistoryMessage> messages,
+                          List<HistoryVectorIndex.RecalledTurn> recalled,
+                          int cap) {
+        int initial = Math.min(maxTokens, cap);
+        int budget = initial;
+        StringBuilder context = new StringBuilder();
+        if (summary != null && summary.summary() != null && !summary.summary().isBlank()) {
+            String summaryLine = "요약: " + summary.summary().strip();
+            budget -= tokenCounter.count(summaryLine) + 1;
+            context.append(summaryLine).append('\n');
+        }
+
+        // 최신 메시지부터 예산이 허락하는 만큼만 담고, 출력은 오래된 것부터
+        Instant coveredUntil = summary != null ? summary.coveredUntil() : null;
+        Deque<String> lines = new ArrayDeque<>();
+        Set<Instant> included = new HashSet<>();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            HistoryMessage message = messages.get(i);
+            if (coveredUntil != null && !timestampOf(message).isAfter(coveredUntil)) break;
+
+            String line = formatLine(message);
+            if (line == null) continue;
+            int tokens = tokenCounter.count(line) + 1;
+            if (tokens > budget) break;
+            budget -= tokens;
+            lines.addFirst(line);
+            if (message.timestamp() != null) included.add(message.timestamp());
+        }
+
+        // 이미 원문으로 들어간 턴은 제외하고, 관련도 높은 순으로 별도 예산만큼
+        List<String> recalledLines = new ArrayList<>();
+        int recallBudget = Math.min(recallMaxTokens, cap - (initial - budget));
+        for (HistoryVectorIndex.RecalledTurn turn : recalled) {
+            if (turn.timestamp() != null && included.contains(turn.timestamp())) continue;
+
+            String question = formatLine(new HistoryMessage("user", turn.question(), turn.timestamp()));
+            String answer = formatLine(new HistoryMessage("assistant", turn.answer(), turn.timestamp()));
+            if (question == null || answer == null) continue;
+            int tokens = tokenCounter.count(question) + tokenCounter.count(answer) + 2;
+            if (tokens > recallBudget) continue;
+            recallBudget -= tokens;
+            recalledLines.add(question);
+            recalledLines.add(answer);
+        }
+
+        if (!recalledLines.isEmpty()) {
+            context.append("관련 이전 대화:\n");
+            recalledLines.forEach(line -> context.append(line).append('\n'));
+            if (!lines.isEmpty()) context.append("최근 대화:\n");
+        }
+        lines.forEach(line -> context.append(line).append('\n'));
+        return context.toString().stripTrailing();
+    }
+
+    private String formatLine(HistoryMessage message) {
+        if (message.content() == null || message.content().isBlank()) return null;
+        String speaker = "assistant".equals(message.role()) ? "AI" : "사용자";
+        return speaker + ": " + truncate(message.content().strip(), maxMessageTokens);
+    }
+
+    Mono<Void> summarizeIfNeeded(String sessionId) {
+        Mono<Optional<ConversationSummary>> summary = loadSummary(sessionId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+
+        return Mono.zip(summary, chatHistoryStore.recentMessages(sessionId, historyMax).collectList())
+                .flatMap(t -> {
+                    ConversationSummary current = t.getT1().orElse(null);
+                    List<HistoryMessage> pending = unsummarized(t.getT2(), current);
+
+                    int foldCount = pending.size() - keepRecent;
+                    if (foldCount < summarizeBatch) return Mono.empty();
+
+                    // 같은 시각의 메시지가 요약 경계에서 나뉘지 않도록 함께 접음
+                    Instant until = timestampOf(pending.get(foldCount - 1));
+                    while (foldCount < pending.size() && !timestampOf(pending.get(foldCount)).isAfter(until)) {
+                        foldCount++;
+                    }
+                    List<HistoryMessage> fold = pending.subList(0, foldCount);
+
+                    return withLock(sessionId, summarize(current, fold)
+                            .flatMap(text -> saveSummary(sessionId, new ConversationSummary(
+                                    text,
+                                    until,
+                                    (current != null ? current.messageCount() : 0) + fold.size()))));
+                })
+                .then();
+    }
+
+    private List<HistoryMessage> unsummarized(List<HistoryMessage> messages, ConversationSummary summary) {
+        if (summary == null || summary.coveredUntil() == null) return messages;
+        return messages.stream()
+                .filter(message -> timestampOf(message).isAfter(summary.coveredUntil()))
+                .toList();
+    }
+
+    private Mono<String> summarize(ConversationSummary current, List<HistoryMessage> fold) {
+        StringBuilder content = new StringBuilder();
+        if (current != null && current.summary() != null && !current.summary().isBlank()) {
+            content.append("EXISTING SUMMARY:\n").append(current.summary().strip()).append("\n\n");
+        }
+        content.append("NEW MESSAGES:\n");
+        fold.forEach(message -> {
+            String line = formatLine(message);
+            if (line != null) content.append(line).append('\n');
+        });
+        content.append("\nKeep the summary under ").append(summaryMaxTokens).append(" tokens.");
+
+        // 요약은 summary-max-tokens 로 자르므로 그 이상 생성할 필요가 없음
+        GenerationOptions options = new GenerationOptions(summaryMaxTokens, null);
+        Mono<String> reply;
+        if (summaryModel != null && !summaryModel.isBlank()) {
+            String provider = LlmConstants.DEFAULT_PROVIDER;
+            reply = llmContextClient.chat(provider, LlmRagUtil.chooseModel(provider, summaryModel),
+                    LlmConstants.SUMMARY_PROMPT, content.toString(), options);
+        } else {
+            reply = llmRouter.chat(llmRouter.defaultGroup(), LlmConstants.SUMMARY_PROMPT, content.toString(), options)
+                    .map(LlmReply::text);
+        }
+        // 백그라운드 요약은 대화 요청에 할당량을 양보
+        return reply.contextWrite(LlmPriority.BULK.asContext())
+                .map(text -> truncate(text.strip(), summaryMaxTokens));
+    }
+
+    // 여러 인스턴스가 같은 세션을 동시에 요약하지 않도록 함. 락을 못 잡으면 다음 턴에 다시 시도
+    private Mono<Void> withLock(String sessionId, Mono<Void> work) {
+        String lockKey = "chat:summary:lock:%s".formatted(sessionId);
+
+        return redis.opsForValue().setIfAbsent(lockKey, "1", summaryTimeout)
+                .flatMap(acquired -> {
+                    if (!Boolean.TRUE.equals(acquired)) return Mono.empty();
+                    return work
+                            .then(redis.delete(lockKey))
+                            .onErrorResume(e -> redis.delete(lockKey).then(Mono.error(e)));
+                })
+                .then();
+    }
+
+    private Mono<ConversationSummary> loadSummary(String sessionId) {
+        return redis.opsForValue().get(summaryKey(sessionId))
+                .flatMap(json -> {
+                    try {
+                        return Mono.just(codec.decode(json, ConversationSummary.class));
+                    } catch (IllegalArgumentException e) {
+                        log.warn("[ConversationMemory] Invalid summary skipped: {}", e.getMessage());
+                        return Mono.empty();
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("[ConversationMemory] Failed to load summary: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> saveSummary(String sessionId, ConversationSummary summary) {
+        log.debug("[ConversationMemory] Summary updated: session={}, messages={}", sessionId, summary.messageCount());
+        return redis.opsForValue()
+                .set(summaryKey(sessionId), codec.encode(summary), parser.parse(historyTtlTimes))
+                .then();
+    }
+
+    // 토큰 수에 비례해 글자 수를 줄임 (대략적인 상한)
+    private String truncate(String text, int limit) {
+        int tokens = tokenCounter.count(text);
+        if (tokens <= limit) return text;
+        int length = (int) ((long) text.length() * limit / tokens);
+        return text.substring(0, Math.max(0, length)) + "…";
+    }
+
+    // 타임스탬프가 없는 예전 메시지는 가장 오래된 것으로 취급
+    private static Instant timestampOf(HistoryMessage message) {
+        return message.timestamp() != null ? message.timestamp() : Instant.EPOCH;
+    }
+
+    static String summaryKey(String sessionId) {
+        return "chat:summary:%s".formatted(sessionId);
+    }
+}
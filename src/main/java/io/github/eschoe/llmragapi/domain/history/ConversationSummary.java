@@ -0,0 +1,12 @@
+package io.github.eschoe.llmragapi.domain.history;
+
+import java.time.Instant;
+
+/**
+ * 오래된 대화 턴의 누적 요약 (chat:summary:{sessionId})
+ *
+ * @param summary      지금까지 요약된 대화 내용
+ * @param coveredUntil 요약에 포함된 마지막 메시지의 시각. 이 시각 이후의 메시지만 원문으로 프롬프트에 들어갑니다.
+ * @param messageCount 요약에 포함된 메시지 수 (누적)
+ */
+public record ConversationSummary(String summary, Instant coveredUntil, int messageCount) { }
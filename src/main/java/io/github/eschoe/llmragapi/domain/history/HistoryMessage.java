@@ -0,0 +1,19 @@
+package io.github.eschoe.llmragapi.domain.history;
+
+import java.time.Instant;
+
+/**
+ * 대화 히스토리(chat:hist:{sessionId})에 저장되는 메시지 한 건
+ *
+ * @param role "user" 또는 "assistant"
+ */
+public record HistoryMessage(String role, String content, Instant timestamp) {
+
+    public static HistoryMessage user(String content) {
+        return new HistoryMessage("user", content, Instant.now());
+    }
+
+    public static HistoryMessage assistant(String content) {
+        return new HistoryMessage("assistant", content, Instant.now());
+    }
+}
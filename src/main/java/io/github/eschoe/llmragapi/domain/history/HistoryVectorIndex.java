@@ -0,0 +1,171 @@
+package io.github.eschoe.llmragapi.domain.history;
+
+import io.github.eschoe.llmragapi.client.LlmContextClient;
+import io.github.eschoe.llmragapi.client.LlmPriority;
+import io.github.eschoe.llmragapi.service.SideEffectPipeline;
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
+import io.github.eschoe.llmragapi.util.SimpleDurationParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 세션별 대화 턴 임베딩 인덱스 (chat:vec:{sessionId})
+ *
+ * 턴이 저장될 때 질문+답변을 백그라운드에서 임베딩해 Redis 리스트에 쌓고, 채팅 시에는 질문 임베딩과의
+ * 코사인 유사도로 관련 있는 과거 턴을 찾습니다. 세션당 항목 수가 max-turns 로 제한되므로 검색은
+ * 한 번의 LRANGE 와 프로세스 안의 선형 탐색으로 충분합니다.
+ */
+@Service
+public class HistoryVectorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryVectorIndex.class);
+
+    // 임베딩에 넣는 턴 본문의 최대 글자 수
+    private static final int MAX_TURN_CHARS = 4000;
+
+    // 채팅의 질문 임베딩과 같은 모델이어야 함 (ChatImplService)
+    @Value("${APP_EMBEDDING_MODEL:text-embedding-3-small}")
+    private String embeddingModel;
+
+    @Value("${app.llm.memory.recall.max-turns:25}")
+    private long maxTurns;
+
+    @Value("${app.llm.hist-ttl-times:48h}")
+    private String historyTtlTimes;
+
+    // 턴 임베딩 한 건의 제한 시간. BULK 라 할당량 대기(max-wait)와 재시도까지 기다릴 수 있으므로
+    // side-effects.task-timeout 보다 길게 잡아 slow 레인에서 돌림 (히스토리 저장을 막지 않도록)
+    @Value("${app.llm.memory.recall.timeout:3m}")
+    private Duration indexTimeout;
+
+    private final ReactiveStringRedisTemplate redis;
+    private final LlmContextClient llmContextClient;
+    private final SideEffectPipeline sideEffects;
+    private final RedisJsonCodec codec;
+    private final SimpleDurationParser parser;
+
+    public HistoryVectorIndex(@Qualifier("redisWriterTemplate") ReactiveStringRedisTemplate redis,
+                              LlmContextClient llmContextClient,
+                              SideEffectPipeline sideEffects,
+                              RedisJsonCodec codec,
+                              SimpleDurationParser parser) {
+        this.redis = redis;
+        this.llmContextClient = llmContextClient;
+        this.sideEffects = sideEffects;
+        this.codec = codec;
+        this.parser = parser;
+    }
+
+    /**
+     * 턴을 백그라운드에서 임베딩해 인덱스에 추가합니다. 응답을 기다리지 않습니다.
+     */
+    public void indexTurnAsync(String sessionId, HistoryMessage question, HistoryMessage answer) {
+        sideEffects.submit("chat-history-embedding", indexTimeout, () -> indexTurn(sessionId, question, answer));
+    }
+
+    private Mono<Void> indexTurn(String sessionId, HistoryMessage question, HistoryMessage answer) {
+        String text = question.content() + "\n" + answer.content();
+        if (text.length() > MAX_TURN_CHARS) text = text.substring(0, MAX_TURN_CHARS);
+
+        return llmContextClient.embed(embeddingModel, text)
+                .contextWrite(LlmPriority.BULK.asContext())
+                .flatMap(vector -> {
+                    TurnVector entry = new TurnVector(question.content(), answer.content(), question.timestamp(), toBytes(vector));
+                    List<String> args = List.of(
+                            String.valueOf(maxTurns),
+                            String.valueOf(parser.parse(historyTtlTimes).toMillis()),
+                            codec.encode(entry));
+                    // 히스토리와 같은 LPUSH + LTRIM + PEXPIRE 스크립트 (ARGV[3] 한 항목)
+                    return redis.execute(ChatHistoryStore.APPEND_SCRIPT, List.of(indexKey(sessionId)), args).then();
+                });
+    }
+
+    /**
+     * 질문 임베딩과 가까운 과거 턴을 유사도 순으로 찾습니다. 오류가 나면 빈 목록을 돌려줍니다.
+     *
+     * @param minScore 이 값보다 유사도가 낮은 턴은 제외
+     */
+    public Mono<List<RecalledTurn>> search(String sessionId, float[] queryEmbedding, int topK, double minScore) {
+        return redis.opsForList().range(indexKey(sessionId), 0, -1)
+                .collectList()
+                .map(entries -> {
+                    List<RecalledTurn> candidates = new ArrayList<>(entries.size());
+                    for (String json : entries) {
+                        TurnVector entry;
+                        try {
+                            entry = codec.decode(json, TurnVector.class);
+                        } catch (IllegalArgumentException e) {
+                            continue;
+                        }
+                        float[] vector = toFloats(entry.vector());
+                        // 모델이 바뀌어 차원이 다른 예전 항목은 비교할 수 없음
+                        if (vector.length != queryEmbedding.length) continue;
+
+                        double score = cosine(queryEmbedding, vector);
+                        if (score >= minScore) {
+                            candidates.add(new RecalledTurn(entry.question(), entry.answer(), entry.timestamp(), score));
+                        }
+                    }
+                    candidates.sort(Comparator.comparingDouble(RecalledTurn::score).reversed());
+                    return candidates.size() > topK ? List.copyOf(candidates.subList(0, topK)) : candidates;
+                })
+                .onErrorResume(e -> {
+                    log.warn("[HistoryVectorIndex] Search failed: {}", e.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0 || normB == 0) return 0;
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    // float32 little-endian. JSON 에서는 byte[] 가 base64 문자열로 저장됨
+    private static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] toFloats(byte[] bytes) {
+        if (bytes == null) return new float[0];
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    static String indexKey(String sessionId) {
+        return "chat:vec:%s".formatted(sessionId);
+    }
+
+    /**
+     * @param timestamp 질문 메시지의 시각 (히스토리 메시지와 같은 값이라 중복 제거에 사용)
+     */
+    record TurnVector(String question, String answer, Instant timestamp, byte[] vector) { }
+
+    /**
+     * 검색된 과거 턴
+     *
+     * @param timestamp 질문 메시지의 시각
+     */
+    public record RecalledTurn(String question, String answer, Instant timestamp, double score) { }
+}
@@ -15,5 +15,12 @@ public final class LlmConstants {
             
             Always strive to be helpful while being emotionally intelligent and engaging.
             """;
+    // 오래된 대화 턴을 누적 요약할 때 사용 (ConversationMemory)
+    public static final String SUMMARY_PROMPT = """
+            You maintain a running summary of a conversation between a user and an AI assistant.
+            Merge the existing summary with the new messages into one updated summary.
+            Keep facts about the user, preferences, decisions, and open questions. Drop greetings and small talk.
+            Write in the same language as the conversation. Output only the summary text.
+            """;
     private LlmConstants() {}
 }
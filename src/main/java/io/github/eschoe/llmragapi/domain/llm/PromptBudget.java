@@ -0,0 +1,83 @@
+package io.github.eschoe.llmragapi.domain.llm;
+
+import io.github.eschoe.llmragapi.client.GenerationOptions;
+import io.github.eschoe.llmragapi.util.TokenCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 요청 하나의 입력 토큰 예산 ({@link PromptBudgeter#begin} 으로 만들며, 요청마다 새로 만들어 씁니다)
+ *
+ * 질문 → 대화 맥락 → 검색 컨텍스트 순서로 채웁니다. 대화 맥락은 오래된 줄부터, 검색 컨텍스트는 순위가 낮은 줄부터 빠집니다.
+ */
+public final class PromptBudget {
+
+    private final TokenCounter tokenCounter;
+    private final GenerationOptions options;
+    private final int limit;
+    private int used;
+    private int droppedContext;
+    private boolean historyTrimmed;
+
+    PromptBudget(TokenCounter tokenCounter, GenerationOptions options, int limit, int used) {
+        this.tokenCounter = tokenCounter;
+        this.options = options;
+        this.limit = limit;
+        this.used = used;
+    }
+
+    public GenerationOptions options() { return options; }
+    public int limit() { return limit; }
+    public int used() { return used; }
+    public int remaining() { return Math.max(0, limit - used); }
+    public int droppedContext() { return droppedContext; }
+    public boolean historyTrimmed() { return historyTrimmed; }
+
+    // 검색 컨텍스트와 나눠 쓸 때 대화 맥락 몫 (남은 예산의 절반)
+    public int historyAllowance() {
+        return remaining() / 2;
+    }
+
+    /**
+     * 대화 맥락을 maxTokens 안으로 줄여 예산에 넣습니다. 넘치면 앞쪽(오래된) 줄부터 뺍니다.
+     */
+    public String addHistory(String history, int maxTokens) {
+        if (history == null || history.isEmpty()) return "";
+        int allowance = Math.min(maxTokens, remaining());
+
+        String[] lines = history.split("\n");
+        int[] tokens = new int[lines.length];
+        int total = 0;
+        for (int i = 0; i < lines.length; i++) {
+            tokens[i] = tokenCounter.count(lines[i]) + 1;
+            total += tokens[i];
+        }
+        int from = 0;
+        while (total > allowance && from < lines.length) {
+            total -= tokens[from++];
+        }
+        used += total;
+        if (from == 0) return history;
+
+        historyTrimmed = true;
+        return String.join("\n", List.of(lines).subList(from, lines.length));
+    }
+
+    /**
+     * 검색 컨텍스트 줄을 순서대로 남은 예산만큼 넣습니다. 들어가지 않는 줄은 건너뛰고 더 짧은 다음 줄을 봅니다.
+     */
+    public List<String> addContext(List<String> lines) {
+        List<String> fitted = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            int tokens = tokenCounter.count(line) + 1;
+            if (tokens > remaining()) {
+                droppedContext++;
+                continue;
+            }
+            used += tokens;
+            fitted.add(line);
+        }
+        return fitted;
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.eschoe.llmragapi.domain.llm;
+
+import io.github.eschoe.llmragapi.client.GenerationOptions;
+import io.github.eschoe.llmragapi.config.LlmPromptProperties;
+import io.github.eschoe.llmragapi.util.TokenCounter;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 프롬프트를 모델의 컨텍스트 창 안에 맞추고 생성 파라미터를 정합니다.
+ *
+ * 입력 한도 = min(컨텍스트 창 - maxTokens - 여유분, max-input-tokens) 이며, 라우팅 그룹이면 그룹에서 가장 작은 창을 씁니다.
+ * 시스템 프롬프트와 질문은 줄이지 않고, 그것만으로 한도를 넘으면 IllegalArgumentException 으로 거절합니다.
+ * 나머지 예산은 {@link PromptBudget} 이 대화 맥락과 검색 컨텍스트에 나눠 줍니다.
+ * 토큰 수는 로컬 토크나이저({@link TokenCounter})로 세므로 네트워크 호출이 없습니다.
+ */
+@Component
+public class PromptBudgeter {
+
+    private final LlmPromptProperties properties;
+    private final TokenCounter tokenCounter;
+
+    public PromptBudgeter(LlmPromptProperties properties, TokenCounter tokenCounter) {
+        this.properties = properties;
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * @param models    요청을 받을 수 있는 모델들 (비어 있으면 default-context-window)
+     * @param maxTokens 요청한 응답 토큰 상한 (null 이거나 0 이하이면 default-max-tokens, max-output-tokens 를 넘으면 잘림)
+     * @param fixed     줄일 수 없는 입력 (시스템 프롬프트, 질문과 그 틀)
+     */
+    public PromptBudget begin(Collection<String> models, Integer maxTokens, Double temperature, String... fixed) {
+        int output = Math.min(maxTokens != null && maxTokens > 0 ? maxTokens : properties.getDefaultMaxTokens(),
+                properties.getMaxOutputTokens());
+        int limit = Math.min(window(models) - output - properties.getSafetyMargin(), properties.getMaxInputTokens());
+
+        int used = 0;
+        for (String text : fixed) {
+            used += tokenCounter.count(text);
+        }
+        if (used > limit) {
+            throw new IllegalArgumentException(
+                    "요청이 너무 깁니다: 입력 %d 토큰, 허용 %d 토큰 (응답 %d 토큰 제외)".formatted(used, Math.max(0, limit), output));
+        }
+        return new PromptBudget(tokenCounter, new GenerationOptions(output, temperature), limit, used);
+    }
+
+    // 모델들 중 가장 작은 컨텍스트 창
+    int window(Collection<String> models) {
+        int window = Integer.MAX_VALUE;
+        for (String model : models) {
+            window = Math.min(window, windowOf(model));
+        }
+        return window == Integer.MAX_VALUE ? properties.getDefaultContextWindow() : window;
+    }
+
+    private int windowOf(String model) {
+        String matched = null;
+        int window = properties.getDefaultContextWindow();
+        for (Map.Entry<String, Integer> entry : properties.getContextWindows().entrySet()) {
+            String prefix = entry.getKey();
+            if (model != null && model.startsWith(prefix) && (matched == null || prefix.length() > matched.length())) {
+                matched = prefix;
+                window = entry.getValue();
+            }
+        }
+        return window;
+    }
+}
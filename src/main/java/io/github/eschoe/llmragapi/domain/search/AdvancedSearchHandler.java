@@ -34,9 +34,10 @@ public class AdvancedSearchHandler {
                     final String sessionId = sessionUtil.extractSessionId(request);
                     
                     // Rate Limiting 체크
-                    return rateLimitingService.isAllowed(sessionId)
-                            .flatMap(allowed -> {
-                                if (!allowed) {
+                    return rateLimitingService.check(sessionId)
+                            .flatMap(decision -> {
+                                decision.addTo(request.exchange().getResponse().getHeaders());
+                                if (!decision.allowed()) {
                                     return ServerResponse.status(429)
                                             .contentType(MediaType.APPLICATION_JSON)
                                             .bodyValue(new DetailedErrorResponse(
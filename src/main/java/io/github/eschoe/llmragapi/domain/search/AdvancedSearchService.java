@@ -48,10 +48,9 @@ public class AdvancedSearchService {
                 searchMono = performSemanticSearch(request);
         }
         
-        return searchMono.flatMap(response -> {
-            // 검색 히스토리 저장
-            return searchHistoryService.saveSearchHistory(request.getSessionId(), request.getQuery(), response.getResults().size())
-                    .thenReturn(response);
+        return searchMono.doOnNext(response -> {
+            // 검색 히스토리 저장 (응답을 기다리지 않고 백그라운드에서 처리)
+            searchHistoryService.saveSearchHistoryAsync(request.getSessionId(), request.getQuery(), response.getResults().size());
         });
     }
 
@@ -22,6 +22,24 @@ public class EmbeddingRow {
     @Column("created_at")
     private OffsetDateTime createdAt;
 
+    // 청크가 속한 문서 (chatbot.documents.id). 문서 업로드 외 경로로 들어간 행은 null
+    @Column("document_id")
+    private String documentId;
+
+    // 문서 내 청크 순번과 추출 텍스트 기준 오프셋 (문서 업로드로 저장된 경우에만 존재)
+    @Column("chunk_index")
+    private Integer chunkIndex;
+
+    @Column("start_offset")
+    private Long startOffset;
+
+    @Column("end_offset")
+    private Long endOffset;
+
+    // sha256(임베딩 모델, 청크 본문). 같은 내용의 청크는 임베딩을 다시 만들지 않고 재사용
+    @Column("content_hash")
+    private String contentHash;
+
     public Long getId() {
         return id;
     }
@@ -70,4 +88,44 @@ public class EmbeddingRow {
         this.createdAt = createdAt;
     }
 
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Long getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(Long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public Long getEndOffset() {
+        return endOffset;
+    }
+
+    public void setEndOffset(Long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
 }
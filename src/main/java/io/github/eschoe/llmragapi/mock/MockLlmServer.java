@@ -0,0 +1,452 @@
+package io.github.eschoe.llmragapi.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.config.MockLlmProperties;
+import io.github.eschoe.llmragapi.util.TokenCounter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * OpenAI / Anthropic 을 흉내 내는 로컬 HTTP 서버 (부하 테스트와 벤치마크용)
+ *
+ * - POST /v1/embeddings: 단어와 글자 3-gram 마다 해시로 시드를 정한 벡터를 더해 정규화한 단위 벡터.
+ *   같은 입력이면 항상 같은 벡터이고, 겹치는 단어가 많을수록 코사인 유사도가 높음 (float / base64)
+ * - POST /v1/chat/completions, /v1/messages: 요청 내용으로 시드를 정한 합성 응답. "stream": true 면 SSE 로 한 단어씩
+ * - 지연은 로그정규분포, 429 / 503 은 설정한 비율로 주입. rpm / tpm 을 주면 rate limit 한도 헤더를 붙임
+ *
+ * mock-llm 프로필에서 Spring 이 띄우고 (MockLlmConfig), 스프링 없이 new MockLlmServer(properties).start() 로도 쓸 수 있습니다.
+ * API 키는 확인하지 않습니다.
+ */
+public class MockLlmServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MockLlmServer.class);
+
+    // 임베딩 특징 하나가 차지하는 칸 수
+    private static final int FEATURE_SLOTS = 16;
+
+    private static final String[] WORDS = {
+            "검색", "결과", "문서", "벡터", "임베딩", "유사도", "질문", "답변", "요약", "맥락",
+            "the", "context", "answer", "vector", "search", "model", "token", "score", "document", "response",
+            "그리고", "따라서", "또한", "예를", "들어", "다음과", "같이", "설명합니다", "중요합니다", "있습니다."
+    };
+
+    private final MockLlmProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenCounter tokenCounter = new TokenCounter();
+    private volatile DisposableServer server;
+
+    public MockLlmServer(MockLlmProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(properties.getPort())
+                .route(routes -> routes
+                        .post("/v1/embeddings", this::embeddings)
+                        .post("/v1/chat/completions", (req, res) -> chat(req, res, Provider.OPENAI))
+                        .post("/v1/messages", (req, res) -> chat(req, res, Provider.ANTHROPIC)))
+                .bindNow();
+        log.info("[MockLlmServer] listening on port {} (embedding dims={}, chat median={}, 429={}, 5xx={})",
+                server.port(), properties.getEmbeddingDimensions(), properties.getChatLatency().getMedian(),
+                properties.getRate429(), properties.getRate5xx());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer current = server;
+        if (current == null) return;
+        current.disposeNow(Duration.ofSeconds(5));
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // 애플리케이션 빈보다 먼저 떠서 나중에 내려감
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * 실제로 열린 포트 (port 를 0 으로 주면 임의 포트)
+     */
+    public int port() {
+        DisposableServer current = server;
+        if (current == null) throw new IllegalStateException("MockLlmServer is not running");
+        return current.port();
+    }
+
+    // -------- Embeddings --------
+    private Mono<Void> embeddings(HttpServerRequest req, HttpServerResponse res) {
+        return readBody(req).flatMap(body -> {
+            int fault = fault();
+            if (fault == 429) return rateLimited(res, Provider.OPENAI);
+
+            List<String> inputs = new ArrayList<>();
+            JsonNode input = body.path("input");
+            if (input.isArray()) {
+                input.forEach(node -> inputs.add(node.asText()));
+            } else {
+                inputs.add(input.asText());
+            }
+            boolean base64 = "base64".equals(body.path("encoding_format").asText("float"));
+
+            List<Map<String, Object>> data = new ArrayList<>(inputs.size());
+            int promptTokens = 0;
+            for (int i = 0; i < inputs.size(); i++) {
+                float[] vector = embedding(inputs.get(i), properties.getEmbeddingDimensions());
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("object", "embedding");
+                item.put("index", i);
+                item.put("embedding", base64 ? toBase64(vector) : vector);
+                data.add(item);
+                promptTokens += tokenCounter.count(inputs.get(i));
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("object", "list");
+            response.put("data", data);
+            response.put("model", body.path("model").asText());
+            response.put("usage", Map.of("prompt_tokens", promptTokens, "total_tokens", promptTokens));
+
+            Duration latency = sample(properties.getEmbeddingLatency());
+            if (fault == 503) return Mono.delay(latency).then(unavailable(res, Provider.OPENAI));
+            return Mono.delay(latency).then(sendJson(res, Provider.OPENAI, response));
+        });
+    }
+
+    // -------- Chat --------
+    private Mono<Void> chat(HttpServerRequest req, HttpServerResponse res, Provider provider) {
+        return readBody(req).flatMap(body -> {
+            int fault = fault();
+            if (fault == 429) return rateLimited(res, provider);
+
+            String model = body.path("model").asText();
+            String system = provider == Provider.ANTHROPIC ? text(body.path("system")) : "";
+            String user = "";
+            for (JsonNode message : body.path("messages")) {
+                String role = message.path("role").asText();
+                if ("system".equals(role)) system = text(message.path("content"));
+                if ("user".equals(role)) user = text(message.path("content"));
+            }
+
+            int maxTokens = body.path("max_tokens").asInt(Integer.MAX_VALUE);
+            int length = Math.max(1, Math.min(properties.getCompletionTokens(), maxTokens));
+            boolean truncated = maxTokens < properties.getCompletionTokens();
+            List<String> words = completion(model + "\n" + system + "\n" + user, length);
+            int promptTokens = tokenCounter.count(system) + tokenCounter.count(user);
+
+            Duration latency = sample(properties.getChatLatency());
+            if (fault == 503) return Mono.delay(latency).then(unavailable(res, provider));
+            if (body.path("stream").asBoolean(false)) {
+                return stream(res, provider, model, words, truncated, promptTokens, latency);
+            }
+
+            String text = String.join(" ", words);
+            Map<String, Object> response = provider == Provider.ANTHROPIC
+                    ? anthropicMessage(model, text, truncated, promptTokens, words.size())
+                    : openAiCompletion(model, text, truncated, promptTokens, words.size());
+            return Mono.delay(latency).then(sendJson(res, provider, response));
+        });
+    }
+
+    private Map<String, Object> openAiCompletion(String model, String text, boolean truncated, int promptTokens, int completionTokens) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", "chatcmpl-mock-" + Long.toHexString(ThreadLocalRandom.current().nextLong()));
+        response.put("object", "chat.completion");
+        response.put("created", Instant.now().getEpochSecond());
+        response.put("model", model);
+        response.put("choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", text),
+                "finish_reason", truncated ? "length" : "stop")));
+        response.put("usage", Map.of(
+                "prompt_tokens", promptTokens,
+                "completion_tokens", completionTokens,
+                "total_tokens", promptTokens + completionTokens));
+        return response;
+    }
+
+    private Map<String, Object> anthropicMessage(String model, String text, boolean truncated, int promptTokens, int completionTokens) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", "msg_mock_" + Long.toHexString(ThreadLocalRandom.current().nextLong()));
+        response.put("type", "message");
+        response.put("role", "assistant");
+        response.put("model", model);
+        response.put("content", List.of(Map.of("type", "text", "text", text)));
+        response.put("stop_reason", truncated ? "max_tokens" : "end_turn");
+        response.put("usage", Map.of("input_tokens", promptTokens, "output_tokens", completionTokens));
+        return response;
+    }
+
+    // 첫 토큰까지 latency, 이후 token-interval 마다 한 단어씩 SSE 로 보냄
+    private Mono<Void> stream(HttpServerResponse res, Provider provider, String model, List<String> words,
+                              boolean truncated, int promptTokens, Duration firstToken) {
+        String id = (provider == Provider.ANTHROPIC ? "msg_mock_" : "chatcmpl-mock-")
+                + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        List<String> deltas = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            String piece = i == 0 ? words.get(i) : " " + words.get(i);
+            deltas.add(provider == Provider.ANTHROPIC
+                    ? event("content_block_delta", Map.of("type", "content_block_delta", "index", 0,
+                            "delta", Map.of("type", "text_delta", "text", piece)))
+                    : event(null, openAiChunk(id, model, Map.of("content", piece), null)));
+        }
+
+        List<String> head = new ArrayList<>();
+        List<String> tail = new ArrayList<>();
+        if (provider == Provider.ANTHROPIC) {
+            head.add(event("message_start", Map.of("type", "message_start", "message", Map.of(
+                    "id", id, "type", "message", "role", "assistant", "model", model, "content", List.of(),
+                    "usage", Map.of("input_tokens", promptTokens, "output_tokens", 0)))));
+            head.add(event("content_block_start", Map.of("type", "content_block_start", "index", 0,
+                    "content_block", Map.of("type", "text", "text", ""))));
+            tail.add(event("content_block_stop", Map.of("type", "content_block_stop", "index", 0)));
+            tail.add(event("message_delta", Map.of("type", "message_delta",
+                    "delta", Map.of("stop_reason", truncated ? "max_tokens" : "end_turn"),
+                    "usage", Map.of("output_tokens", words.size()))));
+            tail.add(event("message_stop", Map.of("type", "message_stop")));
+        } else {
+            head.add(event(null, openAiChunk(id, model, Map.of("role", "assistant", "content", ""), null)));
+            tail.add(event(null, openAiChunk(id, model, Map.of(), truncated ? "length" : "stop")));
+            tail.add("data: [DONE]\n\n");
+        }
+
+        Flux<String> frames = Flux.concat(
+                Mono.delay(firstToken).thenMany(Flux.fromIterable(head)),
+                Flux.fromIterable(deltas).delayElements(properties.getTokenInterval()),
+                Flux.fromIterable(tail));
+
+        rateLimitHeaders(res, provider);
+        return res.status(HttpResponseStatus.OK)
+                .header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                .header(HttpHeaderNames.CACHE_CONTROL, "no-cache")
+                .sendString(frames, StandardCharsets.UTF_8)
+                .then();
+    }
+
+    private Map<String, Object> openAiChunk(String id, String model, Map<String, Object> delta, String finishReason) {
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("delta", delta);
+        choice.put("finish_reason", finishReason);
+
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("id", id);
+        chunk.put("object", "chat.completion.chunk");
+        chunk.put("created", Instant.now().getEpochSecond());
+        chunk.put("model", model);
+        chunk.put("choices", List.of(choice));
+        return chunk;
+    }
+
+    private String event(String name, Object data) {
+        String json = json(data);
+        return name == null ? "data: " + json + "\n\n" : "event: " + name + "\ndata: " + json + "\n\n";
+    }
+
+    // -------- Faults / latency --------
+
+    // 429 / 503 / 0(정상)
+    private int fault() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < properties.getRate429()) return 429;
+        if (roll < properties.getRate429() + properties.getRate5xx()) return 503;
+        return 0;
+    }
+
+    private Mono<Void> rateLimited(HttpServerResponse res, Provider provider) {
+        long seconds = Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000);
+        res.header(HttpHeaderNames.RETRY_AFTER, String.valueOf(seconds));
+        return sendError(res, provider, HttpResponseStatus.TOO_MANY_REQUESTS, "rate_limit_error", "Rate limit reached (mock)");
+    }
+
+    private Mono<Void> unavailable(HttpServerResponse res, Provider provider) {
+        return sendError(res, provider, HttpResponseStatus.SERVICE_UNAVAILABLE,
+                provider == Provider.ANTHROPIC ? "overloaded_error" : "server_error", "Service unavailable (mock)");
+    }
+
+    private Mono<Void> sendError(HttpServerResponse res, Provider provider, HttpResponseStatus status, String type, String message) {
+        Object body = provider == Provider.ANTHROPIC
+                ? Map.of("type", "error", "error", Map.of("type", type, "message", message))
+                : Map.of("error", Map.of("type", type, "message", message));
+        return res.status(status)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendString(Mono.just(json(body)), StandardCharsets.UTF_8)
+                .then();
+    }
+
+    static Duration sample(MockLlmProperties.Latency latency) {
+        double millis = latency.getMedian().toMillis() * Math.exp(latency.getSigma() * ThreadLocalRandom.current().nextGaussian());
+        long max = latency.getMax() != null ? latency.getMax().toMillis() : Long.MAX_VALUE;
+        return Duration.ofMillis(Math.min((long) millis, max));
+    }
+
+    // -------- Deterministic content --------
+
+    /**
+     * 단어와 단어 안의 글자 3-gram 을 특징으로 삼아, 특징마다 해시로 시드를 정한 희소 벡터(±1 몇 칸)를 더한 뒤 정규화합니다.
+     * 같은 입력 → 같은 벡터이고, 특징이 겹치는 만큼 코사인 유사도가 올라가므로 질문과 같은 단어가 든 청크가 검색됩니다.
+     * (3-gram 은 "바다는" 과 "바다" 처럼 조사가 붙은 한국어 단어도 비슷하게 만들기 위한 것)
+     * 특징이 없는 입력(공백, 기호만)은 입력 전체의 해시로 시드를 정한 벡터를 씁니다.
+     */
+    public static float[] embedding(String input, int dimensions) {
+        float[] vector = new float[dimensions];
+        boolean any = false;
+        for (String token : input.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            any = true;
+            addFeature(vector, "w:" + token);
+            String padded = "^" + token + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(vector, "c:" + padded.substring(i, i + 3));
+            }
+        }
+        if (!any) {
+            addFeature(vector, "i:" + input);
+        }
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    // 특징 하나의 벡터: 시드로 고른 칸 몇 개에 ±1 (차원 전체를 난수로 채우는 것보다 싸고, 서로 다른 특징은 거의 직교)
+    private static void addFeature(float[] vector, String feature) {
+        SplittableRandom random = new SplittableRandom(featureSeed(feature));
+        int slots = Math.min(FEATURE_SLOTS, vector.length);
+        for (int i = 0; i < slots; i++) {
+            vector[random.nextInt(vector.length)] += random.nextBoolean() ? 1f : -1f;
+        }
+    }
+
+    /**
+     * 입력 해시로 시드를 정한 합성 응답 (단어 하나가 대략 토큰 하나)
+     */
+    public static List<String> completion(String input, int words) {
+        SplittableRandom random = new SplittableRandom(seed(input));
+        List<String> out = new ArrayList<>(words);
+        for (int i = 0; i < words; i++) {
+            out.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return out;
+    }
+
+    // 특징은 청크마다 수백 개라 SHA-256 대신 FNV-1a (64bit)
+    private static long featureSeed(String feature) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long seed(String input) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toBase64(float[] vector) {
+        ByteBuffer bytes = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(vector);
+        return Base64.getEncoder().encodeToString(bytes.array());
+    }
+
+    // -------- HTTP helpers --------
+
+    private Mono<JsonNode> readBody(HttpServerRequest req) {
+        return req.receive().aggregate().asByteArray()
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> {
+                    try {
+                        return bytes.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(bytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // OpenAI 는 문자열, Anthropic 은 문자열 또는 [{type:text,text:..}] 배열
+    private static String text(JsonNode content) {
+        if (content.isArray()) {
+            StringBuilder text = new StringBuilder();
+            content.forEach(part -> text.append(part.path("text").asText()));
+            return text.toString();
+        }
+        return content.asText("");
+    }
+
+    private Mono<Void> sendJson(HttpServerResponse res, Provider provider, Object body) {
+        rateLimitHeaders(res, provider);
+        return res.status(HttpResponseStatus.OK)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .header("x-request-id", "mock-" + HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt()))
+                .sendString(Mono.just(json(body)), StandardCharsets.UTF_8)
+                .then();
+    }
+
+    private void rateLimitHeaders(HttpServerResponse res, Provider provider) {
+        if (properties.getRpm() > 0) {
+            res.header(provider == Provider.ANTHROPIC ? "anthropic-ratelimit-requests-limit" : "x-ratelimit-limit-requests",
+                    String.valueOf(properties.getRpm()));
+        }
+        if (properties.getTpm() > 0) {
+            res.header(provider == Provider.ANTHROPIC ? "anthropic-ratelimit-tokens-limit" : "x-ratelimit-limit-tokens",
+                    String.valueOf(properties.getTpm()));
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private enum Provider { OPENAI, ANTHROPIC }
+}
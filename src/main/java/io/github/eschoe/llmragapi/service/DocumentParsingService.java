@@ -1,14 +1,33 @@
 package io.github.eschoe.llmragapi.service;
 
+import io.github.eschoe.llmragapi.domain.document.chunk.Chunk;
+import io.github.eschoe.llmragapi.domain.document.chunk.ChunkingHandler;
+import io.github.eschoe.llmragapi.domain.document.chunk.ChunkingOptions;
+import io.github.eschoe.llmragapi.domain.document.chunk.ChunkingStrategy;
+import io.github.eschoe.llmragapi.util.TokenCounter;
 import org.apache.tika.Tika;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 // OCR imports
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -24,9 +43,23 @@ import javax.imageio.ImageIO;
 public class DocumentParsingService {
 
     private final Tika tika;
+    private final TokenCounter tokenCounter;
+    private final Map<String, ChunkingStrategy> strategies;
 
-    public DocumentParsingService() {
+    @Value("${app.document.chunking.strategy:structure}")
+    private String defaultStrategy;
+
+    @Value("${app.document.chunking.max-tokens:512}")
+    private int maxTokens;
+
+    @Value("${app.document.chunking.overlap-tokens:64}")
+    private int overlapTokens;
+
+    public DocumentParsingService(TokenCounter tokenCounter, List<ChunkingStrategy> strategies) {
         this.tika = new Tika();
+        this.tokenCounter = tokenCounter;
+        this.strategies = strategies.stream()
+                .collect(Collectors.toMap(st -> st.name().toLowerCase(Locale.ROOT), st -> st));
     }
 
     public Mono<String> extractText(byte[] fileContent, String fileName) {
@@ -155,6 +188,93 @@ public class DocumentParsingService {
         });
     }
 
+    /**
+     * 문서를 파싱하면서 동시에 청크를 만들어 흘려보냅니다.
+     *
+     * Tika 의 SAX(XHTML) 이벤트를 그대로 청킹 전략에 넘기므로 전체 텍스트를 메모리에 올리지 않으며,
+     * 하위 구독자의 요청량(backpressure)만큼만 파싱이 진행됩니다.
+     * 추출된 텍스트가 없으면 기존 extractText 경로(대체 파싱, OCR)로 한 번 더 시도합니다.
+     *
+     * @param strategyName 청킹 전략 이름 (null 이면 app.document.chunking.strategy)
+     */
+    public Flux<Chunk> streamChunks(byte[] fileContent, String fileName, String strategyName) {
+        ChunkingStrategy strategy;
+        try {
+            strategy = resolveStrategy(strategyName);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(e);
+        }
+
+        Flux<Chunk> parsed = Flux.<Chunk>create(sink -> {
+            DemandGate gate = new DemandGate(sink);
+            ChunkingHandler handler = strategy.open(chunkingOptions(), chunk -> {
+                if (!gate.awaitDemand()) throw new CancellationException("chunk stream cancelled");
+                sink.next(chunk);
+            });
+
+            try {
+                System.out.println("[DocumentParsingService] Streaming chunks from file: " + fileName + " (strategy: " + strategy.name() + ")");
+                Metadata metadata = new Metadata();
+                metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+
+                tika.getParser().parse(
+                        new ByteArrayInputStream(fileContent),
+                        new BodyContentHandler(handler),
+                        metadata,
+                        new ParseContext());
+                handler.finish();
+
+                System.out.println("[DocumentParsingService] Streamed chunks: " + handler.emittedCount());
+                sink.complete();
+            } catch (CancellationException e) {
+                System.out.println("[DocumentParsingService] Chunk stream cancelled: " + fileName);
+            } catch (Exception e) {
+                // SAX 핸들러 안에서 던진 취소는 SAXException 등으로 감싸져 올라올 수 있음
+                if (sink.isCancelled()) return;
+                System.err.println("[DocumentParsingService] Streaming parse error: " + e.getMessage());
+                sink.error(new RuntimeException("문서 파싱 실패: " + e.getMessage(), e));
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+
+        return parsed.switchIfEmpty(Flux.defer(() -> {
+            System.out.println("[DocumentParsingService] No chunks streamed, falling back to extractText");
+            return extractText(fileContent, fileName)
+                    .flatMapMany(text -> chunkText(text, strategyName));
+        }));
+    }
+
+    /**
+     * 이미 메모리에 있는 텍스트(OCR 결과 등)를 streamChunks 와 같은 규칙으로 청크로 나눕니다.
+     */
+    public Flux<Chunk> chunkText(String text, String strategyName) {
+        return Flux.defer(() -> {
+            if (text == null || text.isBlank()) return Flux.empty();
+
+            List<Chunk> chunks = new ArrayList<>();
+            ChunkingHandler handler = resolveStrategy(strategyName).open(chunkingOptions(), chunks::add);
+            handler.appendText(text);
+            handler.finish();
+            return Flux.fromIterable(chunks);
+        });
+    }
+
+    private ChunkingOptions chunkingOptions() {
+        return new ChunkingOptions(tokenCounter::count, maxTokens, overlapTokens);
+    }
+
+    private ChunkingStrategy resolveStrategy(String strategyName) {
+        String name = (strategyName == null || strategyName.isBlank()) ? defaultStrategy : strategyName;
+        ChunkingStrategy strategy = strategies.get(name.toLowerCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new IllegalArgumentException("지원하지 않는 청킹 전략입니다: " + name + " (사용 가능: " + strategies.keySet() + ")");
+        }
+        return strategy;
+    }
+
+    /**
+     * @deprecated 문자 수 기준으로 [.!?] 에서만 자르며 종결 부호를 잃습니다. {@link #streamChunks} 또는 {@link #chunkText} 를 사용하세요.
+     */
+    @Deprecated
     public Mono<List<String>> splitIntoChunks(String text, int chunkSize, int overlapSize) {
         return Mono.fromCallable(() -> {
             List<String> chunks = new ArrayList<>();
@@ -229,6 +349,41 @@ public class DocumentParsingService {
         });
     }
 
+    /**
+     * 파싱 스레드가 하위 구독자의 요청이 있을 때까지 기다리게 하는 게이트
+     * (파싱은 boundedElastic 스레드에서 돌기 때문에 블로킹해도 무방)
+     */
+    private static final class DemandGate {
+        private final FluxSink<?> sink;
+        private final Semaphore permits = new Semaphore(0);
+        private volatile boolean unbounded;
+
+        DemandGate(FluxSink<?> sink) {
+            this.sink = sink;
+            sink.onRequest(n -> {
+                if (n >= Integer.MAX_VALUE) {
+                    unbounded = true;
+                    permits.release();
+                } else {
+                    permits.release((int) n);
+                }
+            });
+        }
+
+        boolean awaitDemand() {
+            while (!unbounded) {
+                if (sink.isCancelled()) return false;
+                try {
+                    if (permits.tryAcquire(100, TimeUnit.MILLISECONDS)) return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return !sink.isCancelled();
+        }
+    }
+
     public static class DocumentMetadata {
         private String title;
         private String creator;
@@ -0,0 +1,332 @@
+package io.github.eschoe.llmragapi.service;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 노드 로컬 토큰 버킷 + Redis 비동기 동기화 rate limiter (app.rate-limit.mode=hybrid)
+ *
+ * - 판정은 세션별 로컬 버킷에서 끝나므로 요청 경로에 네트워크 왕복이 없습니다.
+ * - 로컬에서 허용한 요청 수는 sync-interval 마다 모든 세션을 묶어 한 번의 Lua 호출로 Redis 에 더하고,
+ *   그 응답으로 클러스터 전체 사용량(두 고정 윈도우를 가중 합산한 sliding window 근사)을 받아 옵니다.
+ * - 동기화되지 않은 허용 수가 세션당 max-drift 에 닿으면 그 세션만 즉시 동기화한 뒤 판정합니다.
+ *   따라서 전체 초과 허용량은 대략 (노드 수 x max-drift) 로 제한됩니다.
+ *
+ * 동기화에 실패하면 미반영 수를 다음 주기로 넘기고, 로컬 버킷만으로 계속 판정합니다.
+ * 실패 직후에는 즉시 동기화도 backoff 동안 쉬므로, 오차 한도를 넘은 세션이 요청마다 Redis 를 두드리지 않습니다.
+ *
+ * 세션마다 키 하나(rate_limit:hy:{sessionId} hash, field = 윈도우 번호)만 쓰고 모두 KEYS 로 넘깁니다.
+ * Redis Cluster 에서는 app.rate-limit.hybrid.cluster=true 로 같은 슬롯의 세션끼리만 한 번에 보냅니다.
+ */
+@Component
+public class HybridRateLimiter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    /**
+     * KEYS[i] = 세션 hash (field = 윈도우 번호), ARGV[1] = 윈도우(ms), ARGV[i + 1] = 더할 요청 수
+     * 반환: 세션별 전체 사용량 (이전 윈도우 x 남은 비율 + 현재 윈도우, 올림)
+     */
+    private static final RedisScript<List> SYNC_SCRIPT = RedisScript.of("""
+            local window = tonumber(ARGV[1])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local index = math.floor(now / window)
+            local weight = 1 - (now - index * window) / window
+
+            local result = {}
+            for i, key in ipairs(KEYS) do
+              local delta = tonumber(ARGV[i + 1])
+              local count
+              if delta > 0 then
+                count = redis.call('HINCRBY', key, index, delta)
+                redis.call('PEXPIRE', key, window * 2)
+                -- 이전 윈도우보다 오래된 field 정리
+                if redis.call('HLEN', key) > 2 then
+                  for _, field in ipairs(redis.call('HKEYS', key)) do
+                    if tonumber(field) < index - 1 then
+                      redis.call('HDEL', key, field)
+                    end
+                  end
+                end
+              else
+                count = tonumber(redis.call('HGET', key, index) or '0')
+              end
+              local previous = tonumber(redis.call('HGET', key, index - 1) or '0')
+              result[i] = math.ceil(previous * weight + count)
+            end
+            return result
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final Map<String, SessionBucket> buckets = new ConcurrentHashMap<>();
+
+    @Value("${app.rate-limit.mode:redis}")
+    private String mode;
+
+    @Value("${app.rate-limit.window-sec:60}")
+    private int windowSeconds;
+
+    @Value("${app.rate-limit.limit:10}")
+    private int maxRequests;
+
+    @Value("${app.rate-limit.hybrid.sync-interval:200ms}")
+    private Duration syncInterval;
+
+    // 세션당 Redis 에 반영되지 않은 채 허용할 수 있는 최대 요청 수 (노드별 오차 한도)
+    @Value("${app.rate-limit.hybrid.max-drift:5}")
+    private int maxDrift;
+
+    // 한 번의 Lua 호출에 담는 최대 세션 수
+    @Value("${app.rate-limit.hybrid.sync-batch-size:500}")
+    private int syncBatchSize;
+
+    // Redis Cluster 면 한 번의 Lua 호출에 같은 해시 슬롯의 세션만 담음 (CROSSSLOT 방지)
+    @Value("${app.rate-limit.hybrid.cluster:false}")
+    private boolean cluster;
+
+    // 동기화 실패 후 즉시 동기화를 쉬는 시간의 상한 (sync-interval 부터 실패할 때마다 두 배)
+    @Value("${app.rate-limit.hybrid.failure-backoff-max:5s}")
+    private Duration failureBackoffMax;
+
+    private volatile Disposable syncLoop;
+
+    // 연속 실패 횟수와, 그동안 즉시 동기화를 건너뛰는 시각(ms)
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long inlineSyncPausedUntil;
+
+    public HybridRateLimiter(ReactiveStringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    public Mono<RateLimitDecision> check(String sessionId) {
+        long now = System.currentTimeMillis();
+        SessionBucket bucket = buckets.computeIfAbsent(sessionId, id -> new SessionBucket(maxRequests, now));
+
+        RateLimitDecision decision = bucket.tryAcquire(now, maxRequests, windowMillis(), maxDrift);
+        if (decision != null) {
+            return Mono.just(decision);
+        }
+
+        // 최근에 동기화가 실패했으면 backoff 동안은 로컬 버킷만으로 판정 (미반영 수는 주기 동기화가 다시 보냄)
+        if (now < inlineSyncPausedUntil) {
+            return Mono.just(bucket.tryAcquire(now, maxRequests, windowMillis(), Integer.MAX_VALUE));
+        }
+
+        // 오차 한도에 닿은 세션만 네트워크를 거쳐 전체 사용량을 확인.
+        // 동기화에 실패했으면 로컬 버킷만으로 판정 (Redis 오류 시 허용하는 기존 정책과 같음)
+        return sync(List.of(Map.entry(sessionId, bucket)))
+                .then(Mono.fromSupplier(() ->
+                        bucket.tryAcquire(System.currentTimeMillis(), maxRequests, windowMillis(), Integer.MAX_VALUE)));
+    }
+
+    @Override
+    public void start() {
+        if (!"hybrid".equalsIgnoreCase(mode)) return;
+        syncLoop = Flux.interval(syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> syncAll(), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable loop = syncLoop;
+        if (loop == null) return;
+        loop.dispose();
+        syncLoop = null;
+        // 남은 미반영 수를 마지막으로 반영
+        syncAll().block(Duration.ofSeconds(5));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return syncLoop != null;
+    }
+
+    Mono<Void> syncAll() {
+        long now = System.currentTimeMillis();
+        long idleLimit = windowMillis() * 2;
+
+        List<Map.Entry<String, SessionBucket>> active = new ArrayList<>();
+        buckets.entrySet().removeIf(entry -> entry.getValue().idleSince(now) > idleLimit && entry.getValue().isSettled());
+        buckets.forEach((sessionId, bucket) -> {
+            // 최근 윈도우 안에 요청이 있었던 세션은 다른 노드의 사용량을 받아 오기 위해 delta 가 0 이어도 포함
+            if (bucket.hasPending() || bucket.idleSince(now) <= windowMillis()) {
+                active.add(Map.entry(sessionId, bucket));
+            }
+        });
+        if (active.isEmpty()) return Mono.empty();
+
+        return Flux.fromIterable(batches(active))
+                .concatMap(this::sync)
+                .then();
+    }
+
+    // sync-batch-size 씩 나누되, cluster 면 해시 슬롯별로 따로 묶음
+    private List<List<Map.Entry<String, SessionBucket>>> batches(List<Map.Entry<String, SessionBucket>> active) {
+        Map<Integer, List<Map.Entry<String, SessionBucket>>> open = new LinkedHashMap<>();
+        List<List<Map.Entry<String, SessionBucket>>> batches = new ArrayList<>();
+        for (Map.Entry<String, SessionBucket> entry : active) {
+            int group = cluster ? SlotHash.getSlot(key(entry.getKey())) : 0;
+            List<Map.Entry<String, SessionBucket>> batch = open.computeIfAbsent(group, g -> {
+                List<Map.Entry<String, SessionBucket>> created = new ArrayList<>();
+                batches.add(created);
+                return created;
+            });
+            batch.add(entry);
+            if (batch.size() >= syncBatchSize) {
+                open.remove(group);
+            }
+        }
+        return batches;
+    }
+
+    // {sessionId} 는 Redis Cluster 해시 태그
+    static String key(String sessionId) {
+        return "rate_limit:hy:{" + sessionId + "}";
+    }
+
+    private Mono<Void> sync(List<Map.Entry<String, SessionBucket>> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        List<String> args = new ArrayList<>(batch.size() + 1);
+        args.add(String.valueOf(windowMillis()));
+        long[] deltas = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            keys.add(key(batch.get(i).getKey()));
+            deltas[i] = batch.get(i).getValue().beginSync();
+            args.add(String.valueOf(deltas[i]));
+        }
+
+        return redis.execute(SYNC_SCRIPT, keys, args)
+                .next()
+                .doOnNext(result -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).getValue().completeSync(((Number) result.get(i)).longValue(), deltas[i]);
+                    }
+                    consecutiveFailures.set(0);
+                    inlineSyncPausedUntil = 0;
+                })
+                .doOnError(e -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).getValue().failSync(deltas[i]);
+                    }
+                    int failures = consecutiveFailures.incrementAndGet();
+                    long backoff = Math.min(failureBackoffMax.toMillis(), syncInterval.toMillis() << Math.min(failures - 1, 16));
+                    inlineSyncPausedUntil = System.currentTimeMillis() + backoff;
+                    log.warn("[HybridRateLimiter] Sync failed for {} sessions (inline sync paused {}ms): {}",
+                            batch.size(), backoff, e.getMessage());
+                })
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private long windowMillis() {
+        return windowSeconds * 1000L;
+    }
+
+    /**
+     * 세션 하나의 로컬 상태. 세션별 모니터로 보호되므로 서로 다른 세션은 경합하지 않습니다.
+     */
+    static final class SessionBucket {
+
+        private double tokens;
+        private long lastRefill;
+        private long lastAccess;
+        // 마지막 동기화 때 Redis 가 알려 준 전체 사용량
+        private long globalUsed;
+        // 아직 Redis 로 보내지 않은 허용 수 / 보내는 중인 허용 수
+        private long unsynced;
+        private long inFlight;
+
+        SessionBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefill = now;
+            this.lastAccess = now;
+        }
+
+        /**
+         * @param maxDrift 동기화 없이 허용할 수 있는 최대 미반영 수
+         * @return 판정 결과. 오차 한도에 닿아 동기화가 필요하면 null
+         */
+        synchronized RateLimitDecision tryAcquire(long now, int limit, long windowMillis, int maxDrift) {
+            lastAccess = now;
+            double refillPerMilli = (double) limit / windowMillis;
+            tokens = Math.min(limit, tokens + (now - lastRefill) * refillPerMilli);
+            lastRefill = now;
+
+            long windowSeconds = windowMillis / 1000;
+            long globalRemaining = limit - globalUsed - inFlight - unsynced;
+            if (tokens < 1) {
+                long reset = (long) Math.ceil((1 - tokens) / refillPerMilli / 1000);
+                return deny(limit, windowSeconds, Math.max(1, reset));
+            }
+            if (globalRemaining <= 0) {
+                return deny(limit, windowSeconds, Math.max(1, windowSeconds - (now / 1000) % windowSeconds));
+            }
+            if (unsynced >= maxDrift) {
+                return null;
+            }
+
+            tokens -= 1;
+            unsynced++;
+            long remaining = Math.max(0, Math.min((long) tokens, globalRemaining - 1));
+            // 다음 자리가 나는 시각: 로컬 토큰이 먼저 모자라면 토큰 하나가 다시 차는 시간, 전체 사용량이 먼저면 윈도우가 넘어가는 시간
+            long reset = globalRemaining - 1 < (long) tokens
+                    ? windowSeconds - (now / 1000) % windowSeconds
+                    : (long) Math.ceil((1 - tokens % 1) / refillPerMilli / 1000);
+            return new RateLimitDecision(true, limit, remaining, Math.max(1, reset), windowSeconds);
+        }
+
+        private static RateLimitDecision deny(int limit, long windowSeconds, long resetSeconds) {
+            return new RateLimitDecision(false, limit, 0, resetSeconds, windowSeconds);
+        }
+
+        synchronized long beginSync() {
+            long delta = unsynced;
+            inFlight += delta;
+            unsynced = 0;
+            return delta;
+        }
+
+        // 주기 동기화와 즉시 동기화가 겹칠 수 있으므로 자기 몫만 뺌
+        synchronized void completeSync(long used, long delta) {
+            globalUsed = used;
+            inFlight -= delta;
+        }
+
+        synchronized void failSync(long delta) {
+            inFlight -= delta;
+            unsynced += delta;
+        }
+
+        synchronized boolean hasPending() {
+            return unsynced > 0;
+        }
+
+        synchronized boolean isSettled() {
+            return unsynced == 0 && inFlight == 0;
+        }
+
+        synchronized long idleSince(long now) {
+            return now - lastAccess;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.eschoe.llmragapi.service;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 요청 한 건에 대한 rate limit 판정
+ *
+ * @param limit         윈도우당 허용 요청 수
+ * @param remaining     이번 요청을 포함해 윈도우에 남은 요청 수
+ * @param resetSeconds  가장 오래된 요청이 윈도우를 벗어나 한 자리가 비기까지 남은 초
+ * @param windowSeconds 윈도우 길이(초)
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long resetSeconds, long windowSeconds) {
+
+    /**
+     * RateLimit-* 헤더 (draft-ietf-httpapi-ratelimit-headers) 와, 거부된 경우 Retry-After 를 추가합니다.
+     */
+    public void addTo(HttpHeaders headers) {
+        headers.set("RateLimit-Limit", String.valueOf(limit));
+        headers.set("RateLimit-Remaining", String.valueOf(remaining));
+        headers.set("RateLimit-Reset", String.valueOf(resetSeconds));
+        headers.set("RateLimit-Policy", limit + ";w=" + windowSeconds);
+        if (!allowed) {
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, resetSeconds)));
+        }
+    }
+}
@@ -2,63 +2,105 @@ package io.github.eschoe.llmragapi.service;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * 세션별 sliding window rate limiter
+ *
+ * 윈도우 안의 요청 시각을 sorted set 에 두고, 오래된 요청 정리 / 개수 확인 / 추가 / 만료 설정을
+ * Lua 스크립트 하나로 처리합니다. 판정은 원자적이고 요청당 Redis 왕복은 한 번입니다.
+ * 시각은 Redis 서버의 TIME 을 쓰므로 인스턴스 간 시계 차이의 영향을 받지 않습니다.
+ *
+ * app.rate-limit.mode=hybrid 이면 판정을 {@link HybridRateLimiter} 의 로컬 버킷에 맡기고,
+ * Redis 반영은 백그라운드에서 묶어서 처리합니다.
+ */
 @Service
 public class RateLimitingService {
 
+    /**
+     * KEYS[1] = 키, ARGV[1] = 허용 요청 수, ARGV[2] = 윈도우(ms), ARGV[3] = 요청 식별자
+     * 반환: {허용 여부(1/0), 남은 요청 수, 한 자리가 비기까지 남은 시간(ms)}
+     */
+    private static final RedisScript<List> SLIDING_WINDOW_SCRIPT = RedisScript.of("""
+            local key = KEYS[1]
+            local limit = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+            redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+            local count = redis.call('ZCARD', key)
+            local allowed = 0
+            if count < limit then
+              redis.call('ZADD', key, now, ARGV[3])
+              count = count + 1
+              allowed = 1
+            end
+            redis.call('PEXPIRE', key, window)
+
+            local reset = window
+            local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+            if oldest[2] then
+              reset = tonumber(oldest[2]) + window - now
+            end
+            return {allowed, limit - count, reset}
+            """, List.class);
+
     private final ReactiveStringRedisTemplate redis;
-    
+    private final HybridRateLimiter hybridRateLimiter;
+
+    // redis: 요청마다 Redis 에서 정확히 판정, hybrid: 로컬 판정 + 비동기 동기화
+    @Value("${app.rate-limit.mode:redis}")
+    private String mode;
+
     @Value("${app.rate-limit.window-sec:60}")
     private int windowSeconds;
-    
+
     @Value("${app.rate-limit.limit:10}")
     private int maxRequests;
 
-    public RateLimitingService(ReactiveStringRedisTemplate redis) {
+    public RateLimitingService(ReactiveStringRedisTemplate redis, HybridRateLimiter hybridRateLimiter) {
         this.redis = redis;
+        this.hybridRateLimiter = hybridRateLimiter;
     }
 
     public Mono<Boolean> isAllowed(String sessionId) {
-        String key = "rate_limit:" + sessionId;
-        
-        return redis.opsForValue().get(key)
-                .defaultIfEmpty("0") // empty Mono를 "0"으로 변환
-                .flatMap(currentCount -> {
-                    int count = Integer.parseInt(currentCount);
-                    if (count == 0) {
-                        // 첫 번째 요청
-                        return redis.opsForValue().set(key, "1", Duration.ofSeconds(windowSeconds))
-                                .thenReturn(true);
-                    } else if (count >= maxRequests) {
-                        return Mono.just(false);
-                    } else {
-                        return redis.opsForValue().increment(key)
-                                .thenReturn(true);
-                    }
-                })
-                .onErrorReturn(true); // Redis 오류 시 허용
+        return check(sessionId).map(RateLimitDecision::allowed);
     }
 
-    public Mono<Long> getRemainingRequests(String sessionId) {
-        String key = "rate_limit:" + sessionId;
-        
-        return redis.opsForValue().get(key)
-                .map(currentCount -> {
-                    int count = currentCount != null ? Integer.parseInt(currentCount) : 0;
-                    return (long) Math.max(0, maxRequests - count);
-                })
-                .onErrorReturn((long) maxRequests);
+    /**
+     * 요청을 윈도우에 기록하고 허용 여부와 남은 한도를 돌려줍니다. Redis 오류 시에는 허용합니다.
+     */
+    public Mono<RateLimitDecision> check(String sessionId) {
+        if ("hybrid".equalsIgnoreCase(mode)) {
+            return hybridRateLimiter.check(sessionId);
+        }
+
+        String key = "rate_limit:sw:" + sessionId;
+        // 같은 밀리초에 들어온 요청도 서로 다른 멤버가 되도록
+        String requestId = Long.toHexString(System.nanoTime()) + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        List<String> args = List.of(
+                String.valueOf(maxRequests),
+                String.valueOf(windowSeconds * 1000L),
+                requestId);
+
+        return redis.execute(SLIDING_WINDOW_SCRIPT, List.of(key), args)
+                .next()
+                .map(this::toDecision)
+                .onErrorReturn(new RateLimitDecision(true, maxRequests, maxRequests, windowSeconds, windowSeconds));
     }
 
-    public Mono<Long> getResetTime(String sessionId) {
-        String key = "rate_limit:" + sessionId;
-        
-        return redis.getExpire(key)
-                .map(ttl -> ttl.toSeconds() > 0 ? System.currentTimeMillis() + (ttl.toSeconds() * 1000) : 0L)
-                .onErrorReturn(0L);
+    private RateLimitDecision toDecision(List<?> result) {
+        boolean allowed = ((Number) result.get(0)).longValue() == 1L;
+        long remaining = Math.max(0, ((Number) result.get(1)).longValue());
+        long resetMillis = Math.max(0, ((Number) result.get(2)).longValue());
+        // 초 단위 올림
+        long resetSeconds = (resetMillis + 999) / 1000;
+        return new RateLimitDecision(allowed, maxRequests, remaining, resetSeconds, windowSeconds);
     }
 }
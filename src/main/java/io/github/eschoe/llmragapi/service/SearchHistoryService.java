@@ -1,5 +1,6 @@
 package io.github.eschoe.llmragapi.service;
 
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
@@ -14,6 +15,8 @@ import java.util.List;
 public class SearchHistoryService {
 
     private final ReactiveStringRedisTemplate redis;
+    private final SideEffectPipeline sideEffects;
+    private final RedisJsonCodec codec;
 
     @Value("${app.llm.search-history-ttl:24h}")
     private String searchHistoryTtl;
@@ -21,14 +24,19 @@ public class SearchHistoryService {
     @Value("${app.llm.search-history-max:100}")
     private long maxSearchHistory;
 
-    public SearchHistoryService(ReactiveStringRedisTemplate redis) {
+    public SearchHistoryService(ReactiveStringRedisTemplate redis, SideEffectPipeline sideEffects, RedisJsonCodec codec) {
         this.redis = redis;
+        this.sideEffects = sideEffects;
+        this.codec = codec;
     }
 
     public Mono<Void> saveSearchHistory(String sessionId, String query, int resultCount) {
+        return saveSearchHistory(sessionId, query, resultCount, Instant.now());
+    }
+
+    private Mono<Void> saveSearchHistory(String sessionId, String query, int resultCount, Instant searchedAt) {
         String key = "search:hist:" + sessionId;
-        String searchEntry = String.format("{\"query\":\"%s\",\"resultCount\":%d,\"timestamp\":\"%s\"}", 
-                query.replace("\"", "\\\""), resultCount, Instant.now());
+        String searchEntry = codec.encode(new SearchHistoryEntry(query, resultCount, searchedAt));
 
         return redis.opsForList().leftPush(key, searchEntry)
                 .then(redis.opsForList().trim(key, 0, maxSearchHistory - 1))
@@ -36,6 +44,15 @@ public class SearchHistoryService {
                 .then();
     }
 
+    /**
+     * 검색 히스토리 저장을 {@link SideEffectPipeline} 에 맡기고 바로 반환합니다.
+     */
+    public void saveSearchHistoryAsync(String sessionId, String query, int resultCount) {
+        // 타임스탬프는 검색 시점 기준이 되도록 미리 만들어 둠
+        Instant searchedAt = Instant.now();
+        sideEffects.submit("search-history", () -> saveSearchHistory(sessionId, query, resultCount, searchedAt));
+    }
+
     public Flux<SearchHistoryEntry> getSearchHistory(String sessionId, int limit) {
         String key = "search:hist:" + sessionId;
         
@@ -59,27 +76,12 @@ public class SearchHistoryService {
 
     private SearchHistoryEntry parseSearchEntry(String entry) {
         try {
-            // 간단한 JSON 파싱 (실제로는 Jackson 사용 권장)
-            String query = extractValue(entry, "query");
-            int resultCount = Integer.parseInt(extractValue(entry, "resultCount"));
-            String timestamp = extractValue(entry, "timestamp");
-            
-            return new SearchHistoryEntry(query, resultCount, Instant.parse(timestamp));
+            return codec.decode(entry, SearchHistoryEntry.class);
         } catch (Exception e) {
             return new SearchHistoryEntry("파싱 오류", 0, Instant.now());
         }
     }
 
-    private String extractValue(String json, String key) {
-        String pattern = "\"" + key + "\":\"";
-        int start = json.indexOf(pattern);
-        if (start == -1) return "";
-        start += pattern.length();
-        int end = json.indexOf("\"", start);
-        if (end == -1) return "";
-        return json.substring(start, end);
-    }
-
     public static class SearchHistoryEntry {
         private String query;
         private int resultCount;
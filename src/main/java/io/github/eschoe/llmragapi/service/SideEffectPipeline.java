@@ -0,0 +1,211 @@
+package io.github.eschoe.llmragapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 응답과 무관한 후처리(히스토리 저장 등)를 응답 경로 밖에서 실행하는 백그라운드 파이프라인
+ *
+ * - 작업은 크기가 제한된 큐에 쌓이고, 큐가 가득 차면 버려집니다. (요청 스레드를 막지 않음)
+ * - 워커 스레드가 큐에서 최대 batch-size 개씩 꺼내 동시에 실행합니다. Lettuce 는 하나의 커넥션에서
+ *   명령을 응답을 기다리지 않고 연달아 보내므로, 한 배치의 Redis 쓰기는 파이프라인으로 전송됩니다.
+ * - 실패한 작업은 backoff 로 재시도하고, 끝내 실패하면 버립니다.
+ * - task-timeout 보다 긴 시간을 준 작업(LLM 요약 등)은 따로 slow 레인의 큐와 워커에서 실행합니다.
+ *   배치는 가장 느린 작업이 끝나야 다음으로 넘어가므로, 같은 레인이면 히스토리 저장이 LLM 호출을 기다리게 됩니다.
+ * - 종료 시에는 웹 서버의 graceful shutdown 이 끝난 뒤 남은 작업을 drain-timeout 동안 비웁니다.
+ *
+ * 지표: side_effects.submitted / completed / failed / dropped (tag: name), side_effects.queue.size (tag: lane)
+ */
+@Service
+public class SideEffectPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SideEffectPipeline.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Lane fast;
+    private final Lane slow;
+
+    @Value("${app.side-effects.batch-size:64}")
+    private int batchSize;
+
+    // slow 레인에서 동시에 실행하는 작업 수
+    @Value("${app.side-effects.slow-batch-size:8}")
+    private int slowBatchSize;
+
+    @Value("${app.side-effects.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.side-effects.retry-backoff:100ms}")
+    private Duration retryBackoff;
+
+    // 작업 하나가 재시도를 포함해 끝나기를 기다리는 최대 시간
+    @Value("${app.side-effects.task-timeout:5s}")
+    private Duration taskTimeout;
+
+    @Value("${app.side-effects.drain-timeout:10s}")
+    private Duration drainTimeout;
+
+    private volatile boolean running;
+    private volatile boolean accepting;
+
+    public SideEffectPipeline(MeterRegistry meterRegistry,
+                              @Value("${app.side-effects.capacity:10000}") int capacity,
+                              @Value("${app.side-effects.slow-capacity:1000}") int slowCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.fast = new Lane("fast", capacity);
+        this.slow = new Lane("slow", slowCapacity);
+    }
+
+    /**
+     * 후처리 작업을 큐에 넣습니다. 작업은 워커 스레드에서 나중에 구독됩니다.
+     *
+     * @param name   지표/로그에 쓰는 작업 종류 (예: chat-history)
+     * @param effect 실행할 작업. 재시도 시 다시 호출되므로 매번 새 Mono 를 만들어야 합니다.
+     * @return 큐에 들어갔으면 true, 가득 찼거나 종료 중이라 버려졌으면 false
+     */
+    public boolean submit(String name, Supplier<Mono<?>> effect) {
+        return submit(name, taskTimeout, effect);
+    }
+
+    /**
+     * 기본 task-timeout 보다 오래 걸리는 작업(LLM 호출 등)을 위한 overload
+     * timeout 이 task-timeout 보다 길면 slow 레인에서 실행되어 다른 후처리를 막지 않습니다.
+     *
+     * @param timeout 재시도를 포함해 작업이 끝나기를 기다리는 최대 시간
+     */
+    public boolean submit(String name, Duration timeout, Supplier<Mono<?>> effect) {
+        Lane lane = timeout.compareTo(taskTimeout) > 0 ? slow : fast;
+        if (accepting && lane.queue.offer(new Task(name, effect, timeout))) {
+            counter("side_effects.submitted", name).increment();
+            return true;
+        }
+        counter("side_effects.dropped", name).increment();
+        log.warn("[SideEffectPipeline] Dropped side effect: {} (lane: {}, queue size: {})", name, lane.name, lane.queue.size());
+        return false;
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        running = true;
+        fast.start(batchSize);
+        slow.start(slowBatchSize);
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        // 두 레인이 동시에 비워지므로 전체 대기는 drain-timeout 안쪽
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        fast.join(deadline);
+        slow.join(deadline);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 웹 서버 graceful shutdown(Integer.MAX_VALUE - 1024)과 웹 서버 종료(- 2048) 이후에 멈춤
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    private void runLoop(BlockingQueue<Task> queue, int maxBatch) {
+        List<Task> batch = new ArrayList<>(maxBatch);
+        // 종료 요청 후에도 큐가 빌 때까지는 계속 처리
+        while (running || !queue.isEmpty()) {
+            try {
+                Task first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[SideEffectPipeline] Batch failed: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Task> batch) {
+        Flux.fromIterable(batch)
+                .flatMap(this::execute, batch.size())
+                .then()
+                .block();
+    }
+
+    private Mono<Void> execute(Task task) {
+        return Mono.defer(task.effect())
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff))
+                .timeout(task.timeout())
+                .doOnSuccess(v -> counter("side_effects.completed", task.name()).increment())
+                .then()
+                .onErrorResume(e -> {
+                    counter("side_effects.failed", task.name()).increment();
+                    log.warn("[SideEffectPipeline] Side effect failed: {} - {}", task.name(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Counter counter(String metric, String name) {
+        return meterRegistry.counter(metric, "name", name);
+    }
+
+    private record Task(String name, Supplier<Mono<?>> effect, Duration timeout) { }
+
+    // 큐 하나와 그 큐를 비우는 워커 스레드 하나
+    private final class Lane {
+        private final String name;
+        private final BlockingQueue<Task> queue;
+        private Thread worker;
+
+        private Lane(String name, int capacity) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            meterRegistry.gauge("side_effects.queue.size", List.of(Tag.of("lane", name)), queue, BlockingQueue::size);
+        }
+
+        private void start(int maxBatch) {
+            worker = new Thread(() -> runLoop(queue, Math.max(1, maxBatch)), "side-effect-pipeline-" + name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        private void join(long deadlineNanos) {
+            if (worker == null) return;
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!queue.isEmpty()) {
+                log.warn("[SideEffectPipeline] Shutdown with {} unprocessed side effects (lane: {})", queue.size(), name);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.github.eschoe.llmragapi.util;
 
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -10,6 +11,11 @@ import java.util.HexFormat;
 @Component
 public class HashUtil {
 
+    /**
+     * 여러 값을 하나의 SHA-256 (hex) 로 만듭니다.
+     *
+     * 값마다 바이트 길이를 앞에 붙여서 경계가 모호하지 않게 합니다. ("ab", "c") 와 ("a", "bc") 는 다른 해시
+     */
     public String sha256(String... input) {
 
         byte[] hash;
@@ -17,7 +23,12 @@ public class HashUtil {
         try {
 
             MessageDigest md = MessageDigest.getInstance("SHA-256");
-            for (String s : input) { md.update(s.getBytes(StandardCharsets.UTF_8)); }
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            for (String s : input) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                md.update(length.clear().putInt(bytes.length).array());
+                md.update(bytes);
+            }
             hash = md.digest();
 
 
@@ -0,0 +1,22 @@
+package io.github.eschoe.llmragapi.util;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+/**
+ * 쿼리 파라미터 파싱 유틸리티 클래스
+ */
+@Component
+public class QueryParamUtil {
+
+    /**
+     * 정수 쿼리 파라미터를 읽습니다. 없거나 숫자가 아니면 기본값을 돌려줍니다. (페이지 번호, 크기 등)
+     */
+    public static int intQueryParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(String::trim).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.eschoe.llmragapi.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Redis 에 저장하는 값(히스토리, 스레드 메시지, 문서 정보 등)의 JSON 변환기
+ *
+ * 타입별 ObjectReader/ObjectWriter 를 한 번만 만들어 재사용하므로 호출마다 직렬화기 조회나
+ * 설정 복사가 일어나지 않습니다. 날짜는 ISO-8601 문자열로 저장하고 null 필드는 생략합니다.
+ *
+ * 예전에 String.format 으로 저장된 값(큰따옴표만 \" 로 바꾸고 나머지는 그대로 넣음)을 읽기 위해
+ * - 이스케이프되지 않은 제어 문자(줄바꿈 등)를 허용하고, 모르는 필드는 무시합니다.
+ * - 파싱에 실패하고 백슬래시가 있으면 \" 가 아닌 백슬래시를 글자 그대로로 보고 다시 파싱합니다. (C:\path 등)
+ *
+ * 예전 값 중 그대로도 올바른 이스케이프로 읽히는 경우(C:\new 의 \n 등)는 구분할 수 없어 이스케이프로 해석되고,
+ * 원래 내용에 \" 가 있던 값처럼 끝내 파싱되지 않는 값은 IllegalArgumentException 으로 알립니다.
+ */
+@Component
+public class RedisJsonCodec {
+
+    // 예전 형식에서 따옴표 이스케이프(\")가 아닌 백슬래시
+    private static final Pattern LEGACY_RAW_BACKSLASH = Pattern.compile("\\\\(?!\")");
+
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public RedisJsonCodec(ObjectMapper objectMapper) {
+        this.mapper = objectMapper.copy()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    public String encode(Object value) {
+        try {
+            return writers.computeIfAbsent(value.getClass(), mapper::writerFor).writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Redis 값 직렬화 실패: " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    public <T> T decode(String json, Class<T> type) {
+        try {
+            return readerFor(type).readValue(json);
+        } catch (JsonProcessingException e) {
+            if (json.indexOf('\\') >= 0) {
+                try {
+                    return readerFor(type).readValue(LEGACY_RAW_BACKSLASH.matcher(json).replaceAll("\\\\\\\\"));
+                } catch (JsonProcessingException ignored) {
+                    // 원래 오류로 알림
+                }
+            }
+            throw new IllegalArgumentException("Redis 값 파싱 실패: " + type.getSimpleName(), e);
+        }
+    }
+
+    private ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, t -> mapper.readerFor(t)
+                .with(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS));
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.github.eschoe.llmragapi.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake 방식의 64비트 ID 생성기
+ *
+ * [부호 1][타임스탬프(ms, EPOCH 기준) 41][노드 ID 10][시퀀스 12]
+ *
+ * - 노드마다 다른 app.id.node-id(0~1023)를 주면 클러스터 전체에서 충돌하지 않습니다.
+ *   값이 없으면 로컬 프로파일(local, dev, test, mock-llm 또는 프로파일 없음)에서만 0 을 쓰고, 그 밖에서는 기동을 멈춥니다.
+ * - 한 노드 안에서는 단조 증가하므로 B-tree 인덱스의 오른쪽 끝에만 삽입됩니다.
+ * - 락 없이 AtomicLong CAS 한 번으로 발급합니다.
+ *
+ * 같은 ms 에 시퀀스 4096 개를 다 쓰면 다음 ms 를 미리 당겨 씁니다. 시계가 뒤로 가도
+ * 마지막으로 발급한 타임스탬프 이후로만 발급하므로 단조성과 유일성이 유지됩니다.
+ */
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // 노드 ID 를 비워 둬도 되는 프로파일 (인스턴스가 하나뿐인 환경)
+    private static final Set<String> LOCAL_PROFILES = Set.of("local", "dev", "test", "mock-llm");
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    // (EPOCH 기준 타임스탬프 << SEQUENCE_BITS) | 시퀀스
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(@Value("${app.id.node-id:}") String nodeId, Environment environment) {
+        this(resolveNodeId(nodeId, environment.getActiveProfiles()), System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.id.node-id 는 0~" + MAX_NODE_ID + " 범위여야 합니다: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    static long resolveNodeId(String nodeId, String... activeProfiles) {
+        if (nodeId != null && !nodeId.isBlank()) {
+            try {
+                return Long.parseLong(nodeId.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("app.id.node-id 는 숫자여야 합니다: " + nodeId);
+            }
+        }
+
+        // 여러 인스턴스가 모두 0 을 쓰면 같은 ID 를 발급하므로 운영 환경에서는 명시적으로 정해야 함
+        if (!Arrays.stream(activeProfiles).allMatch(LOCAL_PROFILES::contains)) {
+            throw new IllegalStateException("app.id.node-id(NODE_ID) 가 설정되지 않았습니다. 인스턴스마다 다른 0~"
+                    + MAX_NODE_ID + " 값을 지정하세요 (활성 프로파일: " + String.join(",", activeProfiles) + ")");
+        }
+        log.warn("[SnowflakeIdGenerator] app.id.node-id is not set, using 0 for local profile");
+        return 0;
+    }
+
+    public long nextId() {
+        while (true) {
+            long prev = state.get();
+            long prevTimestamp = prev >>> SEQUENCE_BITS;
+            long now = Math.max(clock.getAsLong() - EPOCH, prevTimestamp);
+
+            // 같은 ms 이면 시퀀스 증가 (넘치면 자연스럽게 다음 ms 로 올라감)
+            long next = now == prevTimestamp ? prev + 1 : now << SEQUENCE_BITS;
+            if (state.compareAndSet(prev, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+}
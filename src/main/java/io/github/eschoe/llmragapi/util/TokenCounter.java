@@ -0,0 +1,28 @@
+package io.github.eschoe.llmragapi.util;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+/**
+ * 오프라인 토크나이저 (cl100k_base 호환)
+ *
+ * OpenAI 임베딩/채팅 모델과 같은 BPE 규칙으로 토큰 수를 세므로,
+ * 네트워크 호출 없이 청크 크기나 프롬프트 크기를 토큰 단위로 맞출 수 있습니다.
+ */
+@Component
+public class TokenCounter {
+
+    private final Encoding encoding;
+
+    public TokenCounter() {
+        this.encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+    }
+
+    public int count(CharSequence text) {
+        if (text == null || text.isEmpty()) return 0;
+        return encoding.countTokens(text.toString());
+    }
+
+}
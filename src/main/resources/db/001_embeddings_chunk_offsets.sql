@@ -0,0 +1,5 @@
+-- 문서 청크의 순번과 추출 텍스트 기준 오프셋 저장
+-- 기존 행(직접 넣은 임베딩 등)은 NULL 로 남습니다.
+ALTER TABLE chatbot.embeddings ADD COLUMN IF NOT EXISTS chunk_index INTEGER;
+ALTER TABLE chatbot.embeddings ADD COLUMN IF NOT EXISTS start_offset BIGINT;
+ALTER TABLE chatbot.embeddings ADD COLUMN IF NOT EXISTS end_offset BIGINT;
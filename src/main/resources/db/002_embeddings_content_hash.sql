@@ -0,0 +1,4 @@
+-- 청크 내용 해시 (sha256(임베딩 모델, 청크 본문))
+-- 같은 내용의 청크가 다시 업로드되면 임베딩을 새로 만들지 않고 이 해시로 찾아 재사용합니다.
+ALTER TABLE chatbot.embeddings ADD COLUMN IF NOT EXISTS content_hash CHAR(64);
+CREATE INDEX IF NOT EXISTS idx_embeddings_content_hash ON chatbot.embeddings (content_hash);
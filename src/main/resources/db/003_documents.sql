@@ -0,0 +1,14 @@
+-- 업로드된 문서와 버전
+CREATE TABLE IF NOT EXISTS chatbot.documents (
+    id VARCHAR(36) PRIMARY KEY,
+    title VARCHAR(255),
+    version INTEGER NOT NULL DEFAULT 1,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- 청크 -> 문서 FK. 문서를 지우면 청크도 함께 삭제됩니다.
+-- 이전에 업로드된 청크는 문서와 연결할 정보가 없으므로 NULL 로 남습니다.
+ALTER TABLE chatbot.embeddings ADD COLUMN IF NOT EXISTS document_id VARCHAR(36)
+    REFERENCES chatbot.documents (id) ON DELETE CASCADE;
+CREATE INDEX IF NOT EXISTS idx_embeddings_document_id ON chatbot.embeddings (document_id);
@@ -0,0 +1,12 @@
+-- 문서 카탈로그: 소유자(세션)와 필터용 메타데이터
+-- 목록 조회는 (owner_id, updated_at DESC) 인덱스를 타므로 Redis 키 전체를 훑지 않습니다.
+-- 이전 문서는 소유자 정보가 없으므로 owner_id 가 NULL 로 남아 목록에 나오지 않습니다.
+ALTER TABLE chatbot.documents ADD COLUMN IF NOT EXISTS owner_id VARCHAR(128);
+ALTER TABLE chatbot.documents ADD COLUMN IF NOT EXISTS description TEXT;
+ALTER TABLE chatbot.documents ADD COLUMN IF NOT EXISTS category VARCHAR(100);
+ALTER TABLE chatbot.documents ADD COLUMN IF NOT EXISTS total_chunks INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_documents_owner_updated
+    ON chatbot.documents (owner_id, updated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_documents_owner_category_updated
+    ON chatbot.documents (owner_id, category, updated_at DESC);
@@ -0,0 +1,98 @@
+package io.github.eschoe.llmragapi.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LlmCircuitBreaker breaker =
+            new LlmCircuitBreaker("openai", 4, 4, 0.5, Duration.ofSeconds(30), clock::get);
+
+    @Test
+    void opensOnceFailureRateIsReachedWithinWindow() {
+        record(true, true, false);
+        // 최소 호출 수(4) 전에는 실패율이 높아도 닫혀 있음
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+        record(true);
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfWindow() {
+        record(true, false, false, false, false, false, false);
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+        // 처음 실패는 창에서 밀려났으므로 두 번 더 실패해야 2/4 로 OPEN
+        record(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+        record(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeAndClosesOnSuccess() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopensForAnotherOpenDuration() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertThat(breaker.tryAcquire()).isFalse();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void ignoredProbeFreesTheProbeSlot() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onIgnored();
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void open() {
+        record(true, true, true, true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    }
+
+    private void record(boolean... failures) {
+        for (boolean failure : failures) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            if (failure) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.eschoe.llmragapi.client;
+
+import io.github.eschoe.llmragapi.config.LlmQuotaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmQuotaSchedulerTest {
+
+    private static final String MODEL = "gpt-4o-mini";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LlmQuotaProperties properties = new LlmQuotaProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> order = new CopyOnWriteArrayList<>();
+    private final List<Disposable> subscriptions = new ArrayList<>();
+    private final AtomicReference<LlmQuotaScheduler.Permit> permit = new AtomicReference<>();
+    private LlmQuotaScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        properties.setDefaultTpm(1_000_000);
+        properties.setBulkReserve(0);
+        properties.setMaxWait(Duration.ofMinutes(1));
+        scheduler = new LlmQuotaScheduler(properties, meterRegistry, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriptions.forEach(Disposable::dispose);
+    }
+
+    @Test
+    void queuedInteractiveIsServedBeforeEarlierBulk() {
+        properties.setDefaultRpm(2);
+        drain(LlmPriority.INTERACTIVE, 2);
+
+        enqueue(LlmPriority.BULK, "bulk-1");
+        enqueue(LlmPriority.BULK, "bulk-2");
+        enqueue(LlmPriority.INTERACTIVE, "chat-1");
+        enqueue(LlmPriority.INTERACTIVE, "chat-2");
+        assertThat(order).isEmpty();
+
+        // 1분 뒤 요청 2개만큼 다시 참. finish tag 가 작은 INTERACTIVE (100/8) 가 먼저 나감
+        refill(Duration.ofMinutes(1));
+        awaitOrder(2);
+        assertThat(order).containsExactly("chat-1", "chat-2");
+
+        refill(Duration.ofMinutes(1));
+        awaitOrder(4);
+        assertThat(order).containsExactly("chat-1", "chat-2", "bulk-1", "bulk-2");
+    }
+
+    @Test
+    void bulkIsHeldBackByReserveButInteractiveGoesStraightThrough() {
+        properties.setDefaultRpm(10);
+        properties.setBulkReserve(0.5);
+        // BULK 는 요청 버킷이 1 + 10 * 0.5 이상일 때만 들어감 -> 10 에서 5 번
+        drain(LlmPriority.BULK, 5);
+
+        enqueue(LlmPriority.BULK, "bulk");
+        assertThat(order).isEmpty();
+
+        // 기다리는 BULK 가 있어도 INTERACTIVE 는 대기열을 거치지 않고 바로 받음
+        enqueue(LlmPriority.INTERACTIVE, "chat");
+        assertThat(order).containsExactly("chat");
+        assertThat(queued(LlmPriority.BULK)).isEqualTo(1.0);
+        assertThat(queued(LlmPriority.INTERACTIVE)).isZero();
+    }
+
+    @Test
+    void cancelledWaiterDoesNotConsumeQuota() {
+        properties.setDefaultRpm(1);
+        drain(LlmPriority.INTERACTIVE, 1);
+
+        enqueue(LlmPriority.INTERACTIVE, "cancelled");
+        subscriptions.get(0).dispose();
+        assertThat(queued(LlmPriority.INTERACTIVE)).isZero();
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        enqueue(LlmPriority.INTERACTIVE, "chat");
+
+        assertThat(order).containsExactly("chat");
+    }
+
+    // 요청 버킷을 count 번 바로 받아서 씀
+    private void drain(LlmPriority priority, int count) {
+        for (int i = 0; i < count; i++) {
+            String result = scheduler.submit("openai", MODEL, 100, p -> {
+                        permit.set(p);
+                        return Mono.just("warmup");
+                    })
+                    .contextWrite(priority.asContext())
+                    .block(Duration.ofSeconds(1));
+            assertThat(result).isEqualTo("warmup");
+        }
+    }
+
+    private void enqueue(LlmPriority priority, String label) {
+        subscriptions.add(scheduler.submit("openai", MODEL, 100, p -> {
+                    order.add(label);
+                    return Mono.just(label);
+                })
+                .contextWrite(priority.asContext())
+                .subscribe());
+    }
+
+    // 시계를 돌리고 헤더 반영을 계기로 대기열을 바로 처리
+    private void refill(Duration elapsed) {
+        clock.addAndGet(elapsed.toNanos());
+        permit.get().observe(new HttpHeaders());
+    }
+
+    private double queued(LlmPriority priority) {
+        return meterRegistry.get("llm.quota.queue.size").tag("priority", priority.name()).gauge().value();
+    }
+
+    private void awaitOrder(int size) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (order.size() < size && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.eschoe.llmragapi.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmRequestEncoderTest {
+
+    private final LlmRequestEncoder encoder = new LlmRequestEncoder(DefaultDataBufferFactory.sharedInstance);
+
+    @Test
+    void openAiChatMatchesMapBody() {
+        DataBuffer body = encoder.openAiChat("gpt-4o-mini", "시스템 \"규칙\"", "질문\n",
+                new GenerationOptions(256, 0.2));
+
+        assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"model\":\"gpt-4o-mini\",\"messages\":[{\"role\":\"system\",\"content\":\"시스템 \\\"규칙\\\"\"},"
+                        + "{\"role\":\"user\",\"content\":\"질문\\n\"}],\"max_tokens\":256,\"temperature\":0.2}");
+    }
+
+    @Test
+    void fragmentCacheEvictsRarelyUsedModelsAndKeepsHotOnes() {
+        // 요청마다 다른 모델 이름이 들어와도 캐시가 꽉 찬 채로 굳지 않음
+        for (int i = 0; i < 1_000; i++) {
+            encoder.openAiChat("gpt-4o-mini", "system", "q", new GenerationOptions(16, null));
+            encoder.openAiChat("user-model-" + i, "system", "q", new GenerationOptions(16, null));
+        }
+
+        Map<?, ?> fragments = (Map<?, ?>) ReflectionTestUtils.getField(encoder, "fragments");
+        assertThat(fragments).hasSize(256);
+        assertThat(fragments.keySet().toString()).contains("gpt-4o-mini").contains("user-model-999");
+
+        DataBuffer body = encoder.openAiChat("user-model-1000", "system", "q", new GenerationOptions(16, null));
+        assertThat(body.toString(StandardCharsets.UTF_8)).startsWith("{\"model\":\"user-model-1000\"");
+        assertThat(fragments.keySet().toString()).contains("user-model-1000");
+    }
+}
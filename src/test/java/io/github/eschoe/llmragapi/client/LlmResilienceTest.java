@@ -0,0 +1,130 @@
+package io.github.eschoe.llmragapi.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LlmResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new LlmResilience(meterRegistry);
+        ReflectionTestUtils.setField(resilience, "maxRetries", 2);
+        ReflectionTestUtils.setField(resilience, "retryBaseDelay", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(resilience, "retryMaxDelay", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(resilience, "breakerWindowSize", 20);
+        ReflectionTestUtils.setField(resilience, "breakerMinimumCalls", 10);
+        ReflectionTestUtils.setField(resilience, "breakerFailureRate", 0.5);
+        ReflectionTestUtils.setField(resilience, "breakerOpenDuration", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(resilience, "hedgeEnabled", false);
+        ReflectionTestUtils.setField(resilience, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(resilience, "hedgeMinSamples", 20);
+        ReflectionTestUtils.setField(resilience, "hedgeMinDelay", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(resilience, "hedgeMaxDelay", Duration.ofSeconds(2));
+    }
+
+    @Test
+    void retryAfterSecondsIsUsedAsIs() {
+        assertThat(resilience.retryDelay(error(429, "3"), 0)).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void retryAfterHttpDateIsConvertedToDelay() {
+        String at = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(3));
+
+        Duration delay = resilience.retryDelay(error(503, at), 0);
+
+        assertThat(delay).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(3));
+    }
+
+    @Test
+    void retryAfterLongerThanMaxDelayGivesUp() {
+        assertThat(resilience.retryDelay(error(429, "10"), 0)).isNull();
+    }
+
+    @Test
+    void backoffWithoutRetryAfterIsFullJitterUpToCap() {
+        for (int retries = 0; retries < 8; retries++) {
+            long cap = Math.min(5_000, 100L << retries);
+            long longest = 0;
+            for (int i = 0; i < 200; i++) {
+                long millis = resilience.retryDelay(error(503, null), retries).toMillis();
+                assertThat(millis).isBetween(0L, cap - 1);
+                longest = Math.max(longest, millis);
+            }
+            // 고정 지연이 아니라 [0, cap) 전체에 퍼짐
+            assertThat(longest).isGreaterThan(cap / 2);
+        }
+    }
+
+    @Test
+    void transientFailuresAreRetriedThenSucceed() {
+        ReflectionTestUtils.setField(resilience, "retryBaseDelay", Duration.ofMillis(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = resilience.execute("openai", "chat", () -> calls.incrementAndGet() <= 2
+                ? Mono.<String>error(error(503, null))
+                : Mono.just("ok")).block();
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("llm.client.retries").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> resilience.execute("openai", "chat",
+                () -> {
+                    calls.incrementAndGet();
+                    return Mono.<String>error(error(400, null));
+                }).block())
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void openCircuitRejectsWithoutCallingProvider() {
+        ReflectionTestUtils.setField(resilience, "maxRetries", 0);
+        ReflectionTestUtils.setField(resilience, "breakerWindowSize", 2);
+        ReflectionTestUtils.setField(resilience, "breakerMinimumCalls", 2);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            resilience.execute("openai", "chat", () -> {
+                calls.incrementAndGet();
+                return Mono.<String>error(error(503, null));
+            }).onErrorResume(e -> Mono.empty()).block();
+        }
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThatThrownBy(() -> resilience.execute("openai", "chat", () -> Mono.just("ok")).block())
+                .isInstanceOf(LlmCircuitBreaker.OpenException.class);
+    }
+
+    private static WebClientResponseException error(int status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return WebClientResponseException.create(status, "error", headers, new byte[0], StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.eschoe.llmragapi.domain.document;
+
+import io.github.eschoe.llmragapi.client.LlmContextClient;
+import io.github.eschoe.llmragapi.dao.DocumentDao;
+import io.github.eschoe.llmragapi.dao.EmbeddingQueryDao;
+import io.github.eschoe.llmragapi.domain.document.chunk.Chunk;
+import io.github.eschoe.llmragapi.entity.DocumentRow;
+import io.github.eschoe.llmragapi.entity.EmbeddingRow;
+import io.github.eschoe.llmragapi.service.DocumentParsingService;
+import io.github.eschoe.llmragapi.util.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentUploadServiceTest {
+
+    private static final String DOCUMENT_ID = "doc-1";
+    private static final String SESSION_ID = "session-0001";
+    private static final String MODEL = "text-embedding-3-small";
+    private static final byte[] FILE = "ignored".getBytes();
+
+    private final DocumentParsingService parsingService = mock(DocumentParsingService.class);
+    private final LlmContextClient llmContextClient = mock(LlmContextClient.class);
+    private final EmbeddingQueryDao embeddingQueryDao = mock(EmbeddingQueryDao.class);
+    private final DocumentDao documentDao = mock(DocumentDao.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    private final HashUtil hash = new HashUtil();
+
+    private DocumentUploadService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new DocumentUploadService(parsingService, llmContextClient, embeddingQueryDao, documentDao, hash, transactionalOperator);
+        ReflectionTestUtils.setField(service, "embeddingModel", MODEL);
+        ReflectionTestUtils.setField(service, "embedConcurrency", 4);
+        ReflectionTestUtils.setField(service, "dedupBatchSize", 32);
+        ReflectionTestUtils.setField(service, "updateConflictRetries", 2);
+
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(documentDao.findByIdAndOwner(DOCUMENT_ID, SESSION_ID)).thenAnswer(invocation -> Mono.just(document(3)));
+        when(parsingService.streamChunks(any(), anyString(), any())).thenAnswer(invocation -> Flux.just(
+                new Chunk(0, "그대로인 청크", 0, 7),
+                new Chunk(1, "새로 들어온 청크", 8, 17),
+                new Chunk(2, "자리만 옮긴 청크", 18, 27)));
+        when(embeddingQueryDao.findChunkKeysByDocument(DOCUMENT_ID)).thenAnswer(invocation -> Flux.just(
+                stored(10L, 0, "그대로인 청크", 0, 7),
+                stored(11L, 1, "지워진 청크", 8, 14),
+                stored(12L, 2, "자리만 옮긴 청크", 15, 24)));
+        when(embeddingQueryDao.findEmbeddingsByHashes(anyCollection())).thenReturn(Mono.just(Map.of()));
+        when(llmContextClient.embed(eq(MODEL), anyString())).thenReturn(Mono.just(new float[]{0.1f, 0.2f}));
+        when(embeddingQueryDao.deleteByIds(anyCollection())).thenReturn(Mono.just(1L));
+        when(embeddingQueryDao.updateChunkPosition(any())).thenReturn(Mono.just(1L));
+        when(embeddingQueryDao.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void updateEmbedsOnlyChangedChunksAndBumpsVersion() {
+        when(documentDao.bumpVersion(DOCUMENT_ID, 3, "문서", 3)).thenReturn(Mono.just(4));
+
+        DocumentUploadResponse response = service.updateDocument(DOCUMENT_ID, FILE, "doc.txt", request()).block();
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getVersion()).isEqualTo(4);
+        assertThat(response.getTotalChunks()).isEqualTo(3);
+        assertThat(response.getAddedChunks()).isEqualTo(1);
+        assertThat(response.getRemovedChunks()).isEqualTo(1);
+        assertThat(response.getProcessedChunks()).isEqualTo(2);
+
+        verify(llmContextClient, times(1)).embed(MODEL, "새로 들어온 청크");
+        verify(embeddingQueryDao).deleteByIds(List.of(11L));
+        verify(embeddingQueryDao, times(1)).updateChunkPosition(any());
+        verify(embeddingQueryDao, times(1)).save(any());
+    }
+
+    @Test
+    void concurrentUpdateRetriesThenReportsConflictWithoutWriting() {
+        // 다른 재색인이 매번 먼저 커밋해서 읽었던 버전이 계속 어긋남
+        when(documentDao.bumpVersion(eq(DOCUMENT_ID), anyInt(), anyString(), anyInt())).thenReturn(Mono.empty());
+
+        DocumentUploadResponse response = service.updateDocument(DOCUMENT_ID, FILE, "doc.txt", request()).block();
+
+        assertThat(response.getStatus()).isEqualTo("CONFLICT");
+        // 처음 1번 + 재시도 2번, 매번 문서와 저장된 청크를 다시 읽음
+        verify(documentDao, times(3)).findByIdAndOwner(DOCUMENT_ID, SESSION_ID);
+        verify(embeddingQueryDao, times(3)).findChunkKeysByDocument(DOCUMENT_ID);
+        verify(embeddingQueryDao, never()).deleteByIds(anyCollection());
+        verify(embeddingQueryDao, never()).updateChunkPosition(any());
+        verify(embeddingQueryDao, never()).save(any());
+    }
+
+    @Test
+    void conflictResolvedOnRetryUsesFreshVersion() {
+        when(documentDao.findByIdAndOwner(DOCUMENT_ID, SESSION_ID)).thenReturn(Mono.just(document(3)), Mono.just(document(4)));
+        when(documentDao.bumpVersion(DOCUMENT_ID, 3, "문서", 3)).thenReturn(Mono.empty());
+        when(documentDao.bumpVersion(DOCUMENT_ID, 4, "문서", 3)).thenReturn(Mono.just(5));
+
+        DocumentUploadResponse response = service.updateDocument(DOCUMENT_ID, FILE, "doc.txt", request()).block();
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getVersion()).isEqualTo(5);
+        verify(embeddingQueryDao, times(1)).deleteByIds(anyCollection());
+    }
+
+    @Test
+    void updateOfAnotherSessionsDocumentIsNotFound() {
+        when(documentDao.findByIdAndOwner(DOCUMENT_ID, SESSION_ID)).thenReturn(Mono.empty());
+
+        assertThat(service.updateDocument(DOCUMENT_ID, FILE, "doc.txt", request()).block()).isNull();
+        verify(documentDao, never()).bumpVersion(anyString(), anyInt(), anyString(), anyInt());
+    }
+
+    private static DocumentUploadRequest request() {
+        DocumentUploadRequest request = new DocumentUploadRequest();
+        request.setSessionId(SESSION_ID);
+        return request;
+    }
+
+    private static DocumentRow document(int version) {
+        DocumentRow row = new DocumentRow();
+        row.setId(DOCUMENT_ID);
+        row.setTitle("문서");
+        row.setOwnerId(SESSION_ID);
+        row.setVersion(version);
+        return row;
+    }
+
+    private EmbeddingRow stored(long id, int index, String text, long start, long end) {
+        EmbeddingRow row = new EmbeddingRow();
+        row.setId(id);
+        row.setDocumentId(DOCUMENT_ID);
+        row.setChunkIndex(index);
+        row.setStartOffset(start);
+        row.setEndOffset(end);
+        row.setContentHash(hash.sha256(MODEL, text));
+        row.setTitle("문서 - 청크 " + (index + 1));
+        return row;
+    }
+}
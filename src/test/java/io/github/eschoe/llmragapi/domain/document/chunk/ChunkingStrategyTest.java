@@ -0,0 +1,100 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 두 청킹 전략에 Tika 와 같은 순서로 SAX 이벤트를 넣어 보는 테스트
+ * (source 는 핸들러가 characters 로 받은 문자를 그대로 이어 붙인 추출 텍스트)
+ */
+class ChunkingStrategyTest {
+
+    private static final ChunkingOptions OPTIONS = new ChunkingOptions(ChunkSizer.CHARACTERS, 200, 0);
+
+    private final StringBuilder source = new StringBuilder();
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    @Test
+    void sentenceStrategyClosesSentencesAtBlockEnds() throws Exception {
+        ChunkingHandler handler = new SentenceChunkingStrategy().open(OPTIONS, chunks::add);
+
+        element(handler, "p", "검색 결과를 정리했다");
+        element(handler, "p", "다음 문단은 바다 이야기입니다.");
+        handler.finish();
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).text()).isEqualTo("검색 결과를 정리했다 다음 문단은 바다 이야기입니다.");
+        assertThat(chunks.get(0).startOffset()).isZero();
+        // 마지막 줄바꿈은 청크에 들어가지 않음
+        assertThat(chunks.get(0).endOffset()).isEqualTo(source.length() - 1);
+    }
+
+    @Test
+    void structureStrategyOffsetsIgnoreBulletsAndCellSeparators() throws Exception {
+        ChunkingHandler handler = new StructureChunkingStrategy().open(OPTIONS, chunks::add);
+
+        handler.startElement("", "ul", "ul", null);
+        element(handler, "li", "첫 항목입니다.");
+        element(handler, "li", "둘째 항목입니다.");
+        handler.endElement("", "ul", "ul");
+
+        handler.startElement("", "table", "table", null);
+        handler.startElement("", "tr", "tr", null);
+        cell(handler, "이름");
+        cell(handler, "값");
+        handler.endElement("", "tr", "tr");
+        handler.endElement("", "table", "table");
+        handler.finish();
+
+        assertThat(chunks).extracting(Chunk::text)
+                .containsExactly("- 첫 항목입니다. - 둘째 항목입니다.", "이름 | 값");
+
+        Chunk list = chunks.get(0);
+        assertThat(list.startOffset()).isEqualTo(source.indexOf("첫 항목"));
+        assertThat(list.endOffset()).isEqualTo(source.indexOf("둘째 항목입니다.") + "둘째 항목입니다.".length());
+
+        Chunk table = chunks.get(1);
+        assertThat(source.substring((int) table.startOffset(), (int) table.endOffset())).isEqualTo("이름값");
+    }
+
+    @Test
+    void structureStrategyStartsNewChunkAtHeading() throws Exception {
+        ChunkingHandler handler = new StructureChunkingStrategy().open(OPTIONS, chunks::add);
+
+        element(handler, "p", "머리말입니다.");
+        element(handler, "h2", "설치");
+        element(handler, "p", "설치 방법을 설명합니다.");
+        handler.finish();
+
+        assertThat(chunks).extracting(Chunk::text)
+                .containsExactly("머리말입니다.", "설치 설치 방법을 설명합니다.");
+        Chunk section = chunks.get(1);
+        assertThat(source.substring((int) section.startOffset(), (int) section.endOffset()))
+                .isEqualTo("설치\n설치 방법을 설명합니다.");
+    }
+
+    // <name>text</name> 뒤에 Tika 처럼 줄바꿈 공백을 붙임
+    private void element(ChunkingHandler handler, String name, String text) throws Exception {
+        handler.startElement("", name, name, null);
+        characters(handler, text);
+        handler.endElement("", name, name);
+        char[] newline = {'\n'};
+        source.append('\n');
+        handler.ignorableWhitespace(newline, 0, 1);
+    }
+
+    private void cell(ChunkingHandler handler, String text) throws Exception {
+        handler.startElement("", "td", "td", null);
+        characters(handler, text);
+        handler.endElement("", "td", "td");
+    }
+
+    private void characters(ChunkingHandler handler, String text) throws Exception {
+        source.append(text);
+        handler.characters(text.toCharArray(), 0, text.length());
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.eschoe.llmragapi.domain.document.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingChunkerTest {
+
+    @Test
+    void koreanNounsEndingLikeEndingsDoNotCloseSentence() {
+        assertThat(StreamingChunker.isSentenceEnd("바다")).isFalse();
+        assertThat(StreamingChunker.isSentenceEnd("필요")).isFalse();
+        assertThat(StreamingChunker.isSentenceEnd("과다")).isFalse();
+        assertThat(StreamingChunker.isSentenceEnd("중요")).isFalse();
+        assertThat(StreamingChunker.isSentenceEnd("다")).isFalse();
+    }
+
+    @Test
+    void koreanSentenceEndingsCloseSentence() {
+        assertThat(StreamingChunker.isSentenceEnd("했다")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("있다")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("간다")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("입니다")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("있어요")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("하세요")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("습니까")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("할까")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("그렇죠")).isTrue();
+        assertThat(StreamingChunker.isSentenceEnd("끝.\"")).isTrue();
+    }
+
+    @Test
+    void nounEndingInDaStaysInOneSentence() {
+        // "바다" 뒤를 문장 끝으로 보면 "우리는 바다" 가 앞 청크에 붙고 "근처에 산다." 만 다음 청크로 넘어감
+        String text = "첫 문장입니다. 우리는 바다 근처에 산다.";
+        List<Chunk> chunks = chunk(text, 16, 0);
+
+        assertThat(chunks).extracting(Chunk::text)
+                .containsExactly("첫 문장입니다.", "우리는 바다 근처에 산다.");
+    }
+
+    @Test
+    void offsetsPointIntoSourceText() {
+        String text = "첫 문장입니다. 둘째 문장입니다.\n\n셋째 문장입니다.";
+        List<Chunk> chunks = chunk(text, 20, 0);
+
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0).text()).isEqualTo("첫 문장입니다. 둘째 문장입니다.");
+        assertThat(chunks.get(1).text()).isEqualTo("셋째 문장입니다.");
+        for (Chunk chunk : chunks) {
+            assertThat(text.substring((int) chunk.startOffset(), (int) chunk.endOffset())).isEqualTo(chunk.text());
+        }
+    }
+
+    @Test
+    void syntheticTextDoesNotMoveOffsets() {
+        List<Chunk> chunks = new ArrayList<>();
+        StreamingChunker chunker = new StreamingChunker(100, 0, chunks::add);
+
+        String source = "이름값";
+        chunker.append("이름");
+        chunker.appendSynthetic(" | ");
+        chunker.append("값");
+        chunker.finish();
+
+        assertThat(chunks).hasSize(1);
+        Chunk chunk = chunks.get(0);
+        assertThat(chunk.text()).isEqualTo("이름 | 값");
+        assertThat(chunk.startOffset()).isZero();
+        assertThat(chunk.endOffset()).isEqualTo(source.length());
+    }
+
+    private static List<Chunk> chunk(String text, int maxSize, int overlap) {
+        List<Chunk> chunks = new ArrayList<>();
+        StreamingChunker chunker = new StreamingChunker(maxSize, overlap, chunks::add);
+        chunker.append(text);
+        chunker.finish();
+        return chunks;
+    }
+}
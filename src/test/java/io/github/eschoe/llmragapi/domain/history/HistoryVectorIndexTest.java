@@ -0,0 +1,74 @@
+package io.github.eschoe.llmragapi.domain.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.client.LlmContextClient;
+import io.github.eschoe.llmragapi.service.SideEffectPipeline;
+import io.github.eschoe.llmragapi.util.RedisJsonCodec;
+import io.github.eschoe.llmragapi.util.SimpleDurationParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoryVectorIndexTest {
+
+    private static final String MODEL = "text-embedding-3-small";
+
+    private final LlmContextClient llmContextClient = mock(LlmContextClient.class);
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private SideEffectPipeline pipeline;
+    private HistoryVectorIndex index;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new SideEffectPipeline(new SimpleMeterRegistry(), 100, 10);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 16);
+        ReflectionTestUtils.setField(pipeline, "slowBatchSize", 4);
+        ReflectionTestUtils.setField(pipeline, "maxRetries", 0);
+        ReflectionTestUtils.setField(pipeline, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(pipeline, "taskTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(pipeline, "drainTimeout", Duration.ofMillis(200));
+        pipeline.start();
+
+        index = new HistoryVectorIndex(redis, llmContextClient, pipeline,
+                new RedisJsonCodec(new ObjectMapper()), new SimpleDurationParser());
+        ReflectionTestUtils.setField(index, "embeddingModel", MODEL);
+        ReflectionTestUtils.setField(index, "maxTurns", 25L);
+        ReflectionTestUtils.setField(index, "historyTtlTimes", "48h");
+        ReflectionTestUtils.setField(index, "indexTimeout", Duration.ofMinutes(3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void stalledTurnEmbeddingDoesNotHoldUpHistoryAppends() throws InterruptedException {
+        // 할당량 대기 등으로 임베딩이 끝나지 않는 상황
+        when(llmContextClient.embed(eq(MODEL), anyString())).thenReturn(Mono.never());
+
+        index.indexTurnAsync("session-1", HistoryMessage.user("질문"), HistoryMessage.assistant("답변"));
+        verify(llmContextClient, timeout(1_000)).embed(eq(MODEL), anyString());
+
+        CountDownLatch appended = new CountDownLatch(1);
+        pipeline.submit("chat-history", () -> Mono.fromRunnable(appended::countDown));
+
+        assertThat(appended.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+}
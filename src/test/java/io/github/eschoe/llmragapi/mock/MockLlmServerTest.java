@@ -0,0 +1,49 @@
+package io.github.eschoe.llmragapi.mock;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MockLlmServerTest {
+
+    private static final int DIMENSIONS = 1536;
+    // ChatImplService 의 기본 유사도 임계값
+    private static final double THRESHOLD = 0.1;
+
+    @Test
+    void sameInputGivesSameUnitVector() {
+        float[] first = MockLlmServer.embedding("바다 이야기", DIMENSIONS);
+
+        assertThat(MockLlmServer.embedding("바다 이야기", DIMENSIONS)).containsExactly(first);
+        assertThat(cosine(first, first)).isCloseTo(1.0, within(1e-5));
+    }
+
+    @Test
+    void chunkSharingQueryWordsIsRetrievable() {
+        double related = cosine(
+                MockLlmServer.embedding("바다 이야기", DIMENSIONS),
+                MockLlmServer.embedding("다음 문단은 바다 이야기입니다.", DIMENSIONS));
+        double unrelated = cosine(
+                MockLlmServer.embedding("바다 이야기", DIMENSIONS),
+                MockLlmServer.embedding("회계 처리 규정과 결산 절차", DIMENSIONS));
+
+        assertThat(related).isGreaterThan(THRESHOLD);
+        assertThat(unrelated).isLessThan(THRESHOLD);
+    }
+
+    @Test
+    void inputWithoutWordsStillGivesUnitVector() {
+        float[] vector = MockLlmServer.embedding("  !! ", DIMENSIONS);
+
+        assertThat(cosine(vector, vector)).isCloseTo(1.0, within(1e-5));
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+}
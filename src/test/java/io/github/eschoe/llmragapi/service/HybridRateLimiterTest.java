@@ -0,0 +1,180 @@
+package io.github.eschoe.llmragapi.service;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class HybridRateLimiterTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final long WINDOW = 60_000L;
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private HybridRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new HybridRateLimiter(redis);
+        ReflectionTestUtils.setField(limiter, "mode", "hybrid");
+        ReflectionTestUtils.setField(limiter, "windowSeconds", 60);
+        ReflectionTestUtils.setField(limiter, "maxRequests", 100);
+        ReflectionTestUtils.setField(limiter, "syncInterval", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(limiter, "maxDrift", 2);
+        ReflectionTestUtils.setField(limiter, "syncBatchSize", 500);
+        ReflectionTestUtils.setField(limiter, "cluster", false);
+        ReflectionTestUtils.setField(limiter, "failureBackoffMax", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void bucketAsksForSyncOnceDriftIsReached() {
+        HybridRateLimiter.SessionBucket bucket = new HybridRateLimiter.SessionBucket(10, NOW);
+
+        assertThat(bucket.tryAcquire(NOW, 10, WINDOW, 2).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(NOW, 10, WINDOW, 2).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(NOW, 10, WINDOW, 2)).isNull();
+    }
+
+    @Test
+    void allowedDecisionReportsWhenTheNextSlotFrees() {
+        // 60초에 10개 -> 토큰 하나가 차는 데 6초
+        HybridRateLimiter.SessionBucket bucket = new HybridRateLimiter.SessionBucket(10, NOW);
+
+        RateLimitDecision first = bucket.tryAcquire(NOW, 10, WINDOW, 100);
+        assertThat(first.remaining()).isEqualTo(9);
+        assertThat(first.resetSeconds()).isEqualTo(6);
+
+        // 1.5초 뒤에는 토큰 9.25 -> 8.25 남고, 다음 토큰까지 4.5초
+        RateLimitDecision second = bucket.tryAcquire(NOW + 1_500, 10, WINDOW, 100);
+        assertThat(second.remaining()).isEqualTo(8);
+        assertThat(second.resetSeconds()).isEqualTo(5);
+    }
+
+    @Test
+    void allowedDecisionUsesWindowResetWhenGlobalUsageBinds() {
+        HybridRateLimiter.SessionBucket bucket = new HybridRateLimiter.SessionBucket(10, NOW);
+        bucket.completeSync(9, 0);
+
+        RateLimitDecision decision = bucket.tryAcquire(NOW, 10, WINDOW, 100);
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isZero();
+        // NOW = 1000초 -> 60초 윈도우에서 40초 지남
+        assertThat(decision.resetSeconds()).isEqualTo(20);
+    }
+
+    @Test
+    void bucketMovesCountsBetweenUnsyncedAndInFlight() {
+        HybridRateLimiter.SessionBucket bucket = new HybridRateLimiter.SessionBucket(10, NOW);
+        bucket.tryAcquire(NOW, 10, WINDOW, 5);
+        bucket.tryAcquire(NOW, 10, WINDOW, 5);
+
+        long delta = bucket.beginSync();
+        assertThat(delta).isEqualTo(2);
+        assertThat(bucket.hasPending()).isFalse();
+        assertThat(bucket.isSettled()).isFalse();
+
+        // 실패하면 보내던 몫이 다시 미반영으로 돌아감
+        bucket.failSync(delta);
+        assertThat(bucket.hasPending()).isTrue();
+
+        long retried = bucket.beginSync();
+        assertThat(retried).isEqualTo(2);
+        bucket.completeSync(2, retried);
+        assertThat(bucket.isSettled()).isTrue();
+    }
+
+    @Test
+    void bucketDeniesWhenOtherNodesUsedTheWindow() {
+        HybridRateLimiter.SessionBucket bucket = new HybridRateLimiter.SessionBucket(10, NOW);
+        bucket.completeSync(10, 0);
+
+        RateLimitDecision decision = bucket.tryAcquire(NOW, 10, WINDOW, 5);
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.resetSeconds()).isPositive();
+    }
+
+    @Test
+    void bucketDeniesWhenLocalTokensRunOutAndRefillsOverTime() {
+        HybridRateLimiter.SessionBucket bucket = new HybridRateLimiter.SessionBucket(2, NOW);
+        bucket.tryAcquire(NOW, 2, WINDOW, Integer.MAX_VALUE);
+        bucket.tryAcquire(NOW, 2, WINDOW, Integer.MAX_VALUE);
+
+        assertThat(bucket.tryAcquire(NOW, 2, WINDOW, Integer.MAX_VALUE).allowed()).isFalse();
+        // 윈도우 절반이 지나면 토큰 1개가 다시 참
+        assertThat(bucket.tryAcquire(NOW + WINDOW / 2, 2, WINDOW, Integer.MAX_VALUE).allowed()).isTrue();
+    }
+
+    @Test
+    void inlineSyncDeclaresTheSessionKeyAndAppliesGlobalUsage() {
+        doReturn(Flux.just(List.of(100L))).when(redis).execute(any(RedisScript.class), anyList(), anyList());
+
+        limiter.check("s1").block();
+        limiter.check("s1").block();
+        RateLimitDecision decision = limiter.check("s1").block();
+
+        verify(redis).execute(any(RedisScript.class), eq(List.of("rate_limit:hy:{s1}")), eq(List.of("60000", "2")));
+        // 다른 노드까지 합쳐 한도를 다 썼음
+        assertThat(decision.allowed()).isFalse();
+    }
+
+    @Test
+    void failedSyncPausesInlineSyncForHotSessions() {
+        doReturn(Flux.error(new IllegalStateException("redis down")))
+                .when(redis).execute(any(RedisScript.class), anyList(), anyList());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.check("hot").block().allowed()).isTrue();
+        }
+
+        // 오차 한도를 넘긴 뒤 첫 요청만 즉시 동기화하고, backoff 동안은 로컬로만 판정
+        verify(redis, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    void periodicSyncRequeuesCountsAfterFailure() {
+        doReturn(Flux.error(new IllegalStateException("redis down")))
+                .when(redis).execute(any(RedisScript.class), anyList(), anyList());
+        limiter.check("s1").block();
+
+        limiter.syncAll().block();
+
+        doReturn(Flux.just(List.of(1L))).when(redis).execute(any(RedisScript.class), anyList(), anyList());
+        limiter.syncAll().block();
+
+        // 실패한 1건이 다음 주기에 그대로 다시 전송됨
+        verify(redis, times(2)).execute(any(RedisScript.class), eq(List.of("rate_limit:hy:{s1}")), eq(List.of("60000", "1")));
+    }
+
+    @Test
+    void clusterModeKeepsEachBatchInOneSlot() {
+        ReflectionTestUtils.setField(limiter, "cluster", true);
+        doReturn(Flux.just(List.of(1L))).when(redis).execute(any(RedisScript.class), anyList(), anyList());
+        List<String> sessions = List.of("alpha", "beta", "gamma");
+        sessions.forEach(session -> limiter.check(session).block());
+        assertThat(sessions.stream().map(HybridRateLimiter::key).mapToInt(SlotHash::getSlot).distinct().count()).isEqualTo(3);
+
+        limiter.syncAll().block();
+
+        // 슬롯이 모두 달라 세션마다 따로 호출
+        verify(redis, times(3)).execute(any(RedisScript.class), anyList(), anyList());
+        sessions.forEach(session ->
+                verify(redis).execute(any(RedisScript.class), eq(List.of(HybridRateLimiter.key(session))), anyList()));
+    }
+}
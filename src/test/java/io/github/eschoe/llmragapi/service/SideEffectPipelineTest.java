@@ -0,0 +1,49 @@
+package io.github.eschoe.llmragapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SideEffectPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SideEffectPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new SideEffectPipeline(meterRegistry, 100, 10);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 16);
+        ReflectionTestUtils.setField(pipeline, "slowBatchSize", 4);
+        ReflectionTestUtils.setField(pipeline, "maxRetries", 0);
+        ReflectionTestUtils.setField(pipeline, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(pipeline, "taskTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(pipeline, "drainTimeout", Duration.ofSeconds(1));
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void slowTaskDoesNotHoldBackOtherSideEffects() throws InterruptedException {
+        // 요약처럼 오래 걸리는 작업이 먼저 들어와 있어도
+        pipeline.submit("chat-summary", Duration.ofSeconds(60), () -> Mono.delay(Duration.ofSeconds(30)));
+        Thread.sleep(200);
+
+        CountDownLatch saved = new CountDownLatch(1);
+        pipeline.submit("chat-history", () -> Mono.fromRunnable(saved::countDown));
+
+        assertThat(saved.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.eschoe.llmragapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashUtilTest {
+
+    private final HashUtil hash = new HashUtil();
+
+    @Test
+    void partBoundariesChangeTheHash() {
+        assertThat(hash.sha256("text-embedding-3-small", "청크"))
+                .isNotEqualTo(hash.sha256("text-embedding-3-smal", "l청크"));
+        assertThat(hash.sha256("ab", "c")).isNotEqualTo(hash.sha256("a", "bc"));
+        assertThat(hash.sha256("a", "")).isNotEqualTo(hash.sha256("", "a"));
+    }
+
+    @Test
+    void sameInputGivesSameHash() {
+        assertThat(hash.sha256("model", "본문")).isEqualTo(hash.sha256("model", "본문"));
+    }
+}
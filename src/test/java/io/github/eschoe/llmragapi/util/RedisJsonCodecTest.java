@@ -0,0 +1,46 @@
+package io.github.eschoe.llmragapi.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eschoe.llmragapi.domain.history.HistoryMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisJsonCodecTest {
+
+    private final RedisJsonCodec codec = new RedisJsonCodec(new ObjectMapper());
+
+    @Test
+    void encodedValuesRoundTrip() {
+        HistoryMessage message = new HistoryMessage("user", "경로 C:\\path\\to \"따옴표\"\n줄바꿈", Instant.parse("2026-01-01T00:00:00Z"));
+
+        assertThat(codec.decode(codec.encode(message), HistoryMessage.class)).isEqualTo(message);
+    }
+
+    @Test
+    void legacyValueWithRawBackslashDecodes() {
+        // 예전 형식: 큰따옴표만 \" 로 바꾸고 백슬래시와 줄바꿈은 그대로 저장
+        String legacy = "{\"role\":\"user\",\"content\":\"C:\\path\\to \\\"file\\\"\nnext\",\"timestamp\":\"2026-01-01T00:00:00Z\"}";
+
+        HistoryMessage message = codec.decode(legacy, HistoryMessage.class);
+
+        assertThat(message.content()).isEqualTo("C:\\path\\to \"file\"\nnext");
+        assertThat(message.timestamp()).isEqualTo(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void legacyValueWithRawBackslashBeforeUnicodeLikeTextDecodes() {
+        String legacy = "{\"role\":\"assistant\",\"content\":\"D:\\users\\x\",\"timestamp\":\"2026-01-01T00:00:00Z\"}";
+
+        assertThat(codec.decode(legacy, HistoryMessage.class).content()).isEqualTo("D:\\users\\x");
+    }
+
+    @Test
+    void brokenValueStillFails() {
+        assertThatThrownBy(() -> codec.decode("{\"role\":\"user\",\"content\":\"a\\", HistoryMessage.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
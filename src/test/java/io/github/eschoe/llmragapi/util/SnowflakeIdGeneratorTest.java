@@ -0,0 +1,70 @@
+package io.github.eschoe.llmragapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+    @Test
+    void idsIncreaseWithinAndAcrossMilliseconds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock::get);
+
+        long prev = generator.nextId();
+        // 같은 ms 에서 시퀀스 4096 개를 넘겨도 계속 증가
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 3000 == 0) {
+                clock.incrementAndGet();
+            }
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(prev);
+            prev = id;
+        }
+    }
+
+    @Test
+    void clockRollbackKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock::get);
+
+        long beforeRollback = generator.nextId();
+        clock.addAndGet(-5_000);
+        long afterRollback = generator.nextId();
+
+        assertThat(afterRollback).isGreaterThan(beforeRollback);
+        // 시계가 따라잡기 전까지는 마지막 타임스탬프에서 시퀀스만 올림
+        assertThat(afterRollback >>> 22).isEqualTo(beforeRollback >>> 22);
+    }
+
+    @Test
+    void nodeIdIsEncodedInTheMiddleBits() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1023, () -> NOW);
+
+        assertThat((generator.nextId() >>> 12) & 1023).isEqualTo(1023L);
+    }
+
+    @Test
+    void missingNodeIdIsOnlyAllowedInLocalProfiles() {
+        assertThat(SnowflakeIdGenerator.resolveNodeId("", "dev")).isZero();
+        assertThat(SnowflakeIdGenerator.resolveNodeId(null)).isZero();
+        assertThat(SnowflakeIdGenerator.resolveNodeId("12", "heroku")).isEqualTo(12L);
+
+        assertThatThrownBy(() -> SnowflakeIdGenerator.resolveNodeId("", "heroku"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> SnowflakeIdGenerator.resolveNodeId(" ", "dev", "prod"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1024, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,14 +1,36 @@
 -- 테스트용 스키마
 CREATE SCHEMA IF NOT EXISTS chatbot;
 
+CREATE TABLE IF NOT EXISTS chatbot.documents (
+    id VARCHAR(36) PRIMARY KEY,
+    title VARCHAR(255),
+    version INTEGER NOT NULL DEFAULT 1,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    owner_id VARCHAR(128),
+    description TEXT,
+    category VARCHAR(100),
+    total_chunks INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_documents_owner_updated ON chatbot.documents (owner_id, updated_at DESC);
+
 CREATE TABLE IF NOT EXISTS chatbot.embeddings (
     id BIGINT PRIMARY KEY,
     title VARCHAR(255),
     content TEXT,
     embedding VECTOR(1536),
-    created_at TIMESTAMP
+    created_at TIMESTAMP,
+    document_id VARCHAR(36) REFERENCES chatbot.documents (id) ON DELETE CASCADE,
+    chunk_index INTEGER,
+    start_offset BIGINT,
+    end_offset BIGINT,
+    content_hash CHAR(64)
 );
 
+CREATE INDEX IF NOT EXISTS idx_embeddings_content_hash ON chatbot.embeddings (content_hash);
+CREATE INDEX IF NOT EXISTS idx_embeddings_document_id ON chatbot.embeddings (document_id);
+
 -- 테스트용 데이터
 INSERT INTO chatbot.embeddings (id, title, content, embedding, created_at) VALUES 
 (1, 'Test Document 1', 'This is a test document about machine learning.', ARRAY[0.1, 0.2, 0.3], CURRENT_TIMESTAMP),